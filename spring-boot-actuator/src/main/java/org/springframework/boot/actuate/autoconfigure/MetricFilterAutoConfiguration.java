@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,8 @@
 package org.springframework.boot.actuate.autoconfigure;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -29,6 +31,8 @@ import javax.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.metrics.CounterService;
 import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.actuate.trace.RequestTimings;
+import org.springframework.boot.actuate.trace.RequestTimingsInterceptor;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
@@ -38,14 +42,17 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
-import org.springframework.util.StopWatch;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 import org.springframework.web.util.UrlPathHelper;
 
 /**
  * {@link EnableAutoConfiguration Auto-configuration} that records Servlet interactions
- * with a {@link CounterService} and {@link GaugeService}.
+ * with a {@link CounterService} and {@link GaugeService}. As well as the total time
+ * taken to process a request, gauges are submitted for the time to first byte
+ * ({@literal ttfb.*}) and the time spent in the MVC handler ({@literal handler.*}).
  *
  * @author Dave Syer
  * @author Phillip Webb
@@ -61,6 +68,8 @@ public class MetricFilterAutoConfiguration {
 
 	private static final String UNKNOWN_PATH_SUFFIX = "/unmapped";
 
+	private static final int MAX_CACHED_KEYS = 1000;
+
 	@Autowired
 	private CounterService counterService;
 
@@ -72,46 +81,102 @@ public class MetricFilterAutoConfiguration {
 		return new MetricsFilter();
 	}
 
+	/**
+	 * Registers the interceptor that records the time spent in MVC handlers.
+	 */
+	@Configuration
+	@ConditionalOnClass(WebMvcConfigurerAdapter.class)
+	protected static class RequestTimingsConfiguration extends WebMvcConfigurerAdapter {
+
+		@Override
+		public void addInterceptors(InterceptorRegistry registry) {
+			registry.addInterceptor(new RequestTimingsInterceptor());
+		}
+
+	}
+
 	/**
 	 * Filter that counts requests and measures processing times.
 	 */
 	@Order(Ordered.HIGHEST_PRECEDENCE)
 	private final class MetricsFilter extends OncePerRequestFilter {
 
+		private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+		private final ConcurrentMap<String, MetricKeys> patternKeys = new ConcurrentHashMap<String, MetricKeys>();
+
+		private final ConcurrentMap<String, MetricKeys> pathKeys = new ConcurrentHashMap<String, MetricKeys>();
+
+		private final MetricKeys unmappedKeys = new MetricKeys(UNKNOWN_PATH_SUFFIX);
+
 		@Override
 		protected void doFilterInternal(HttpServletRequest request,
 				HttpServletResponse response, FilterChain chain) throws ServletException,
 				IOException {
-			UrlPathHelper helper = new UrlPathHelper();
-			String suffix = helper.getPathWithinApplication(request);
-			StopWatch stopWatch = new StopWatch();
-			stopWatch.start();
+			RequestTimings timings = RequestTimings.start(request);
 			try {
-				chain.doFilter(request, response);
+				chain.doFilter(request, timings.wrap(response));
 			}
 			finally {
-				stopWatch.stop();
+				long totalTime = timings.getTotalTime();
 				int status = getStatus(response);
-				Object bestMatchingPattern = request
-						.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
-				HttpStatus httpStatus = HttpStatus.OK;
-				try {
-					httpStatus = HttpStatus.valueOf(status);
-				}
-				catch (Exception ex) {
-					// not convertible
-				}
-				if (bestMatchingPattern != null) {
-					suffix = fixSpecialCharacters(bestMatchingPattern.toString());
-				}
-				else if (httpStatus.is4xxClientError()) {
-					suffix = UNKNOWN_PATH_SUFFIX;
+				MetricKeys keys = getMetricKeys(request, status);
+				submitTime(keys.getResponseKey(), totalTime);
+				submitTime(keys.getTtfbKey(), timings.getTimeToFirstByte());
+				submitTime(keys.getHandlerKey(), timings.getHandlerTime());
+				MetricFilterAutoConfiguration.this.counterService.increment(keys
+						.getCounterKey(status));
+			}
+		}
+
+		private MetricKeys getMetricKeys(HttpServletRequest request, int status) {
+			Object bestMatchingPattern = request
+					.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			if (bestMatchingPattern != null) {
+				String pattern = bestMatchingPattern.toString();
+				MetricKeys keys = this.patternKeys.get(pattern);
+				if (keys == null) {
+					keys = cache(this.patternKeys, pattern, new MetricKeys(
+							fixSpecialCharacters(pattern)));
 				}
-				String gaugeKey = getKey("response" + suffix);
-				MetricFilterAutoConfiguration.this.gaugeService.submit(gaugeKey,
-						stopWatch.getTotalTimeMillis());
-				String counterKey = getKey("status." + status + suffix);
-				MetricFilterAutoConfiguration.this.counterService.increment(counterKey);
+				return keys;
+			}
+			if (isClientError(status)) {
+				return this.unmappedKeys;
+			}
+			String path = this.urlPathHelper.getPathWithinApplication(request);
+			MetricKeys keys = this.pathKeys.get(path);
+			if (keys == null) {
+				keys = cache(this.pathKeys, path, new MetricKeys(path));
+			}
+			return keys;
+		}
+
+		private MetricKeys cache(ConcurrentMap<String, MetricKeys> cache, String key,
+				MetricKeys keys) {
+			// Paths that are not mapped could be unique to each request so the size of
+			// the cache is limited
+			if (cache.size() >= MAX_CACHED_KEYS) {
+				return keys;
+			}
+			MetricKeys existing = cache.putIfAbsent(key, keys);
+			return (existing == null ? keys : existing);
+		}
+
+		private boolean isClientError(int status) {
+			try {
+				return HttpStatus.valueOf(status).is4xxClientError();
+			}
+			catch (Exception ex) {
+				// not convertible
+				return false;
+			}
+		}
+
+		private void submitTime(String key, long nanos) {
+			if (nanos >= 0) {
+				MetricFilterAutoConfiguration.this.gaugeService.submit(key,
+						RequestTimings.toMillis(nanos));
 			}
 		}
 
@@ -139,7 +204,72 @@ public class MetricFilterAutoConfiguration {
 			}
 		}
 
-		private String getKey(String string) {
+	}
+
+	/**
+	 * The metric names used for requests with a given path suffix. Counter names depend
+	 * on the status of the response and are cached as they are used.
+	 */
+	private static class MetricKeys {
+
+		private static final int MAX_CACHED_STATUSES = 32;
+
+		private final String suffix;
+
+		private final String responseKey;
+
+		private final String ttfbKey;
+
+		private final String handlerKey;
+
+		private volatile StatusKey[] counterKeys = new StatusKey[0];
+
+		public MetricKeys(String suffix) {
+			this.suffix = suffix;
+			this.responseKey = getKey("response" + suffix);
+			this.ttfbKey = getKey("ttfb" + suffix);
+			this.handlerKey = getKey("handler" + suffix);
+		}
+
+		public String getResponseKey() {
+			return this.responseKey;
+		}
+
+		public String getTtfbKey() {
+			return this.ttfbKey;
+		}
+
+		public String getHandlerKey() {
+			return this.handlerKey;
+		}
+
+		public String getCounterKey(int status) {
+			for (StatusKey counterKey : this.counterKeys) {
+				if (counterKey.status == status) {
+					return counterKey.key;
+				}
+			}
+			return addCounterKey(status);
+		}
+
+		private synchronized String addCounterKey(int status) {
+			StatusKey[] counterKeys = this.counterKeys;
+			for (StatusKey counterKey : counterKeys) {
+				if (counterKey.status == status) {
+					return counterKey.key;
+				}
+			}
+			String key = getKey("status." + status + this.suffix);
+			if (counterKeys.length < MAX_CACHED_STATUSES) {
+				StatusKey[] updated = new StatusKey[counterKeys.length + 1];
+				System.arraycopy(counterKeys, 0, updated, 0, counterKeys.length);
+				updated[counterKeys.length] = new StatusKey(status, key);
+				this.counterKeys = updated;
+			}
+			return key;
+		}
+
+		private static String getKey(String string) {
 			// graphite compatible metric names
 			String value = string.replace("/", ".");
 			value = value.replace("..", ".");
@@ -151,6 +281,23 @@ public class MetricFilterAutoConfiguration {
 			}
 			return value;
 		}
+
+	}
+
+	/**
+	 * A counter name for a specific status.
+	 */
+	private static class StatusKey {
+
+		private final int status;
+
+		private final String key;
+
+		public StatusKey(int status, String key) {
+			this.status = status;
+			this.key = key;
+		}
+
 	}
 
 }
@@ -117,6 +117,20 @@ public class MetricRepositoryAutoConfiguration {
 
 	}
 
+	@Configuration
+	@ConditionalOnMissingClass(name = { "org.springframework.messaging.MessageChannel",
+			"com.codahale.metrics.MetricRegistry" })
+	static class CompositeMetricWriterConfiguration {
+
+		@Bean
+		@Primary
+		@ConditionalOnMissingBean(name = "primaryMetricWriter")
+		public MetricWriter primaryMetricWriter(List<MetricWriter> writers) {
+			return new CompositeMetricWriter(writers);
+		}
+
+	}
+
 	@Configuration
 	@ConditionalOnClass(MessageChannel.class)
 	static class MetricsChannelConfiguration {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,12 @@
 
 package org.springframework.boot.actuate.endpoint;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ClassPresenceCache;
 import org.springframework.boot.actuate.endpoint.AutoConfigurationReportEndpoint.Report;
 import org.springframework.boot.autoconfigure.condition.ConditionEvaluationReport;
 import org.springframework.boot.autoconfigure.condition.ConditionEvaluationReport.ConditionAndOutcome;
@@ -61,7 +63,7 @@ public class AutoConfigurationReportEndpoint extends AbstractEndpoint<Report> {
 	/**
 	 * Adapts {@link ConditionEvaluationReport} to a JSON friendly structure.
 	 */
-	@JsonPropertyOrder({ "positiveMatches", "negativeMatches" })
+	@JsonPropertyOrder({ "positiveMatches", "negativeMatches", "classPresenceChecks" })
 	@JsonInclude(Include.NON_EMPTY)
 	public static class Report {
 
@@ -69,6 +71,8 @@ public class AutoConfigurationReportEndpoint extends AbstractEndpoint<Report> {
 
 		private MultiValueMap<String, MessageAndCondition> negativeMatches;
 
+		private Map<String, Object> classPresenceChecks;
+
 		private Report parent;
 
 		public Report(ConditionEvaluationReport report) {
@@ -80,6 +84,14 @@ public class AutoConfigurationReportEndpoint extends AbstractEndpoint<Report> {
 						: this.negativeMatches, entry.getKey(), entry.getValue());
 
 			}
+			ClassPresenceCache.Statistics statistics = report
+					.getClassPresenceStatistics();
+			if (statistics != null) {
+				this.classPresenceChecks = new LinkedHashMap<String, Object>();
+				this.classPresenceChecks.put("classes", statistics.getSize());
+				this.classPresenceChecks.put("hits", statistics.getHits());
+				this.classPresenceChecks.put("misses", statistics.getMisses());
+			}
 			if (report.getParent() != null) {
 				this.parent = new Report(report.getParent());
 			}
@@ -101,6 +113,10 @@ public class AutoConfigurationReportEndpoint extends AbstractEndpoint<Report> {
 			return this.negativeMatches;
 		}
 
+		public Map<String, Object> getClassPresenceChecks() {
+			return this.classPresenceChecks;
+		}
+
 		public Report getParent() {
 			return this.parent;
 		}
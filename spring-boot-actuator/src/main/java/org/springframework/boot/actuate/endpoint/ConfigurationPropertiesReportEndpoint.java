@@ -85,6 +85,8 @@ public class ConfigurationPropertiesReportEndpoint extends
 
 	private ConfigurationPropertiesMetaData metadata;
 
+	private ObjectMapper objectMapper;
+
 	private String metadataLocations = "classpath:*/META-INF/*spring-configuration-metadata.json";
 
 	public ConfigurationPropertiesReportEndpoint() {
@@ -121,9 +123,17 @@ public class ConfigurationPropertiesReportEndpoint extends
 	 */
 	protected Map<String, Object> extract(ApplicationContext context) {
 		// Serialize beans into map structure and sanitize values
-		ObjectMapper mapper = new ObjectMapper();
-		configureObjectMapper(mapper);
-		return extract(context, mapper);
+		return extract(context, getObjectMapper());
+	}
+
+	private ObjectMapper getObjectMapper() {
+		if (this.objectMapper == null) {
+			// The configured mapper is thread-safe so it can be shared by all calls
+			ObjectMapper mapper = new ObjectMapper();
+			configureObjectMapper(mapper);
+			this.objectMapper = mapper;
+		}
+		return this.objectMapper;
 	}
 
 	private Map<String, Object> extract(ApplicationContext context, ObjectMapper mapper) {
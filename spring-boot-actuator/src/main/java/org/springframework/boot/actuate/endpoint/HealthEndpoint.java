@@ -16,12 +16,24 @@
 
 package org.springframework.boot.actuate.endpoint;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.actuate.health.CompositeHealthIndicator;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthAggregator;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.ScheduledCompositeHealthIndicator;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.util.Assert;
 
@@ -33,15 +45,57 @@ import org.springframework.util.Assert;
  * @author Andy Wilkinson
  */
 @ConfigurationProperties(prefix = "endpoints.health", ignoreUnknownFields = true)
-public class HealthEndpoint extends AbstractEndpoint<Health> {
+public class HealthEndpoint extends AbstractEndpoint<Health> implements
+		InitializingBean, DisposableBean {
 
-	private final HealthIndicator healthIndicator;
+	private final HealthAggregator healthAggregator;
+
+	private final Map<String, HealthIndicator> healthIndicators;
+
+	private final CompositeHealthIndicator healthIndicator;
 
 	/**
 	 * Time to live for cached result, in milliseconds.
 	 */
 	private long timeToLive = 1000;
 
+	/**
+	 * Number of threads used to call health indicators concurrently. When 0 health
+	 * indicators are called one after the other. Calls that cannot be started because
+	 * all threads are busy and one call per indicator is already waiting are reported as
+	 * UNKNOWN.
+	 */
+	private int threads = 0;
+
+	/**
+	 * Time to wait for each health indicator when they are called concurrently, in
+	 * milliseconds. Indicators that do not respond in time are reported as UNKNOWN.
+	 */
+	private long timeout = 0;
+
+	/**
+	 * Interval between background calls to each health indicator, in milliseconds. When
+	 * 0 health indicators are called each time that health is requested.
+	 */
+	private long refreshInterval = 0;
+
+	/**
+	 * Background refresh intervals for specific health indicators, in milliseconds.
+	 */
+	private Map<String, Long> refreshIntervals = new LinkedHashMap<String, Long>();
+
+	/**
+	 * Number of refresh intervals that a health indicator can miss before it is reported
+	 * as UNKNOWN. When 0 the most recent result is always reported.
+	 */
+	private int maxMissedRefreshes = 3;
+
+	private ExecutorService executor;
+
+	private ScheduledExecutorService scheduledExecutor;
+
+	private volatile ScheduledCompositeHealthIndicator scheduledHealthIndicator;
+
 	/**
 	 * Create a new {@link HealthIndicator} instance.
 	 * @param healthAggregator the health aggregator
@@ -52,12 +106,13 @@ public class HealthEndpoint extends AbstractEndpoint<Health> {
 		super("health", false);
 		Assert.notNull(healthAggregator, "HealthAggregator must not be null");
 		Assert.notNull(healthIndicators, "HealthIndicators must not be null");
-		CompositeHealthIndicator healthIndicator = new CompositeHealthIndicator(
-				healthAggregator);
+		this.healthAggregator = healthAggregator;
+		this.healthIndicators = new LinkedHashMap<String, HealthIndicator>();
 		for (Map.Entry<String, HealthIndicator> h : healthIndicators.entrySet()) {
-			healthIndicator.addHealthIndicator(getKey(h.getKey()), h.getValue());
+			this.healthIndicators.put(getKey(h.getKey()), h.getValue());
 		}
-		this.healthIndicator = healthIndicator;
+		this.healthIndicator = new CompositeHealthIndicator(healthAggregator,
+				this.healthIndicators);
 	}
 
 	/**
@@ -73,14 +128,145 @@ public class HealthEndpoint extends AbstractEndpoint<Health> {
 		this.timeToLive = ttl;
 	}
 
+	/**
+	 * Number of threads used to call {@link HealthIndicator}s concurrently.
+	 * @return the number of threads (default 0 meaning indicators are called
+	 * sequentially)
+	 */
+	public int getThreads() {
+		return this.threads;
+	}
+
+	public synchronized void setThreads(int threads) {
+		Assert.isTrue(threads >= 0, "Threads must not be negative");
+		shutdownExecutor();
+		this.threads = threads;
+		if (threads > 0) {
+			this.executor = createExecutor(threads);
+		}
+		this.healthIndicator.setExecutor(this.executor);
+	}
+
+	/**
+	 * Time to wait for each {@link HealthIndicator} when they are called concurrently.
+	 * @return the timeout in milliseconds (default 0 meaning no timeout)
+	 */
+	public long getTimeout() {
+		return this.timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.healthIndicator.setTimeout(timeout);
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Interval between background calls to each {@link HealthIndicator}. When set,
+	 * indicators are called in the background and {@link #invoke()} returns the most
+	 * recent results.
+	 * @return the refresh interval in milliseconds (default 0 meaning indicators are
+	 * called when health is requested)
+	 */
+	public long getRefreshInterval() {
+		return this.refreshInterval;
+	}
+
+	public void setRefreshInterval(long refreshInterval) {
+		Assert.isTrue(refreshInterval >= 0, "RefreshInterval must not be negative");
+		this.refreshInterval = refreshInterval;
+	}
+
+	/**
+	 * Background refresh intervals for specific {@link HealthIndicator}s, keyed by the
+	 * name used in the health information. Indicators without a specific interval use
+	 * the {@link #getRefreshInterval() refresh interval}.
+	 * @return the refresh intervals in milliseconds
+	 */
+	public Map<String, Long> getRefreshIntervals() {
+		return this.refreshIntervals;
+	}
+
+	public void setRefreshIntervals(Map<String, Long> refreshIntervals) {
+		Assert.notNull(refreshIntervals, "RefreshIntervals must not be null");
+		this.refreshIntervals = refreshIntervals;
+	}
+
+	/**
+	 * Number of refresh intervals that a {@link HealthIndicator} called in the background
+	 * can miss, for example because it hangs, before it is reported as
+	 * {@link org.springframework.boot.actuate.health.Status#UNKNOWN unknown}.
+	 * @return the maximum number of missed refreshes (default 3, 0 meaning the most
+	 * recent result is always reported)
+	 */
+	public int getMaxMissedRefreshes() {
+		return this.maxMissedRefreshes;
+	}
+
+	public void setMaxMissedRefreshes(int maxMissedRefreshes) {
+		Assert.isTrue(maxMissedRefreshes >= 0, "MaxMissedRefreshes must not be negative");
+		this.maxMissedRefreshes = maxMissedRefreshes;
+	}
+
+	@Override
+	public synchronized void afterPropertiesSet() {
+		if (this.refreshInterval > 0 && this.scheduledHealthIndicator == null) {
+			// A thread for each indicator so that one that hangs cannot delay the others
+			this.scheduledExecutor = new ScheduledThreadPoolExecutor(Math.max(
+					this.healthIndicators.size(), 1), new HealthThreadFactory());
+			ScheduledCompositeHealthIndicator healthIndicator = new ScheduledCompositeHealthIndicator(
+					this.healthAggregator, this.scheduledExecutor);
+			healthIndicator.setDefaultInterval(this.refreshInterval);
+			healthIndicator.setMaxMissedRefreshes(this.maxMissedRefreshes);
+			for (Map.Entry<String, HealthIndicator> h : this.healthIndicators.entrySet()) {
+				Long interval = this.refreshIntervals.get(h.getKey());
+				healthIndicator.addHealthIndicator(h.getKey(), h.getValue(),
+						(interval == null ? 0 : interval));
+			}
+			healthIndicator.start();
+			this.scheduledHealthIndicator = healthIndicator;
+		}
+	}
+
 	/**
 	 * Invoke all {@link HealthIndicator} delegates and collect their health information.
+	 * If a {@link #getRefreshInterval() refresh interval} is set the most recent results
+	 * of the background calls are returned instead.
 	 */
 	@Override
 	public Health invoke() {
+		ScheduledCompositeHealthIndicator scheduled = this.scheduledHealthIndicator;
+		if (scheduled != null) {
+			return scheduled.health();
+		}
 		return this.healthIndicator.health();
 	}
 
+	@Override
+	public synchronized void destroy() {
+		shutdownExecutor();
+		if (this.scheduledHealthIndicator != null) {
+			this.scheduledHealthIndicator.stop();
+			this.scheduledHealthIndicator = null;
+			this.scheduledExecutor.shutdownNow();
+			this.scheduledExecutor = null;
+		}
+	}
+
+	private void shutdownExecutor() {
+		if (this.executor != null) {
+			this.executor.shutdownNow();
+			this.executor = null;
+		}
+	}
+
+	private ExecutorService createExecutor(int threads) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60,
+				TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(Math.max(
+						this.healthIndicators.size(), 1)), new HealthThreadFactory());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
 	/**
 	 * Turns the bean name into a key that can be used in the map of health information.
 	 */
@@ -91,4 +277,23 @@ public class HealthEndpoint extends AbstractEndpoint<Health> {
 		}
 		return name;
 	}
+
+	/**
+	 * {@link ThreadFactory} used to create the daemon threads that call health
+	 * indicators.
+	 */
+	private static class HealthThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "health-"
+					+ this.count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
 }
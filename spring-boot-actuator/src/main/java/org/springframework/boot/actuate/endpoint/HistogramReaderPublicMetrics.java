@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.histogram.Histogram;
+import org.springframework.boot.actuate.metrics.histogram.HistogramReader;
+import org.springframework.util.Assert;
+
+/**
+ * {@link PublicMetrics} exposed from a {@link HistogramReader}.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public class HistogramReaderPublicMetrics implements PublicMetrics {
+
+	private final HistogramReader histogramReader;
+
+	public HistogramReaderPublicMetrics(HistogramReader histogramReader) {
+		Assert.notNull(histogramReader, "HistogramReader must not be null");
+		this.histogramReader = histogramReader;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		List<Metric<?>> result = new ArrayList<Metric<?>>();
+		for (Histogram histogram : this.histogramReader.findAll()) {
+			result.addAll(convert(histogram));
+		}
+		return result;
+	}
+
+	private List<Metric<?>> convert(Histogram histogram) {
+		String name = histogram.getName();
+		List<Metric<?>> result = new ArrayList<Metric<?>>(6);
+		result.add(new Metric<Long>(name + Histogram.COUNT, histogram.getCount()));
+		result.add(new Metric<Double>(name + Histogram.MAX, histogram.getMax()));
+		result.add(new Metric<Double>(name + Histogram.P50, histogram
+				.getValueAtPercentile(50)));
+		result.add(new Metric<Double>(name + Histogram.P95, histogram
+				.getValueAtPercentile(95)));
+		result.add(new Metric<Double>(name + Histogram.P99, histogram
+				.getValueAtPercentile(99)));
+		result.add(new Metric<Double>(name + Histogram.P999, histogram
+				.getValueAtPercentile(99.9)));
+		return result;
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.startup.StartupStep;
+import org.springframework.boot.context.startup.StartupTimeline;
+
+/**
+ * {@link Endpoint} to expose the {@link StartupTimeline} of the application.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+@ConfigurationProperties(prefix = "endpoints.startup", ignoreUnknownFields = false)
+public class StartupTimelineEndpoint extends AbstractEndpoint<List<StartupStep>> {
+
+	@Autowired
+	private StartupTimeline timeline;
+
+	/**
+	 * Create a new {@link StartupTimelineEndpoint} instance.
+	 */
+	public StartupTimelineEndpoint() {
+		super("startup");
+	}
+
+	@Override
+	public List<StartupStep> invoke() {
+		return this.timeline.getSteps();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -136,15 +136,23 @@ public class HealthMvcEndpoint implements MvcEndpoint, EnvironmentAware {
 	}
 
 	private Health getHealth(Principal principal) {
-		long accessTime = System.currentTimeMillis();
-		if (isCacheStale(accessTime) || isSecure(principal) || isUnrestricted()) {
-			this.lastAccess = accessTime;
-			this.cached = this.delegate.invoke();
+		Health health;
+		if (this.delegate.getRefreshInterval() > 0) {
+			// Health is refreshed in the background so there's no need to cache it
+			health = this.delegate.invoke();
+		}
+		else {
+			long accessTime = System.currentTimeMillis();
+			if (isCacheStale(accessTime) || isSecure(principal) || isUnrestricted()) {
+				this.lastAccess = accessTime;
+				this.cached = this.delegate.invoke();
+			}
+			health = this.cached;
 		}
 		if (isSecure(principal) || isUnrestricted()) {
-			return this.cached;
+			return health;
 		}
-		return Health.status(this.cached.getStatus()).build();
+		return Health.status(health.getStatus()).build();
 	}
 
 	private boolean isCacheStale(long accessTime) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 
 package org.springframework.boot.actuate.endpoint.mvc;
 
+import java.io.IOException;
+import java.util.Map;
+
 import org.springframework.boot.actuate.endpoint.MetricsEndpoint;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -24,10 +27,17 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+
 /**
- * Adapter to expose {@link MetricsEndpoint} as an {@link MvcEndpoint}.
+ * Adapter to expose {@link MetricsEndpoint} as an {@link MvcEndpoint}. A sub-path returns
+ * either the value of the metric with that name or, if there is no such metric, all
+ * metrics whose names start with the sub-path followed by a dot (for example
+ * {@literal /metrics/gauge} returns all {@literal gauge.*} metrics). Matching metrics are
+ * filtered as they are written rather than being copied into another map.
  *
  * @author Dave Syer
+ * @author Phillip Webb
  */
 public class MetricsMvcEndpoint extends EndpointMvcAdapter {
 
@@ -41,11 +51,38 @@ public class MetricsMvcEndpoint extends EndpointMvcAdapter {
 	@RequestMapping(value = "/{name:.*}", method = RequestMethod.GET)
 	@ResponseBody
 	public Object value(@PathVariable String name) {
-		Object value = this.delegate.invoke().get(name);
-		if (value == null) {
+		final Map<String, Object> metrics = this.delegate.invoke();
+		Object value = metrics.get(name);
+		if (value != null) {
+			return value;
+		}
+		final String prefix = name + ".";
+		if (!hasPrefix(metrics, prefix)) {
 			throw new NoSuchMetricException("No such metric: " + name);
 		}
-		return value;
+		return new StreamingJsonBody() {
+
+			@Override
+			protected void write(JsonGenerator generator) throws IOException {
+				generator.writeStartObject();
+				for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+					if (entry.getKey().startsWith(prefix)) {
+						generator.writeObjectField(entry.getKey(), entry.getValue());
+					}
+				}
+				generator.writeEndObject();
+			}
+
+		};
+	}
+
+	private boolean hasPrefix(Map<String, Object> metrics, String prefix) {
+		for (String name : metrics.keySet()) {
+			if (name.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	@SuppressWarnings("serial")
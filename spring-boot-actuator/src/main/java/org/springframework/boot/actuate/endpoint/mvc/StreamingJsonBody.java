@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+/**
+ * Response body that can be returned from an {@link MvcEndpoint} to write JSON directly
+ * to the {@link JsonGenerator} of the response rather than building an intermediate
+ * object graph. The generator is created by the configured Jackson message converter so
+ * the usual serialization settings (for example indentation) still apply.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public abstract class StreamingJsonBody implements JsonSerializable {
+
+	@Override
+	public final void serialize(JsonGenerator generator, SerializerProvider provider)
+			throws IOException {
+		write(generator);
+	}
+
+	@Override
+	public final void serializeWithType(JsonGenerator generator,
+			SerializerProvider provider, TypeSerializer typeSerializer)
+			throws IOException {
+		write(generator);
+	}
+
+	/**
+	 * Write the body to the given generator.
+	 * @param generator the generator to write to
+	 * @throws IOException on write error
+	 */
+	protected abstract void write(JsonGenerator generator) throws IOException;
+
+}
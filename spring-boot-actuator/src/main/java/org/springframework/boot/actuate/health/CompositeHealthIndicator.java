@@ -18,11 +18,26 @@ package org.springframework.boot.actuate.health;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.util.Assert;
 
 /**
  * {@link HealthIndicator} that returns health indications from all registered delegates.
+ * Delegates are called one after the other unless an {@link #setExecutor(Executor)
+ * executor} is set, in which case they are called concurrently and the health of any
+ * delegate that does not respond within the {@link #setTimeout(long) timeout} is reported
+ * with the {@link #setTimeoutStatus(Status) timeout status}. Each delegate is timed from
+ * when the executor starts calling it so that delegates queued behind others are not
+ * reported early. Delegates that the executor rejects are reported as
+ * {@link Status#UNKNOWN unknown}.
  *
  * @author Tyler J. Frederick
  * @author Phillip Webb
@@ -35,6 +50,12 @@ public class CompositeHealthIndicator implements HealthIndicator {
 
 	private final HealthAggregator healthAggregator;
 
+	private Executor executor;
+
+	private long timeout;
+
+	private Status timeoutStatus = Status.UNKNOWN;
+
 	/**
 	 * Create a new {@link CompositeHealthIndicator}.
 	 * @param healthAggregator the health aggregator
@@ -61,13 +82,141 @@ public class CompositeHealthIndicator implements HealthIndicator {
 		this.indicators.put(name, indicator);
 	}
 
+	/**
+	 * Set the {@link Executor} used to call the delegates concurrently. Since the
+	 * executor determines how many delegates can be called at the same time it should
+	 * usually have a bounded number of threads and a bounded queue. Delegates that are
+	 * rejected by the executor are not called.
+	 * @param executor the executor or {@code null} to call delegates sequentially
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Set the maximum time to wait for each delegate when an {@link #setExecutor(Executor)
+	 * executor} is being used. The time is measured from when the delegate starts being
+	 * called, delegates that have not responded within this time are interrupted. The
+	 * same time is allowed for a queued delegate to be started by the executor.
+	 * @param timeout the timeout in milliseconds or {@code 0} to wait indefinitely
+	 */
+	public void setTimeout(long timeout) {
+		Assert.isTrue(timeout >= 0, "Timeout must not be negative");
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Set the {@link Status} reported for delegates that do not respond within the
+	 * {@link #setTimeout(long) timeout}.
+	 * @param timeoutStatus the timeout status (default {@link Status#UNKNOWN})
+	 */
+	public void setTimeoutStatus(Status timeoutStatus) {
+		Assert.notNull(timeoutStatus, "TimeoutStatus must not be null");
+		this.timeoutStatus = timeoutStatus;
+	}
+
 	@Override
 	public Health health() {
 		Map<String, Health> healths = new LinkedHashMap<String, Health>();
-		for (Map.Entry<String, HealthIndicator> entry : this.indicators.entrySet()) {
-			healths.put(entry.getKey(), entry.getValue().health());
+		if (this.executor == null) {
+			for (Map.Entry<String, HealthIndicator> entry : this.indicators.entrySet()) {
+				healths.put(entry.getKey(), entry.getValue().health());
+			}
+		}
+		else {
+			Map<String, TimedTask> tasks = submitAll();
+			for (Map.Entry<String, TimedTask> entry : tasks.entrySet()) {
+				healths.put(entry.getKey(), getHealth(entry.getValue()));
+			}
 		}
 		return this.healthAggregator.aggregate(healths);
 	}
 
+	private Map<String, TimedTask> submitAll() {
+		Map<String, TimedTask> tasks = new LinkedHashMap<String, TimedTask>();
+		for (Map.Entry<String, HealthIndicator> entry : this.indicators.entrySet()) {
+			TimedTask task = new TimedTask(entry.getValue());
+			try {
+				this.executor.execute(task);
+				tasks.put(entry.getKey(), task);
+			}
+			catch (RejectedExecutionException ex) {
+				tasks.put(entry.getKey(), null);
+			}
+		}
+		return tasks;
+	}
+
+	private Health getHealth(TimedTask task) {
+		if (task == null) {
+			return Health.unknown().withDetail("error", "Rejected by executor").build();
+		}
+		try {
+			if (this.timeout == 0) {
+				return task.get();
+			}
+			long timeout = TimeUnit.MILLISECONDS.toNanos(this.timeout);
+			if (!task.awaitStart(timeout)) {
+				task.cancel(true);
+				return new Health.Builder(this.timeoutStatus).withDetail("error",
+						"Not started within " + this.timeout + "ms").build();
+			}
+			long remaining = task.getStartTime() + timeout - System.nanoTime();
+			return task.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			task.cancel(true);
+			return Health.unknown().withDetail("error", "Interrupted").build();
+		}
+		catch (TimeoutException ex) {
+			task.cancel(true);
+			return new Health.Builder(this.timeoutStatus).withDetail("error",
+					"Timed out after " + this.timeout + "ms").build();
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			return Health.down((Exception) cause).build();
+		}
+	}
+
+	/**
+	 * {@link FutureTask} that records when it starts running so that it can be timed
+	 * independently of how long it was queued.
+	 */
+	private static class TimedTask extends FutureTask<Health> {
+
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		private volatile long startTime;
+
+		public TimedTask(final HealthIndicator indicator) {
+			super(new Callable<Health>() {
+				@Override
+				public Health call() throws Exception {
+					return indicator.health();
+				}
+			});
+		}
+
+		@Override
+		public void run() {
+			this.startTime = System.nanoTime();
+			this.started.countDown();
+			super.run();
+		}
+
+		public boolean awaitStart(long timeout) throws InterruptedException {
+			return this.started.await(timeout, TimeUnit.NANOSECONDS);
+		}
+
+		public long getStartTime() {
+			return this.startTime;
+		}
+
+	}
+
 }
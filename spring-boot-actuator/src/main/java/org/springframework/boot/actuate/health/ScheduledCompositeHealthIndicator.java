@@ -0,0 +1,287 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.health;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link HealthIndicator} that calls its delegates in the background rather than when
+ * health is requested. Each delegate is called repeatedly using its own interval and the
+ * results are aggregated into a snapshot that is replaced atomically, so calling
+ * {@link #health()} simply returns the most recent snapshot.
+ * <p>
+ * Delegates that have not yet been called are reported with an {@link Status#UNKNOWN}
+ * status and delegates that throw an exception are reported as {@link Status#DOWN}.
+ * Delegates that have not completed a call for more than
+ * {@link #setMaxMissedRefreshes(int) a number} of their intervals, for example because
+ * they hang, are reported with the {@link #setStaleStatus(Status) stale status} rather
+ * than with their last result.
+ * <p>
+ * Since each delegate occupies a thread while it is being called, the executor should
+ * usually have a thread for each delegate.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ * @see CompositeHealthIndicator
+ */
+public class ScheduledCompositeHealthIndicator implements HealthIndicator {
+
+	private static final Health PENDING = Health.unknown().build();
+
+	private final Map<String, HealthIndicator> indicators = new LinkedHashMap<String, HealthIndicator>();
+
+	private final Map<String, Long> intervals = new LinkedHashMap<String, Long>();
+
+	private final HealthAggregator healthAggregator;
+
+	private final ScheduledExecutorService executor;
+
+	private final AtomicReference<Snapshot> snapshot;
+
+	private final List<ScheduledFuture<?>> futures = new ArrayList<ScheduledFuture<?>>();
+
+	private long defaultInterval = 10000;
+
+	private int maxMissedRefreshes = 3;
+
+	private Status staleStatus = Status.UNKNOWN;
+
+	private volatile boolean started;
+
+	/**
+	 * Create a new {@link ScheduledCompositeHealthIndicator}.
+	 * @param healthAggregator the health aggregator
+	 * @param executor the executor used to call the delegates
+	 */
+	public ScheduledCompositeHealthIndicator(HealthAggregator healthAggregator,
+			ScheduledExecutorService executor) {
+		Assert.notNull(healthAggregator, "HealthAggregator must not be null");
+		Assert.notNull(executor, "Executor must not be null");
+		this.healthAggregator = healthAggregator;
+		this.executor = executor;
+		this.snapshot = new AtomicReference<Snapshot>(new Snapshot(
+				Collections.<String, Health> emptyMap(),
+				Collections.<String, Long> emptyMap(), healthAggregator));
+	}
+
+	/**
+	 * Set the interval used for delegates that are added without one.
+	 * @param defaultInterval the default interval in milliseconds (default 10000)
+	 */
+	public void setDefaultInterval(long defaultInterval) {
+		Assert.isTrue(defaultInterval > 0, "DefaultInterval must be positive");
+		this.defaultInterval = defaultInterval;
+	}
+
+	/**
+	 * Set the number of intervals that a delegate can go without completing a call
+	 * before it is reported with the {@link #setStaleStatus(Status) stale status}.
+	 * @param maxMissedRefreshes the maximum number of missed refreshes (default 3) or
+	 * {@code 0} to always report the last result
+	 */
+	public void setMaxMissedRefreshes(int maxMissedRefreshes) {
+		Assert.isTrue(maxMissedRefreshes >= 0, "MaxMissedRefreshes must not be negative");
+		this.maxMissedRefreshes = maxMissedRefreshes;
+	}
+
+	/**
+	 * Set the {@link Status} reported for delegates that have missed too many refreshes.
+	 * @param staleStatus the stale status (default {@link Status#UNKNOWN})
+	 */
+	public void setStaleStatus(Status staleStatus) {
+		Assert.notNull(staleStatus, "StaleStatus must not be null");
+		this.staleStatus = staleStatus;
+	}
+
+	/**
+	 * Add a delegate that is called using the {@link #setDefaultInterval(long) default
+	 * interval}.
+	 * @param name the name of the delegate
+	 * @param indicator the delegate
+	 */
+	public void addHealthIndicator(String name, HealthIndicator indicator) {
+		addHealthIndicator(name, indicator, 0);
+	}
+
+	/**
+	 * Add a delegate that is called using the given interval. Delegates must be added
+	 * before the indicator is {@link #start() started}.
+	 * @param name the name of the delegate
+	 * @param indicator the delegate
+	 * @param interval the interval between calls in milliseconds or {@code 0} to use the
+	 * default interval
+	 */
+	public synchronized void addHealthIndicator(String name, HealthIndicator indicator,
+			long interval) {
+		Assert.notNull(name, "Name must not be null");
+		Assert.notNull(indicator, "Indicator must not be null");
+		Assert.isTrue(interval >= 0, "Interval must not be negative");
+		Assert.state(!this.started, "Indicators cannot be added once started");
+		this.indicators.put(name, indicator);
+		this.intervals.put(name, interval);
+		update(name, PENDING);
+	}
+
+	/**
+	 * Start calling the delegates in the background.
+	 */
+	public synchronized void start() {
+		if (this.started) {
+			return;
+		}
+		for (Map.Entry<String, Long> entry : this.intervals.entrySet()) {
+			if (entry.getValue() == 0) {
+				entry.setValue(this.defaultInterval);
+			}
+			// Missed refreshes are counted from now rather than from when added
+			update(entry.getKey(), this.snapshot.get().getHealths().get(entry.getKey()));
+		}
+		this.started = true;
+		for (Map.Entry<String, HealthIndicator> entry : this.indicators.entrySet()) {
+			String name = entry.getKey();
+			long interval = this.intervals.get(name);
+			this.futures.add(this.executor.scheduleWithFixedDelay(new Refresh(name,
+					entry.getValue()), 0, interval, TimeUnit.MILLISECONDS));
+		}
+	}
+
+	/**
+	 * Stop calling the delegates. The most recent snapshot remains available.
+	 */
+	public synchronized void stop() {
+		for (ScheduledFuture<?> future : this.futures) {
+			future.cancel(true);
+		}
+		this.futures.clear();
+		this.started = false;
+	}
+
+	@Override
+	public Health health() {
+		Snapshot snapshot = this.snapshot.get();
+		if (!this.started || this.maxMissedRefreshes == 0) {
+			return snapshot.getHealth();
+		}
+		long now = System.nanoTime();
+		Map<String, Health> healths = null;
+		for (Map.Entry<String, Long> entry : snapshot.getRefreshed().entrySet()) {
+			String name = entry.getKey();
+			long age = TimeUnit.NANOSECONDS.toMillis(now - entry.getValue());
+			if (age > this.intervals.get(name) * this.maxMissedRefreshes) {
+				if (healths == null) {
+					healths = new LinkedHashMap<String, Health>(snapshot.getHealths());
+				}
+				healths.put(name, new Health.Builder(this.staleStatus).withDetail(
+						"error", "Not refreshed for " + age + "ms").build());
+			}
+		}
+		return (healths == null ? snapshot.getHealth() : this.healthAggregator
+				.aggregate(healths));
+	}
+
+	private void update(String name, Health health) {
+		while (true) {
+			Snapshot current = this.snapshot.get();
+			Map<String, Health> healths = new LinkedHashMap<String, Health>(
+					current.getHealths());
+			healths.put(name, health);
+			Map<String, Long> refreshed = new LinkedHashMap<String, Long>(
+					current.getRefreshed());
+			refreshed.put(name, System.nanoTime());
+			Snapshot updated = new Snapshot(healths, refreshed, this.healthAggregator);
+			if (this.snapshot.compareAndSet(current, updated)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Task used to call a single delegate.
+	 */
+	private class Refresh implements Runnable {
+
+		private final String name;
+
+		private final HealthIndicator indicator;
+
+		public Refresh(String name, HealthIndicator indicator) {
+			this.name = name;
+			this.indicator = indicator;
+		}
+
+		@Override
+		public void run() {
+			Health health;
+			try {
+				health = this.indicator.health();
+			}
+			catch (Exception ex) {
+				// Don't let the exception cancel future calls
+				health = Health.down(ex).build();
+			}
+			update(this.name, health);
+		}
+
+	}
+
+	/**
+	 * Immutable snapshot of the health of all delegates and when it was last updated.
+	 */
+	private static final class Snapshot {
+
+		private final Map<String, Health> healths;
+
+		private final Map<String, Long> refreshed;
+
+		private final Health health;
+
+		public Snapshot(Map<String, Health> healths, Map<String, Long> refreshed,
+				HealthAggregator healthAggregator) {
+			this.healths = Collections.unmodifiableMap(healths);
+			this.refreshed = Collections.unmodifiableMap(refreshed);
+			this.health = healthAggregator.aggregate(this.healths);
+		}
+
+		public Map<String, Health> getHealths() {
+			return this.healths;
+		}
+
+		/**
+		 * Return the {@link System#nanoTime()} at which each delegate was last updated.
+		 * @return the update times
+		 */
+		public Map<String, Long> getRefreshed() {
+			return this.refreshed;
+		}
+
+		public Health getHealth() {
+			return this.health;
+		}
+
+	}
+
+}
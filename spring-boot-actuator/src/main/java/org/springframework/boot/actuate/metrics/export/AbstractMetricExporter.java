@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,28 +20,40 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.reader.IncrementalMetricReader;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.StringUtils;
 
 /**
  * Base class for metric exporters that have common features, principally a prefix for
  * exported metrics and filtering by timestamp (so only new values are included in the
- * export).
+ * export). If the source of the metrics is an {@link IncrementalMetricReader}, and
+ * timestamps are not ignored, each export after the first only includes the metrics
+ * that have changed since the previous export started. Changes are tracked using the
+ * versions of the reader rather than timestamps so that updates made during an export,
+ * or made with a timestamp in the past, are not missed.
  *
  * @author Dave Syer
+ * @author Phillip Webb
  */
 public abstract class AbstractMetricExporter implements Exporter {
 
 	private volatile AtomicBoolean processing = new AtomicBoolean(false);
 
-	private Date earliestTimestamp = new Date();
+	private volatile Date earliestTimestamp = new Date();
+
+	private Long version;
 
 	private boolean ignoreTimestamps = false;
 
 	private final String prefix;
 
+	private final ConcurrentMap<String, String> names = new ConcurrentReferenceHashMap<String, String>();
+
 	public AbstractMetricExporter(String prefix) {
 		this.prefix = !StringUtils.hasText(prefix) ? "" : (prefix.endsWith(".") ? prefix
 				: prefix + ".");
@@ -70,27 +82,53 @@ public abstract class AbstractMetricExporter implements Exporter {
 			return;
 		}
 		try {
+			Date earliestTimestamp = (this.ignoreTimestamps ? null
+					: this.earliestTimestamp);
+			Long changedSince = null;
+			Long version = null;
+			IncrementalMetricReader reader = getIncrementalReader();
+			if (reader != null && earliestTimestamp != null) {
+				// The version must be started before anything is read
+				changedSince = this.version;
+				version = reader.nextVersion();
+			}
 			for (String group : groups()) {
 				Collection<Metric<?>> values = new ArrayList<Metric<?>>();
-				for (Metric<?> metric : next(group)) {
-					Metric<?> value = new Metric<Number>(this.prefix + metric.getName(),
-							metric.getValue(), metric.getTimestamp());
+				for (Metric<?> metric : (changedSince == null ? next(group) : next(group,
+						changedSince))) {
 					Date timestamp = metric.getTimestamp();
-					if (!this.ignoreTimestamps && this.earliestTimestamp.after(timestamp)) {
+					if (earliestTimestamp != null && earliestTimestamp.after(timestamp)) {
 						continue;
 					}
-					values.add(value);
+					values.add(prefix(metric));
 				}
 				if (!values.isEmpty()) {
 					write(group, values);
 				}
 			}
+			if (version != null) {
+				// Only move on once everything has been written so that changes are
+				// exported again if a write fails
+				this.version = version;
+			}
 		}
 		finally {
 			this.processing.set(false);
 		}
 	}
 
+	private Metric<?> prefix(Metric<?> metric) {
+		if (this.prefix.length() == 0) {
+			return metric;
+		}
+		String name = this.names.get(metric.getName());
+		if (name == null) {
+			name = this.prefix + metric.getName();
+			this.names.put(metric.getName(), name);
+		}
+		return new Metric<Number>(name, metric.getValue(), metric.getTimestamp());
+	}
+
 	/**
 	 * Generate a group of metrics to iterate over in the form of a set of Strings (e.g.
 	 * prefixes). If the metrics to be exported partition into groups identified by a
@@ -116,4 +154,27 @@ public abstract class AbstractMetricExporter implements Exporter {
 	 */
 	protected abstract Iterable<Metric<?>> next(String group);
 
+	/**
+	 * Return the source of the metrics if it can find the ones that have changed since a
+	 * given version. Subclasses that return a reader should also override
+	 * {@link #next(String, long)}.
+	 * @return the incremental reader or {@code null} (the default) if the source does not
+	 * support incremental reads
+	 */
+	protected IncrementalMetricReader getIncrementalReader() {
+		return null;
+	}
+
+	/**
+	 * Get the next group of metrics to write, only including metrics that have changed
+	 * since the given version of the {@link #getIncrementalReader() incremental reader}.
+	 * By default calls {@link #next(String)}.
+	 * @param group the group name to write
+	 * @param version the version
+	 * @return some metrics to write
+	 */
+	protected Iterable<Metric<?>> next(String group, long version) {
+		return next(group);
+	}
+
 }
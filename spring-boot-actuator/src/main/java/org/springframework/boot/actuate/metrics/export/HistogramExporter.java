@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.export;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.histogram.Histogram;
+import org.springframework.boot.actuate.metrics.histogram.HistogramReader;
+import org.springframework.boot.actuate.metrics.repository.MultiMetricRepository;
+import org.springframework.boot.actuate.metrics.writer.MetricWriter;
+import org.springframework.boot.actuate.metrics.writer.PrefixMetricWriter;
+
+/**
+ * Exporter or converter for {@link Histogram} data to a metric-based back end. Each
+ * histogram is stored as a set of related metrics with a common prefix (the name of the
+ * histogram), and suffixes that describe the data. For example, a histogram called
+ * <code>foo</code> is stored as
+ * <code>[foo.count, foo.max, foo.p50, foo.p95, foo.p99, foo.p999]</code>. If the
+ * {@link MetricWriter} provided is a {@link MultiMetricRepository} then the values for a
+ * histogram will be stored as a group, and hence will be retrievable from the repository
+ * in a single query (or optionally individually).
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public class HistogramExporter extends AbstractMetricExporter {
+
+	private final HistogramReader reader;
+
+	private final PrefixMetricWriter writer;
+
+	public HistogramExporter(HistogramReader reader, PrefixMetricWriter writer) {
+		this(reader, writer, "");
+	}
+
+	public HistogramExporter(HistogramReader reader, PrefixMetricWriter writer,
+			String prefix) {
+		super(prefix);
+		this.reader = reader;
+		this.writer = writer;
+	}
+
+	@Override
+	protected Iterable<Metric<?>> next(String group) {
+		Histogram histogram = this.reader.findOne(group);
+		Collection<Metric<?>> metrics = new ArrayList<Metric<?>>();
+		if (histogram != null) {
+			metrics.add(new Metric<Number>(group + Histogram.COUNT, histogram.getCount()));
+			metrics.add(new Metric<Number>(group + Histogram.MAX, histogram.getMax()));
+			metrics.add(new Metric<Number>(group + Histogram.P50, histogram
+					.getValueAtPercentile(50)));
+			metrics.add(new Metric<Number>(group + Histogram.P95, histogram
+					.getValueAtPercentile(95)));
+			metrics.add(new Metric<Number>(group + Histogram.P99, histogram
+					.getValueAtPercentile(99)));
+			metrics.add(new Metric<Number>(group + Histogram.P999, histogram
+					.getValueAtPercentile(99.9)));
+		}
+		return metrics;
+	}
+
+	@Override
+	protected Iterable<String> groups() {
+		Collection<String> names = new HashSet<String>();
+		for (Histogram histogram : this.reader.findAll()) {
+			names.add(histogram.getName());
+		}
+		return names;
+	}
+
+	@Override
+	protected void write(String group, Collection<Metric<?>> values) {
+		this.writer.set(group, values);
+	}
+
+}
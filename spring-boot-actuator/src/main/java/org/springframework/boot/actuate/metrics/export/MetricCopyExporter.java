@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.boot.actuate.metrics.export;
 import java.util.Collection;
 
 import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.reader.IncrementalMetricReader;
 import org.springframework.boot.actuate.metrics.reader.MetricReader;
 import org.springframework.boot.actuate.metrics.writer.MetricWriter;
 
@@ -49,6 +50,19 @@ public class MetricCopyExporter extends AbstractMetricExporter {
 		return this.reader.findAll();
 	}
 
+	@Override
+	protected IncrementalMetricReader getIncrementalReader() {
+		if (this.reader instanceof IncrementalMetricReader) {
+			return (IncrementalMetricReader) this.reader;
+		}
+		return null;
+	}
+
+	@Override
+	protected Iterable<Metric<?>> next(String group, long version) {
+		return getIncrementalReader().findAllChangedSince(version);
+	}
+
 	@Override
 	protected void write(String group, Collection<Metric<?>> values) {
 		for (Metric<?> value : values) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.reader.IncrementalMetricReader;
 import org.springframework.boot.actuate.metrics.reader.PrefixMetricReader;
 import org.springframework.boot.actuate.metrics.repository.MultiMetricRepository;
 import org.springframework.boot.actuate.metrics.writer.PrefixMetricWriter;
@@ -83,6 +84,19 @@ public class PrefixMetricGroupExporter extends AbstractMetricExporter {
 		return this.reader.findAll(group);
 	}
 
+	@Override
+	protected IncrementalMetricReader getIncrementalReader() {
+		if (this.reader instanceof IncrementalMetricReader) {
+			return (IncrementalMetricReader) this.reader;
+		}
+		return null;
+	}
+
+	@Override
+	protected Iterable<Metric<?>> next(String group, long version) {
+		return getIncrementalReader().findAllChangedSince(group, version);
+	}
+
 	@Override
 	protected void write(String group, Collection<Metric<?>> values) {
 		this.writer.set(group, values);
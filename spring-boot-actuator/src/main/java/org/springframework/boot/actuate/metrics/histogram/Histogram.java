@@ -0,0 +1,199 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.histogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * A histogram of recorded values that can be used to find percentiles (for example the
+ * 99th percentile of response times). Values are counted in logarithmic buckets so the
+ * histogram uses a fixed amount of memory regardless of how many values are recorded
+ * and any percentile is accurate to within about 3% of the actual value. Values can be
+ * recorded concurrently without locking and histograms with the same name can be
+ * {@link #merge(Histogram) merged}.
+ * <p>
+ * Values that are smaller than {@code 0.001} (including zero and negative values) are
+ * counted as zero. {@code NaN} and infinite values are ignored.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public final class Histogram {
+
+	public static final String COUNT = ".count";
+
+	public static final String MAX = ".max";
+
+	public static final String P50 = ".p50";
+
+	public static final String P95 = ".p95";
+
+	public static final String P99 = ".p99";
+
+	public static final String P999 = ".p999";
+
+	/**
+	 * Number of mantissa bits used to split each power of two into sub-buckets.
+	 */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private static final int MIN_EXPONENT = -10;
+
+	private static final int MAX_EXPONENT = 40;
+
+	private static final double MIN_VALUE = Math.scalb(1.0, MIN_EXPONENT);
+
+	private static final int BUCKETS = 1 + ((MAX_EXPONENT - MIN_EXPONENT) << SUB_BUCKET_BITS);
+
+	private final String name;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final AtomicLong max = new AtomicLong(Double.doubleToLongBits(0.0));
+
+	/**
+	 * Create a new empty {@link Histogram}.
+	 * @param name the name of the histogram
+	 */
+	public Histogram(String name) {
+		Assert.notNull(name, "The histogram name cannot be null");
+		this.name = name;
+	}
+
+	/**
+	 * @return the name of the histogram
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Record a value.
+	 * @param value the value to record
+	 */
+	public void record(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return;
+		}
+		this.counts.incrementAndGet(getBucket(value));
+		updateMax(value);
+	}
+
+	private void updateMax(double value) {
+		long current = this.max.get();
+		while (value > Double.longBitsToDouble(current)) {
+			if (this.max.compareAndSet(current, Double.doubleToLongBits(value))) {
+				return;
+			}
+			current = this.max.get();
+		}
+	}
+
+	/**
+	 * Add all values recorded by another histogram to this one.
+	 * @param histogram the histogram to merge
+	 */
+	public void merge(Histogram histogram) {
+		for (int i = 0; i < BUCKETS; i++) {
+			long count = histogram.counts.get(i);
+			if (count != 0) {
+				this.counts.addAndGet(i, count);
+			}
+		}
+		updateMax(histogram.getMax());
+	}
+
+	/**
+	 * @return the number of values that have been recorded
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += this.counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * @return the largest value that has been recorded
+	 */
+	public double getMax() {
+		return Double.longBitsToDouble(this.max.get());
+	}
+
+	/**
+	 * Returns the value below which the given percentage of recorded values fall. The
+	 * value returned is the upper bound of the bucket containing the percentile (but no
+	 * larger than {@link #getMax()}).
+	 * @param percentile the percentile (between 0 and 100)
+	 * @return the value at the percentile or {@code 0} if no values have been recorded
+	 */
+	public double getValueAtPercentile(double percentile) {
+		Assert.isTrue(percentile >= 0 && percentile <= 100,
+				"Percentile must be between 0 and 100");
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = this.counts.get(i);
+			total += counts[i];
+		}
+		long target = Math.max((long) Math.ceil(total * percentile / 100.0), 1);
+		long cumulative = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			cumulative += counts[i];
+			if (cumulative >= target) {
+				return Math.min(getUpperBound(i), getMax());
+			}
+		}
+		return 0;
+	}
+
+	private static int getBucket(double value) {
+		if (!(value >= MIN_VALUE)) {
+			return 0;
+		}
+		int exponent = Math.getExponent(value);
+		if (exponent >= MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		int subBucket = (int) (Double.doubleToRawLongBits(value) >>> (52 - SUB_BUCKET_BITS))
+				& (SUB_BUCKETS - 1);
+		return 1 + ((exponent - MIN_EXPONENT) << SUB_BUCKET_BITS) + subBucket;
+	}
+
+	private static double getUpperBound(int bucket) {
+		if (bucket == 0) {
+			return 0;
+		}
+		int exponent = MIN_EXPONENT + ((bucket - 1) >> SUB_BUCKET_BITS);
+		int subBucket = (bucket - 1) & (SUB_BUCKETS - 1);
+		return Math.scalb(1.0 + (subBucket + 1.0) / SUB_BUCKETS, exponent);
+	}
+
+	@Override
+	public String toString() {
+		return "Histogram [name=" + this.name + ", count=" + getCount() + ", max="
+				+ getMax() + ", p50=" + getValueAtPercentile(50) + ", p99="
+				+ getValueAtPercentile(99) + "]";
+	}
+
+}
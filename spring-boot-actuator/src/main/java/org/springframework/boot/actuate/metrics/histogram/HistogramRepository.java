@@ -0,0 +1,30 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.boot.actuate.metrics.histogram;
+
+import org.springframework.boot.actuate.metrics.writer.MetricWriter;
+
+/**
+ * Convenient combination of reader and writer concerns for {@link Histogram} instances.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public interface HistogramRepository extends HistogramReader, MetricWriter {
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.boot.actuate.metrics.histogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.writer.Delta;
+import org.springframework.boot.actuate.metrics.writer.GaugeWriter;
+import org.springframework.boot.actuate.metrics.writer.MetricWriter;
+
+/**
+ * In memory implementation of {@link MetricWriter} and {@link HistogramReader}. When you
+ * set a metric value (using {@link MetricWriter#set(Metric)}) it is recorded in a
+ * histogram (increment is a no-op). Histograms can then be read out using the reader
+ * operations.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public class InMemoryHistogramRepository implements HistogramRepository, GaugeWriter {
+
+	private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<String, Histogram>();
+
+	@Override
+	public void increment(Delta<?> delta) {
+		// No-op
+	}
+
+	@Override
+	public void set(Metric<?> metric) {
+		set(metric.getName(), metric.getValue().doubleValue());
+	}
+
+	@Override
+	public void set(String metricName, double value) {
+		Histogram histogram = this.histograms.get(metricName);
+		if (histogram == null) {
+			Histogram created = new Histogram(metricName);
+			histogram = this.histograms.putIfAbsent(metricName, created);
+			histogram = (histogram == null ? created : histogram);
+		}
+		histogram.record(value);
+	}
+
+	@Override
+	public void reset(String metricName) {
+		this.histograms.remove(metricName);
+	}
+
+	@Override
+	public Histogram findOne(String metricName) {
+		return this.histograms.get(metricName);
+	}
+
+	@Override
+	public Iterable<Histogram> findAll() {
+		List<Histogram> histograms = new ArrayList<Histogram>(this.histograms.values());
+		return Collections.unmodifiableList(histograms);
+	}
+
+	@Override
+	public long count() {
+		return this.histograms.size();
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.reader;
+
+import org.springframework.boot.actuate.metrics.Metric;
+
+/**
+ * Optional interface that can be implemented by a {@link MetricReader} or
+ * {@link PrefixMetricReader} to find only the metrics that have changed since a given
+ * version, without creating {@link Metric} instances for the ones that have not.
+ * Versions are used rather than timestamps so that changes made while metrics are
+ * being read, or made with a timestamp in the past, are not missed.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public interface IncrementalMetricReader {
+
+	/**
+	 * Start a new version. Every change that is made after this method returns, and
+	 * every change that is still being made when it is called, is included when finding
+	 * metrics changed since the returned version.
+	 * @return the new version
+	 */
+	long nextVersion();
+
+	/**
+	 * Find all metrics that have changed since the given version. Metrics that changed
+	 * shortly before the version was started may also be included.
+	 * @param version a version returned from {@link #nextVersion()}
+	 * @return the changed metrics
+	 */
+	Iterable<Metric<?>> findAllChangedSince(long version);
+
+	/**
+	 * Find all metrics whose name starts with the given prefix and that have changed
+	 * since the given version. Metrics that changed shortly before the version was
+	 * started may also be included.
+	 * @param prefix the prefix for metric names
+	 * @param version a version returned from {@link #nextVersion()}
+	 * @return the changed metrics with names starting with the prefix
+	 */
+	Iterable<Metric<?>> findAllChangedSince(String prefix, long version);
+
+}
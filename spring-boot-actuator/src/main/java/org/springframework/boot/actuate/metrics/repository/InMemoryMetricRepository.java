@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,54 +20,147 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.reader.IncrementalMetricReader;
 import org.springframework.boot.actuate.metrics.reader.PrefixMetricReader;
+import org.springframework.boot.actuate.metrics.util.GaugeValue;
 import org.springframework.boot.actuate.metrics.util.SimpleInMemoryRepository;
-import org.springframework.boot.actuate.metrics.util.SimpleInMemoryRepository.Callback;
+import org.springframework.boot.actuate.metrics.util.StripedCounter;
+import org.springframework.boot.actuate.metrics.util.VersionedValue;
+import org.springframework.boot.actuate.metrics.writer.CounterWriter;
 import org.springframework.boot.actuate.metrics.writer.Delta;
+import org.springframework.boot.actuate.metrics.writer.GaugeWriter;
 
 /**
  * {@link MetricRepository} and {@link MultiMetricRepository} implementation that stores
  * metrics in memory.
+ * <p>
+ * Counters are held in {@link StripedCounter}s and gauges in {@link GaugeValue}s so that
+ * they can be updated concurrently without locking or allocating. {@link Metric}
+ * instances are only created for counters and gauges when they are read, and
+ * {@link #findAllChangedSince(long) incremental reads} only create them for the ones
+ * that have changed. Each value records the {@link #nextVersion() version} in which it
+ * last changed.
  *
  * @author Dave Syer
+ * @author Phillip Webb
  */
 public class InMemoryMetricRepository implements MetricRepository, MultiMetricRepository,
-		PrefixMetricReader {
+		PrefixMetricReader, IncrementalMetricReader, CounterWriter, GaugeWriter {
 
 	private final SimpleInMemoryRepository<Metric<?>> metrics = new SimpleInMemoryRepository<Metric<?>>();
 
+	private final ConcurrentMap<String, StripedCounter> counters = new ConcurrentHashMap<String, StripedCounter>();
+
+	private final ConcurrentMap<String, GaugeValue> gauges = new ConcurrentHashMap<String, GaugeValue>();
+
+	private final ConcurrentMap<String, VersionedValue> metricVersions = new ConcurrentHashMap<String, VersionedValue>();
+
 	private final Collection<String> groups = new HashSet<String>();
 
+	private final AtomicLong version = new AtomicLong();
+
 	public void setValues(ConcurrentNavigableMap<String, Metric<?>> values) {
 		this.metrics.setValues(values);
+		// All of the values have changed so record them against a new version
+		this.version.incrementAndGet();
+		for (String name : values.keySet()) {
+			VersionedValue version = new VersionedValue();
+			version.updateVersion(this.version);
+			this.metricVersions.put(name, version);
+		}
+		this.metricVersions.keySet().retainAll(values.keySet());
 	}
 
 	@Override
 	public void increment(Delta<?> delta) {
-		final String metricName = delta.getName();
-		final int amount = delta.getValue().intValue();
-		final Date timestamp = delta.getTimestamp();
-		this.metrics.update(metricName, new Callback<Metric<?>>() {
-			@Override
-			public Metric<?> modify(Metric<?> current) {
-				if (current != null) {
-					Metric<? extends Number> metric = current;
-					return new Metric<Long>(metricName, metric.increment(amount)
-							.getValue(), timestamp);
+		Date timestamp = delta.getTimestamp();
+		increment(delta.getName(), delta.getValue().longValue(),
+				timestamp == null ? System.currentTimeMillis() : timestamp.getTime());
+	}
+
+	@Override
+	public void increment(String metricName, long amount) {
+		increment(metricName, amount, System.currentTimeMillis());
+	}
+
+	private void increment(String metricName, long amount, long timestamp) {
+		StripedCounter counter = getCounter(metricName);
+		counter.add(amount, timestamp);
+		while (this.counters.get(metricName) != counter) {
+			// The counter was replaced or removed by a concurrent set or reset before
+			// the amount was added so add it to the current counter instead
+			counter = getCounter(metricName);
+			counter.add(amount, timestamp);
+		}
+		counter.updateVersion(this.version);
+	}
+
+	private StripedCounter getCounter(String metricName) {
+		StripedCounter counter = this.counters.get(metricName);
+		if (counter == null) {
+			StripedCounter created = new StripedCounter();
+			counter = this.counters.putIfAbsent(metricName, created);
+			if (counter == null) {
+				counter = created;
+				// Continue from any value that was previously set
+				GaugeValue gauge = this.gauges.remove(metricName);
+				if (gauge != null) {
+					counter.add((long) gauge.get(), gauge.getTimestamp());
 				}
-				else {
-					return new Metric<Long>(metricName, new Long(amount), timestamp);
+				Metric<?> current = this.metrics.findOne(metricName);
+				if (current != null) {
+					this.metrics.remove(metricName);
+					this.metricVersions.remove(metricName);
+					counter.add(current.getValue().longValue(), getTime(current));
 				}
 			}
-		});
+		}
+		return counter;
+	}
+
+	private long getTime(Metric<?> metric) {
+		Date timestamp = metric.getTimestamp();
+		return (timestamp == null ? 0 : timestamp.getTime());
+	}
+
+	@Override
+	public void set(String metricName, double value) {
+		GaugeValue gauge = this.gauges.get(metricName);
+		if (gauge == null) {
+			GaugeValue created = new GaugeValue();
+			gauge = this.gauges.putIfAbsent(metricName, created);
+			if (gauge == null) {
+				gauge = created;
+				this.counters.remove(metricName);
+				this.metrics.remove(metricName);
+				this.metricVersions.remove(metricName);
+			}
+		}
+		gauge.set(value, System.currentTimeMillis());
+		gauge.updateVersion(this.version);
 	}
 
 	@Override
 	public void set(Metric<?> value) {
-		this.metrics.set(value.getName(), value);
+		String name = value.getName();
+		this.counters.remove(name);
+		this.gauges.remove(name);
+		this.metrics.set(name, value);
+		VersionedValue version = this.metricVersions.get(name);
+		if (version == null) {
+			VersionedValue created = new VersionedValue();
+			version = this.metricVersions.putIfAbsent(name, created);
+			version = (version == null ? created : version);
+		}
+		version.updateVersion(this.version);
 	}
 
 	@Override
@@ -107,7 +200,7 @@ public class InMemoryMetricRepository implements MetricRepository, MultiMetricRe
 
 	@Override
 	public long count() {
-		return this.metrics.count();
+		return this.metrics.count() + this.counters.size() + this.gauges.size();
 	}
 
 	@Override
@@ -117,22 +210,103 @@ public class InMemoryMetricRepository implements MetricRepository, MultiMetricRe
 
 	@Override
 	public void reset(String metricName) {
+		this.counters.remove(metricName);
+		this.gauges.remove(metricName);
 		this.metrics.remove(metricName);
+		this.metricVersions.remove(metricName);
 	}
 
 	@Override
 	public Metric<?> findOne(String metricName) {
+		StripedCounter counter = this.counters.get(metricName);
+		if (counter != null) {
+			return getMetric(metricName, counter);
+		}
+		GaugeValue gauge = this.gauges.get(metricName);
+		if (gauge != null) {
+			return getMetric(metricName, gauge);
+		}
 		return this.metrics.findOne(metricName);
 	}
 
 	@Override
 	public Iterable<Metric<?>> findAll() {
-		return this.metrics.findAll();
+		return merge(this.metrics.findAll(), null, null);
 	}
 
 	@Override
 	public Iterable<Metric<?>> findAll(String metricNamePrefix) {
-		return this.metrics.findAllWithPrefix(metricNamePrefix);
+		String prefix = getPrefix(metricNamePrefix);
+		return merge(this.metrics.findAllWithPrefix(prefix), prefix, null);
+	}
+
+	@Override
+	public long nextVersion() {
+		return this.version.incrementAndGet();
+	}
+
+	@Override
+	public Iterable<Metric<?>> findAllChangedSince(long version) {
+		return merge(this.metrics.findAll(), null, version);
+	}
+
+	@Override
+	public Iterable<Metric<?>> findAllChangedSince(String metricNamePrefix, long version) {
+		String prefix = getPrefix(metricNamePrefix);
+		return merge(this.metrics.findAllWithPrefix(prefix), prefix, version);
+	}
+
+	private String getPrefix(String metricNamePrefix) {
+		String prefix = metricNamePrefix;
+		if (prefix.endsWith(".*")) {
+			prefix = prefix.substring(0, prefix.length() - 1);
+		}
+		if (!prefix.endsWith(".")) {
+			prefix = prefix + ".";
+		}
+		return prefix;
+	}
+
+	private Iterable<Metric<?>> merge(Iterable<Metric<?>> metrics, String prefix,
+			Long since) {
+		if (since == null && this.counters.isEmpty() && this.gauges.isEmpty()) {
+			return metrics;
+		}
+		Map<String, Metric<?>> merged = new TreeMap<String, Metric<?>>();
+		for (Metric<?> metric : metrics) {
+			if (since == null || getVersion(metric.getName()) >= since) {
+				merged.put(metric.getName(), metric);
+			}
+		}
+		// Only create metrics for the counters and gauges that have changed
+		for (Map.Entry<String, StripedCounter> entry : this.counters.entrySet()) {
+			if ((prefix == null || entry.getKey().startsWith(prefix))
+					&& (since == null || entry.getValue().getVersion() >= since)) {
+				merged.put(entry.getKey(), getMetric(entry.getKey(), entry.getValue()));
+			}
+		}
+		for (Map.Entry<String, GaugeValue> entry : this.gauges.entrySet()) {
+			if ((prefix == null || entry.getKey().startsWith(prefix))
+					&& (since == null || entry.getValue().getVersion() >= since)) {
+				merged.put(entry.getKey(), getMetric(entry.getKey(), entry.getValue()));
+			}
+		}
+		return Collections.unmodifiableCollection(merged.values());
+	}
+
+	private long getVersion(String metricName) {
+		VersionedValue version = this.metricVersions.get(metricName);
+		return (version == null ? 0 : version.getVersion());
+	}
+
+	private Metric<Long> getMetric(String metricName, StripedCounter counter) {
+		return new Metric<Long>(metricName, counter.get(), new Date(
+				counter.getTimestamp()));
+	}
+
+	private Metric<Double> getMetric(String metricName, GaugeValue gauge) {
+		return new Metric<Double>(metricName, gauge.get(), new Date(
+				gauge.getTimestamp()));
 	}
 
 }
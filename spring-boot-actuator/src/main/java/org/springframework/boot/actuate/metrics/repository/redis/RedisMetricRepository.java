@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,17 +17,34 @@
 package org.springframework.boot.actuate.metrics.repository.redis;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.boot.actuate.metrics.repository.MetricRepository;
 import org.springframework.boot.actuate.metrics.writer.Delta;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.BoundZSetOperations;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 import org.springframework.util.Assert;
 
 /**
@@ -37,10 +54,21 @@ import org.springframework.util.Assert;
  * multiple metrics repositories all point at the same instance of Redis, it may be useful
  * to change the prefix to be unique (but not if you want them to contribute to the same
  * metrics).
+ * <p>
+ * Writes are pipelined so that each update needs a single round trip. If
+ * {@link #setBuffered(boolean) buffering} is enabled, updates are coalesced in memory
+ * and written in the background once every {@link #setFlushInterval(long) flush
+ * interval}, when {@link #flush()} is called and when the repository is
+ * {@link #destroy() destroyed}.
  *
  * @author Dave Syer
+ * @author Phillip Webb
  */
-public class RedisMetricRepository implements MetricRepository {
+public class RedisMetricRepository implements MetricRepository, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(RedisMetricRepository.class);
+
+	private static final long DEFAULT_FLUSH_INTERVAL = 5000;
 
 	private static final String DEFAULT_METRICS_PREFIX = "spring.metrics.";
 
@@ -54,6 +82,16 @@ public class RedisMetricRepository implements MetricRepository {
 
 	private final RedisOperations<String, String> redisOperations;
 
+	private final ConcurrentMap<String, Metric<?>> pendingValues = new ConcurrentHashMap<String, Metric<?>>();
+
+	private final ConcurrentMap<String, PendingIncrement> pendingIncrements = new ConcurrentHashMap<String, PendingIncrement>();
+
+	private volatile boolean buffered;
+
+	private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+	private ScheduledExecutorService flushExecutor;
+
 	/**
 	 * Create a RedisMetricRepository with a default prefix to apply to all metric names.
 	 * If multiple repositories share a redis instance they will feed into the same global
@@ -109,6 +147,81 @@ public class RedisMetricRepository implements MetricRepository {
 		this.zSetOperations = this.redisOperations.boundZSetOps(this.key);
 	}
 
+	/**
+	 * Set if updates should be buffered in memory and written once every
+	 * {@link #setFlushInterval(long) flush interval}. Increments to the same metric are
+	 * added together and only the most recent value that is set is written. Buffered
+	 * updates are not visible to read operations until they have been flushed. Turning
+	 * buffering off flushes any pending updates.
+	 * @param buffered if updates should be buffered
+	 */
+	public synchronized void setBuffered(boolean buffered) {
+		this.buffered = buffered;
+		stopFlushing();
+		if (buffered) {
+			startFlushing();
+		}
+		else {
+			flush();
+		}
+	}
+
+	/**
+	 * Set the interval between writes of buffered updates. A value of {@code 0} means
+	 * that buffered updates are only written when {@link #flush()} is called.
+	 * @param flushInterval the flush interval in milliseconds (default 5000)
+	 */
+	public synchronized void setFlushInterval(long flushInterval) {
+		Assert.isTrue(flushInterval >= 0, "FlushInterval must not be negative");
+		this.flushInterval = flushInterval;
+		if (this.buffered) {
+			stopFlushing();
+			startFlushing();
+		}
+	}
+
+	private void startFlushing() {
+		if (this.flushInterval > 0) {
+			this.flushExecutor = Executors
+					.newSingleThreadScheduledExecutor(new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "redis-metrics-flush");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			this.flushExecutor.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						flush();
+					}
+					catch (RuntimeException ex) {
+						// Don't let the exception cancel future flushes
+						logger.warn("Unable to flush metrics to redis", ex);
+					}
+				}
+			}, this.flushInterval, this.flushInterval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void stopFlushing() {
+		if (this.flushExecutor != null) {
+			this.flushExecutor.shutdown();
+			this.flushExecutor = null;
+		}
+	}
+
+	/**
+	 * Stop flushing in the background and write any buffered updates.
+	 */
+	@Override
+	public synchronized void destroy() {
+		stopFlushing();
+		flush();
+	}
+
 	@Override
 	public Metric<?> findOne(String metricName) {
 		String redisKey = keyFor(metricName);
@@ -119,15 +232,19 @@ public class RedisMetricRepository implements MetricRepository {
 	@Override
 	public Iterable<Metric<?>> findAll() {
 
-		// This set is sorted
-		Set<String> keys = this.zSetOperations.range(0, -1);
-		Iterator<String> keysIt = keys.iterator();
+		// This set is sorted and includes the scores so only one more query is needed
+		Set<TypedTuple<String>> keys = this.zSetOperations.rangeWithScores(0, -1);
+		List<String> names = new ArrayList<String>(keys.size());
+		for (TypedTuple<String> key : keys) {
+			names.add(key.getValue());
+		}
+		Iterator<TypedTuple<String>> keysIt = keys.iterator();
 
 		List<Metric<?>> result = new ArrayList<Metric<?>>(keys.size());
-		List<String> values = this.redisOperations.opsForValue().multiGet(keys);
+		List<String> values = this.redisOperations.opsForValue().multiGet(names);
 		for (String v : values) {
-			String key = keysIt.next();
-			Metric<?> value = deserialize(key, v, this.zSetOperations.score(key));
+			TypedTuple<String> key = keysIt.next();
+			Metric<?> value = deserialize(key.getValue(), v, key.getScore());
 			if (value != null) {
 				result.add(value);
 			}
@@ -143,33 +260,110 @@ public class RedisMetricRepository implements MetricRepository {
 
 	@Override
 	public void increment(Delta<?> delta) {
-		String name = delta.getName();
-		String key = keyFor(name);
-		trackMembership(key);
-		double value = this.zSetOperations.incrementScore(key, delta.getValue()
-				.doubleValue());
-		String raw = serialize(new Metric<Double>(name, value, delta.getTimestamp()));
-		this.redisOperations.opsForValue().set(key, raw);
+		if (this.buffered) {
+			PendingIncrement increment = getPendingIncrement(delta.getName());
+			while (!increment.add(delta)) {
+				// Retired by a concurrent flush
+				this.pendingIncrements.remove(delta.getName(), increment);
+				increment = getPendingIncrement(delta.getName());
+			}
+			return;
+		}
+		write(Collections.<Metric<?>> emptyList(),
+				Collections.<Metric<?>> singletonList(delta));
+	}
+
+	private PendingIncrement getPendingIncrement(String metricName) {
+		PendingIncrement increment = this.pendingIncrements.get(metricName);
+		if (increment == null) {
+			PendingIncrement created = new PendingIncrement();
+			increment = this.pendingIncrements.putIfAbsent(metricName, created);
+			increment = (increment == null ? created : increment);
+		}
+		return increment;
 	}
 
 	@Override
 	public void set(Metric<?> value) {
-		String name = value.getName();
-		String key = keyFor(name);
-		trackMembership(key);
-		this.zSetOperations.add(key, value.getValue().doubleValue());
-		String raw = serialize(value);
-		this.redisOperations.opsForValue().set(key, raw);
+		if (this.buffered) {
+			// Setting a value replaces any increments that have not been written
+			this.pendingIncrements.remove(value.getName());
+			this.pendingValues.put(value.getName(), value);
+			return;
+		}
+		write(Collections.<Metric<?>> singletonList(value),
+				Collections.<Metric<?>> emptyList());
 	}
 
 	@Override
 	public void reset(String metricName) {
+		this.pendingValues.remove(metricName);
+		this.pendingIncrements.remove(metricName);
 		String key = keyFor(metricName);
 		if (this.zSetOperations.remove(key) == 1) {
 			this.redisOperations.delete(key);
 		}
 	}
 
+	/**
+	 * Write any buffered updates to redis using a single pipelined round trip.
+	 * @see #setBuffered(boolean)
+	 */
+	public void flush() {
+		List<Metric<?>> values = new ArrayList<Metric<?>>();
+		for (Map.Entry<String, Metric<?>> entry : this.pendingValues.entrySet()) {
+			if (this.pendingValues.remove(entry.getKey(), entry.getValue())) {
+				values.add(entry.getValue());
+			}
+		}
+		List<Metric<?>> deltas = new ArrayList<Metric<?>>();
+		for (Map.Entry<String, PendingIncrement> entry : this.pendingIncrements
+				.entrySet()) {
+			PendingIncrement increment = entry.getValue();
+			Delta<Double> delta = increment.drain(entry.getKey());
+			if (delta != null) {
+				deltas.add(delta);
+			}
+			else if (increment.retire()) {
+				// Nothing has been added since the last flush so stop holding on to it
+				this.pendingIncrements.remove(entry.getKey(), increment);
+			}
+		}
+		if (!values.isEmpty() || !deltas.isEmpty()) {
+			write(values, deltas);
+		}
+	}
+
+	private void write(final Collection<Metric<?>> values,
+			final Collection<Metric<?>> deltas) {
+		this.redisOperations.executePipelined(new SessionCallback<Object>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public <K, V> Object execute(RedisOperations<K, V> operations) {
+				RedisOperations<String, String> redisOperations = (RedisOperations<String, String>) operations;
+				ZSetOperations<String, String> zSetOperations = redisOperations
+						.opsForZSet();
+				ValueOperations<String, String> valueOperations = redisOperations
+						.opsForValue();
+				String membershipKey = RedisMetricRepository.this.key;
+				// Adding to the zset also tracks the membership of the key
+				for (Metric<?> value : values) {
+					String key = keyFor(value.getName());
+					zSetOperations.add(membershipKey, key, value.getValue()
+							.doubleValue());
+					valueOperations.set(key, serialize(value));
+				}
+				for (Metric<?> delta : deltas) {
+					String key = keyFor(delta.getName());
+					zSetOperations.incrementScore(membershipKey, key, delta.getValue()
+							.doubleValue());
+					valueOperations.set(key, serialize(delta));
+				}
+				return null;
+			}
+		});
+	}
+
 	private Metric<?> deserialize(String redisKey, String v, Double value) {
 		if (redisKey == null || v == null || !redisKey.startsWith(this.prefix)) {
 			return null;
@@ -190,8 +384,65 @@ public class RedisMetricRepository implements MetricRepository {
 		return redisKey.substring(this.prefix.length());
 	}
 
-	private void trackMembership(String redisKey) {
-		this.zSetOperations.incrementScore(redisKey, 0.0D);
+	/**
+	 * Increments that have not yet been written. The sum is held as the raw bits of a
+	 * {@code double} so that it can be taken and cleared atomically. Once it has been
+	 * retired no more increments can be added.
+	 */
+	private static class PendingIncrement {
+
+		private static final long ZERO = Double.doubleToRawLongBits(0.0);
+
+		// A signalling NaN, which arithmetic never produces
+		private static final long RETIRED = 0x7ff0000000000001L;
+
+		private final AtomicLong sum = new AtomicLong(ZERO);
+
+		private volatile long timestamp;
+
+		/**
+		 * Add the delta to the sum.
+		 * @param delta the delta to add
+		 * @return {@code false} if the increment has been retired
+		 */
+		public boolean add(Delta<?> delta) {
+			double amount = delta.getValue().doubleValue();
+			long current;
+			do {
+				current = this.sum.get();
+				if (current == RETIRED) {
+					return false;
+				}
+			}
+			while (!this.sum.compareAndSet(current,
+					Double.doubleToRawLongBits(Double.longBitsToDouble(current) + amount)));
+			Date timestamp = delta.getTimestamp();
+			this.timestamp = (timestamp == null ? System.currentTimeMillis() : timestamp
+					.getTime());
+			return true;
+		}
+
+		public Delta<Double> drain(String metricName) {
+			long current;
+			do {
+				current = this.sum.get();
+				if (current == ZERO || current == RETIRED) {
+					return null;
+				}
+			}
+			while (!this.sum.compareAndSet(current, ZERO));
+			return new Delta<Double>(metricName, Double.longBitsToDouble(current),
+					new Date(this.timestamp));
+		}
+
+		/**
+		 * Retire the increment if nothing has been added since it was last drained.
+		 * @return {@code true} if the increment was retired
+		 */
+		public boolean retire() {
+			return this.sum.compareAndSet(ZERO, RETIRED);
+		}
+
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,15 +29,20 @@ import org.springframework.boot.actuate.metrics.writer.Delta;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.BoundZSetOperations;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 import org.springframework.util.Assert;
 
 /**
  * {@link MultiMetricRepository} implementation backed by a redis store. Metric values are
  * stored as zset values and the timestamps as regular values, both against a key composed
  * of the group name prefixed with a constant prefix (default "spring.groups."). The group
- * names are stored as a zset under "keys." + <code>[prefix]</code>.
+ * names are stored as a zset under "keys." + <code>[prefix]</code>. The values of a
+ * group are written using a single pipelined round trip.
  *
  * @author Dave Syer
+ * @author Phillip Webb
  */
 public class RedisMultiMetricRepository implements MultiMetricRepository {
 
@@ -73,44 +78,61 @@ public class RedisMultiMetricRepository implements MultiMetricRepository {
 		BoundZSetOperations<String, String> zSetOperations = this.redisOperations
 				.boundZSetOps(keyFor(group));
 
-		Set<String> keys = zSetOperations.range(0, -1);
-		Iterator<String> keysIt = keys.iterator();
+		// Fetch the scores with the keys so that only one more query is needed
+		Set<TypedTuple<String>> keys = zSetOperations.rangeWithScores(0, -1);
+		List<String> names = new ArrayList<String>(keys.size());
+		for (TypedTuple<String> key : keys) {
+			names.add(key.getValue());
+		}
+		Iterator<TypedTuple<String>> keysIt = keys.iterator();
 
 		List<Metric<?>> result = new ArrayList<Metric<?>>(keys.size());
-		List<String> values = this.redisOperations.opsForValue().multiGet(keys);
+		List<String> values = this.redisOperations.opsForValue().multiGet(names);
 		for (String v : values) {
-			String key = keysIt.next();
-			result.add(deserialize(group, key, v, zSetOperations.score(key)));
+			TypedTuple<String> key = keysIt.next();
+			result.add(deserialize(group, key.getValue(), v, key.getScore()));
 		}
 		return result;
 
 	}
 
 	@Override
-	public void set(String group, Collection<Metric<?>> values) {
-		String groupKey = keyFor(group);
-		trackMembership(groupKey);
-		BoundZSetOperations<String, String> zSetOperations = this.redisOperations
-				.boundZSetOps(groupKey);
-		for (Metric<?> metric : values) {
-			String raw = serialize(metric);
-			String key = keyFor(metric.getName());
-			zSetOperations.add(key, metric.getValue().doubleValue());
-			this.redisOperations.opsForValue().set(key, raw);
-		}
+	public void set(final String group, final Collection<Metric<?>> values) {
+		this.redisOperations.executePipelined(new SessionCallback<Object>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public <K, V> Object execute(RedisOperations<K, V> operations) {
+				RedisOperations<String, String> redisOperations = (RedisOperations<String, String>) operations;
+				ZSetOperations<String, String> zSetOperations = redisOperations
+						.opsForZSet();
+				String groupKey = trackMembership(zSetOperations, group);
+				for (Metric<?> metric : values) {
+					String key = keyFor(metric.getName());
+					zSetOperations.add(groupKey, key, metric.getValue().doubleValue());
+					redisOperations.opsForValue().set(key, serialize(metric));
+				}
+				return null;
+			}
+		});
 	}
 
 	@Override
-	public void increment(String group, Delta<?> delta) {
-		String groupKey = keyFor(group);
-		trackMembership(groupKey);
-		BoundZSetOperations<String, String> zSetOperations = this.redisOperations
-				.boundZSetOps(groupKey);
-		String key = keyFor(delta.getName());
-		double value = zSetOperations.incrementScore(key, delta.getValue().doubleValue());
-		String raw = serialize(new Metric<Double>(delta.getName(), value,
-				delta.getTimestamp()));
-		this.redisOperations.opsForValue().set(key, raw);
+	public void increment(final String group, final Delta<?> delta) {
+		this.redisOperations.executePipelined(new SessionCallback<Object>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public <K, V> Object execute(RedisOperations<K, V> operations) {
+				RedisOperations<String, String> redisOperations = (RedisOperations<String, String>) operations;
+				ZSetOperations<String, String> zSetOperations = redisOperations
+						.opsForZSet();
+				String groupKey = trackMembership(zSetOperations, group);
+				String key = keyFor(delta.getName());
+				zSetOperations.incrementScore(groupKey, key, delta.getValue()
+						.doubleValue());
+				redisOperations.opsForValue().set(key, serialize(delta));
+				return null;
+			}
+		});
 	}
 
 	@Override
@@ -162,8 +184,11 @@ public class RedisMultiMetricRepository implements MultiMetricRepository {
 		return redisKey.substring(this.prefix.length());
 	}
 
-	private void trackMembership(String redisKey) {
-		this.zSetOperations.incrementScore(redisKey, 0.0D);
+	private String trackMembership(ZSetOperations<String, String> zSetOperations,
+			String group) {
+		String groupKey = keyFor(group);
+		zSetOperations.incrementScore(this.keys, groupKey, 0.0D);
+		return groupKey;
 	}
 
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.util;
+
+/**
+ * Mutable holder for the most recent value of a gauge. The value is held as the raw bits
+ * of a {@code double} so that it can be updated without creating any objects.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public class GaugeValue extends VersionedValue {
+
+	private volatile long bits;
+
+	private volatile long timestamp;
+
+	/**
+	 * Set the value of the gauge.
+	 * @param value the new value
+	 * @param timestamp the time of the update in milliseconds
+	 */
+	public void set(double value, long timestamp) {
+		this.bits = Double.doubleToRawLongBits(value);
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Returns the most recent value of the gauge.
+	 * @return the value
+	 */
+	public double get() {
+		return Double.longBitsToDouble(this.bits);
+	}
+
+	/**
+	 * Returns the time of the most recent update in milliseconds.
+	 * @return the timestamp of the most recent update or {@code 0}
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter that can be updated concurrently from many threads without contention. Updates
+ * are applied to a single value until two threads collide, at which point the counter
+ * is split into cells that are selected by thread and summed when the counter is read.
+ * Similar to {@code LongAdder} from Java 8 but usable on earlier JVMs.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public class StripedCounter extends VersionedValue {
+
+	/**
+	 * Number of longs between cells so that each cell is on its own cache line.
+	 */
+	private static final int PADDING = 8;
+
+	private static final int MAXIMUM_CELLS = 64;
+
+	private static final int CELLS = getNumberOfCells();
+
+	private final AtomicLong base = new AtomicLong();
+
+	private volatile AtomicLongArray cells;
+
+	private volatile long timestamp;
+
+	/**
+	 * Add the specified amount to the counter.
+	 * @param amount the amount to add (may be negative)
+	 * @param timestamp the time of the update in milliseconds
+	 */
+	public void add(long amount, long timestamp) {
+		AtomicLongArray cells = this.cells;
+		if (cells == null) {
+			long current = this.base.get();
+			if (!this.base.compareAndSet(current, current + amount)) {
+				getCells().addAndGet(getCellIndex(), amount);
+			}
+		}
+		else {
+			cells.addAndGet(getCellIndex(), amount);
+		}
+		// Avoid writing to a shared field unless the time has actually changed
+		if (this.timestamp < timestamp) {
+			this.timestamp = timestamp;
+		}
+	}
+
+	private AtomicLongArray getCells() {
+		AtomicLongArray cells = this.cells;
+		if (cells == null) {
+			synchronized (this) {
+				cells = this.cells;
+				if (cells == null) {
+					cells = new AtomicLongArray(CELLS * PADDING);
+					this.cells = cells;
+				}
+			}
+		}
+		return cells;
+	}
+
+	private int getCellIndex() {
+		long id = Thread.currentThread().getId();
+		int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+		return ((hash ^ (hash >>> 16)) & (CELLS - 1)) * PADDING;
+	}
+
+	/**
+	 * Returns the current value of the counter. The value is not an atomic snapshot if
+	 * the counter is being updated concurrently.
+	 * @return the current value
+	 */
+	public long get() {
+		long value = this.base.get();
+		AtomicLongArray cells = this.cells;
+		if (cells != null) {
+			for (int i = 0; i < cells.length(); i += PADDING) {
+				value += cells.get(i);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the time of the most recent update in milliseconds.
+	 * @return the timestamp of the most recent update or {@code 0}
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	private static int getNumberOfCells() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int cells = Integer.highestOneBit(Math.max(processors * 2 - 1, 1)) << 1;
+		return Math.min(cells, MAXIMUM_CELLS);
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.actuate.metrics.reader.IncrementalMetricReader;
+
+/**
+ * Holder for the version in which a value was last changed. Versions come from a
+ * counter that is shared by all the values in a repository and that is only advanced
+ * when an {@link IncrementalMetricReader} starts a new version, so recording a change
+ * usually only reads shared state.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ * @see IncrementalMetricReader
+ */
+public class VersionedValue {
+
+	private final AtomicLong version = new AtomicLong();
+
+	/**
+	 * Record that the value has changed in the current version. Must be called after
+	 * the change has been applied. If a new version is started while this method is
+	 * running the value is recorded against the new version as well, so that a reader
+	 * that started the new version before reading the value cannot miss the change.
+	 * @param versions the source of versions
+	 */
+	public void updateVersion(AtomicLong versions) {
+		long version = versions.get();
+		while (updateVersion(version)) {
+			long current = versions.get();
+			if (current == version) {
+				return;
+			}
+			version = current;
+		}
+	}
+
+	private boolean updateVersion(long version) {
+		while (true) {
+			long current = this.version.get();
+			if (current >= version) {
+				// Avoid writing to a shared field unless the version has changed
+				return false;
+			}
+			if (this.version.compareAndSet(current, version)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the version in which the value was last changed.
+	 * @return the version
+	 */
+	public long getVersion() {
+		return this.version.get();
+	}
+
+}
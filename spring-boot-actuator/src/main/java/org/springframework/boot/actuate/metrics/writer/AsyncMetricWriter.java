@@ -0,0 +1,433 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.writer;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.util.Assert;
+
+/**
+ * {@link MetricWriter} that passes updates to a delegate on a single background thread
+ * so that slow writers (for example a remote metric store) do not add to the latency
+ * of the calling thread. Updates are coalesced per metric until they are written:
+ * increments are added together and only the most recent value that is set is kept.
+ * <p>
+ * The number of metrics with pending updates is bounded by the
+ * {@link #setCapacity(int) capacity}. Updates to other metrics are dropped (and
+ * {@link #getDropped() counted}) while the writer is full. The background thread is
+ * started on the first update and stopped, after writing any remaining updates, when
+ * the writer is {@link #destroy() destroyed}. If the delegate does not finish within the
+ * {@link #setShutdownTimeout(long) shutdown timeout} the remaining updates are dropped.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public class AsyncMetricWriter implements CounterWriter, GaugeWriter, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(AsyncMetricWriter.class);
+
+	private static final long POLL_INTERVAL = 100;
+
+	private final MetricWriter delegate;
+
+	private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<String, Pending>();
+
+	private final BlockingQueue<String> queue = new LinkedBlockingQueue<String>();
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final AtomicLong coalesced = new AtomicLong();
+
+	private final AtomicBoolean started = new AtomicBoolean();
+
+	private final Thread thread;
+
+	private volatile boolean running = true;
+
+	private volatile int capacity = 10000;
+
+	private volatile int batchSize = 100;
+
+	private volatile long shutdownTimeout = 10000;
+
+	/**
+	 * Create a new {@link AsyncMetricWriter} instance.
+	 * @param delegate the writer that updates are passed to
+	 */
+	public AsyncMetricWriter(MetricWriter delegate) {
+		Assert.notNull(delegate, "Delegate must not be null");
+		this.delegate = delegate;
+		this.thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drainUntilStopped();
+			}
+		}, "metric-writer");
+		this.thread.setDaemon(true);
+	}
+
+	/**
+	 * Set the maximum number of metrics that can have pending updates. Updates to other
+	 * metrics are dropped until the pending updates have been written. Defaults to
+	 * 10000.
+	 * @param capacity the capacity
+	 */
+	public void setCapacity(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be positive");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Set the maximum number of metrics that are written in a single batch. Defaults to
+	 * 100.
+	 * @param batchSize the batch size
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "BatchSize must be positive");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Set the maximum time to wait for pending updates to be written when the writer is
+	 * {@link #destroy() destroyed}. Defaults to 10000.
+	 * @param shutdownTimeout the shutdown timeout in milliseconds
+	 */
+	public void setShutdownTimeout(long shutdownTimeout) {
+		Assert.isTrue(shutdownTimeout > 0, "ShutdownTimeout must be positive");
+		this.shutdownTimeout = shutdownTimeout;
+	}
+
+	@Override
+	public void increment(Delta<?> delta) {
+		Number value = delta.getValue();
+		boolean integral = (value instanceof Long || value instanceof Integer
+				|| value instanceof Short || value instanceof Byte);
+		while (true) {
+			Pending pending = getPending(delta.getName());
+			if (pending == null) {
+				return;
+			}
+			Date timestamp = delta.getTimestamp();
+			boolean accepted = (integral ? pending.increment(value.longValue(), timestamp)
+					: pending.increment(value.doubleValue(), timestamp));
+			if (accepted) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void increment(String metricName, long amount) {
+		while (true) {
+			Pending pending = getPending(metricName);
+			if (pending == null || pending.increment(amount, null)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void set(Metric<?> value) {
+		while (true) {
+			Pending pending = getPending(value.getName());
+			if (pending == null || pending.set(value)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void set(String metricName, double value) {
+		while (true) {
+			Pending pending = getPending(metricName);
+			if (pending == null || pending.set(value)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void reset(String metricName) {
+		while (true) {
+			Pending pending = getPending(metricName);
+			if (pending == null || pending.reset()) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Return the pending updates for the given metric, creating and queuing them if
+	 * necessary. The returned updates may have been taken by the background thread in
+	 * which case the caller should try again.
+	 * @param metricName the metric name
+	 * @return the pending updates or {@code null} if the update should be dropped
+	 */
+	private Pending getPending(String metricName) {
+		Pending pending = this.pending.get(metricName);
+		if (pending != null) {
+			this.coalesced.incrementAndGet();
+			return pending;
+		}
+		if (this.size.incrementAndGet() > this.capacity || !this.running) {
+			this.size.decrementAndGet();
+			this.dropped.incrementAndGet();
+			return null;
+		}
+		Pending created = new Pending();
+		pending = this.pending.putIfAbsent(metricName, created);
+		if (pending != null) {
+			this.size.decrementAndGet();
+			this.coalesced.incrementAndGet();
+			return pending;
+		}
+		this.queue.add(metricName);
+		if (this.started.compareAndSet(false, true)) {
+			this.thread.start();
+		}
+		return created;
+	}
+
+	private void drainUntilStopped() {
+		List<String> batch = new ArrayList<String>();
+		while (this.running || !this.queue.isEmpty()) {
+			try {
+				String metricName = this.queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				if (metricName != null) {
+					batch.add(metricName);
+					this.queue.drainTo(batch, this.batchSize - 1);
+					write(batch);
+					batch.clear();
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void write(List<String> metricNames) {
+		for (String metricName : metricNames) {
+			Pending pending = this.pending.remove(metricName);
+			this.size.decrementAndGet();
+			try {
+				pending.writeTo(metricName, this.delegate);
+			}
+			catch (Exception ex) {
+				logger.warn("Unable to write metric " + metricName, ex);
+			}
+		}
+	}
+
+	/**
+	 * Stop the background thread, waiting up to the {@link #setShutdownTimeout(long)
+	 * shutdown timeout} for it to write any pending updates.
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@Override
+	public void destroy() throws InterruptedException {
+		this.running = false;
+		if (!this.started.compareAndSet(false, true)) {
+			this.thread.join(this.shutdownTimeout);
+		}
+		List<String> remaining = new ArrayList<String>();
+		this.queue.drainTo(remaining);
+		if (this.thread.isAlive()) {
+			// The delegate is hung so don't block on it any further
+			this.thread.interrupt();
+			drop(remaining);
+			return;
+		}
+		// Updates that raced with stopping the thread
+		write(remaining);
+	}
+
+	private void drop(List<String> metricNames) {
+		for (String metricName : metricNames) {
+			this.pending.remove(metricName);
+			this.size.decrementAndGet();
+		}
+		this.dropped.addAndGet(metricNames.size());
+		logger.warn("Metric writer did not stop within " + this.shutdownTimeout
+				+ "ms, dropped " + metricNames.size() + " pending metric updates");
+	}
+
+	/**
+	 * Return the number of updates that have been dropped because the writer was full or
+	 * did not stop in time.
+	 * @return the number of dropped updates
+	 */
+	public long getDropped() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * Return the number of updates that have been combined with an earlier update to
+	 * the same metric rather than being written separately.
+	 * @return the number of coalesced updates
+	 */
+	public long getCoalesced() {
+		return this.coalesced.get();
+	}
+
+	/**
+	 * Return the number of metrics that currently have pending updates.
+	 * @return the number of pending metrics
+	 */
+	public int getPending() {
+		return this.size.get();
+	}
+
+	/**
+	 * The updates to a single metric that have not yet been written. Once taken by the
+	 * background thread no further updates are accepted.
+	 */
+	private static class Pending {
+
+		private boolean taken;
+
+		private boolean reset;
+
+		private Metric<?> value;
+
+		private Double gauge;
+
+		private long count;
+
+		private boolean counted;
+
+		private double amount;
+
+		private boolean added;
+
+		private Date timestamp;
+
+		public synchronized boolean increment(long count, Date timestamp) {
+			if (this.taken) {
+				return false;
+			}
+			this.count += count;
+			this.counted = true;
+			this.timestamp = timestamp;
+			return true;
+		}
+
+		public synchronized boolean increment(double amount, Date timestamp) {
+			if (this.taken) {
+				return false;
+			}
+			this.amount += amount;
+			this.added = true;
+			this.timestamp = timestamp;
+			return true;
+		}
+
+		public synchronized boolean set(Metric<?> value) {
+			if (this.taken) {
+				return false;
+			}
+			clearIncrements();
+			this.value = value;
+			this.gauge = null;
+			return true;
+		}
+
+		public synchronized boolean set(double value) {
+			if (this.taken) {
+				return false;
+			}
+			clearIncrements();
+			this.value = null;
+			this.gauge = value;
+			return true;
+		}
+
+		public synchronized boolean reset() {
+			if (this.taken) {
+				return false;
+			}
+			clearIncrements();
+			this.value = null;
+			this.gauge = null;
+			this.reset = true;
+			return true;
+		}
+
+		private void clearIncrements() {
+			this.count = 0;
+			this.counted = false;
+			this.amount = 0;
+			this.added = false;
+		}
+
+		public void writeTo(String metricName, MetricWriter writer) {
+			synchronized (this) {
+				this.taken = true;
+			}
+			if (this.reset) {
+				writer.reset(metricName);
+			}
+			if (this.value != null) {
+				writer.set(this.value);
+			}
+			if (this.gauge != null) {
+				if (writer instanceof GaugeWriter) {
+					((GaugeWriter) writer).set(metricName, this.gauge);
+				}
+				else {
+					writer.set(new Metric<Double>(metricName, this.gauge));
+				}
+			}
+			if (this.counted) {
+				if (writer instanceof CounterWriter && this.timestamp == null) {
+					((CounterWriter) writer).increment(metricName, this.count);
+				}
+				else {
+					writer.increment(new Delta<Long>(metricName, this.count,
+							getTimestamp()));
+				}
+			}
+			if (this.added) {
+				writer.increment(new Delta<Double>(metricName, this.amount,
+						getTimestamp()));
+			}
+		}
+
+		private Date getTimestamp() {
+			return (this.timestamp == null ? new Date() : this.timestamp);
+		}
+
+	}
+
+}
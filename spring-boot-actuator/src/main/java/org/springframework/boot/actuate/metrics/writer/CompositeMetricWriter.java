@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,7 +28,7 @@ import org.springframework.boot.actuate.metrics.Metric;
  *
  * @author Dave Syer
  */
-public class CompositeMetricWriter implements MetricWriter {
+public class CompositeMetricWriter implements CounterWriter, GaugeWriter {
 
 	private final List<MetricWriter> writers = new ArrayList<MetricWriter>();
 
@@ -47,6 +47,38 @@ public class CompositeMetricWriter implements MetricWriter {
 		}
 	}
 
+	@Override
+	public void increment(String metricName, long amount) {
+		Delta<Long> delta = null;
+		for (MetricWriter writer : this.writers) {
+			if (writer instanceof CounterWriter) {
+				((CounterWriter) writer).increment(metricName, amount);
+			}
+			else {
+				if (delta == null) {
+					delta = new Delta<Long>(metricName, amount);
+				}
+				writer.increment(delta);
+			}
+		}
+	}
+
+	@Override
+	public void set(String metricName, double value) {
+		Metric<Double> metric = null;
+		for (MetricWriter writer : this.writers) {
+			if (writer instanceof GaugeWriter) {
+				((GaugeWriter) writer).set(metricName, value);
+			}
+			else {
+				if (metric == null) {
+					metric = new Metric<Double>(metricName, value);
+				}
+				writer.set(metric);
+			}
+		}
+	}
+
 	@Override
 	public void set(Metric<?> value) {
 		for (MetricWriter writer : this.writers) {
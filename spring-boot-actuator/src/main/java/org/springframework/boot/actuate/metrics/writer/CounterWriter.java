@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.writer;
+
+/**
+ * Optional interface that can be implemented by a {@link MetricWriter} to increment
+ * counters without needing a {@link Delta} to be created for each update.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ * @see DefaultCounterService
+ */
+public interface CounterWriter extends MetricWriter {
+
+	/**
+	 * Increment the value of a counter (or decrement if the amount is negative).
+	 * @param metricName the name of the counter
+	 * @param amount the amount to increment by
+	 */
+	void increment(String metricName, long amount);
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,17 +16,25 @@
 
 package org.springframework.boot.actuate.metrics.writer;
 
+import java.util.concurrent.ConcurrentMap;
+
 import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
- * Default implementation of {@link CounterService}.
+ * Default implementation of {@link CounterService}. If the writer is a
+ * {@link CounterWriter} counters are incremented directly without creating a
+ * {@link Delta}.
  *
  * @author Dave Syer
+ * @author Phillip Webb
  */
 public class DefaultCounterService implements CounterService {
 
 	private final MetricWriter writer;
 
+	private final ConcurrentMap<String, String> names = new ConcurrentReferenceHashMap<String, String>();
+
 	/**
 	 * Create a {@link DefaultCounterService} instance.
 	 * @param writer the underlying writer used to manage metrics
@@ -37,12 +45,21 @@ public class DefaultCounterService implements CounterService {
 
 	@Override
 	public void increment(String metricName) {
-		this.writer.increment(new Delta<Long>(wrap(metricName), 1L));
+		increment(wrap(metricName), 1L);
 	}
 
 	@Override
 	public void decrement(String metricName) {
-		this.writer.increment(new Delta<Long>(wrap(metricName), -1L));
+		increment(wrap(metricName), -1L);
+	}
+
+	private void increment(String metricName, long amount) {
+		if (this.writer instanceof CounterWriter) {
+			((CounterWriter) this.writer).increment(metricName, amount);
+		}
+		else {
+			this.writer.increment(new Delta<Long>(metricName, amount));
+		}
 	}
 
 	@Override
@@ -51,10 +68,16 @@ public class DefaultCounterService implements CounterService {
 	}
 
 	private String wrap(String metricName) {
-		if (metricName.startsWith("counter") || metricName.startsWith("meter")) {
-			return metricName;
+		String cached = this.names.get(metricName);
+		if (cached != null) {
+			return cached;
+		}
+		String name = metricName;
+		if (!metricName.startsWith("counter") && !metricName.startsWith("meter")) {
+			name = "counter." + metricName;
 		}
-		return "counter." + metricName;
+		this.names.put(metricName, name);
+		return name;
 	}
 
 }
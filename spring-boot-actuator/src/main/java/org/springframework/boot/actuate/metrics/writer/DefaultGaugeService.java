@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,25 @@
 
 package org.springframework.boot.actuate.metrics.writer;
 
+import java.util.concurrent.ConcurrentMap;
+
 import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
- * Default implementation of {@link GaugeService}.
+ * Default implementation of {@link GaugeService}. If the writer is a {@link GaugeWriter}
+ * values are set directly without creating a {@link Metric}.
  *
  * @author Dave Syer
+ * @author Phillip Webb
  */
 public class DefaultGaugeService implements GaugeService {
 
 	private final MetricWriter writer;
 
+	private final ConcurrentMap<String, String> names = new ConcurrentReferenceHashMap<String, String>();
+
 	/**
 	 * Create a {@link DefaultGaugeService} instance.
 	 * @param writer the underlying writer used to manage metrics
@@ -38,15 +45,26 @@ public class DefaultGaugeService implements GaugeService {
 
 	@Override
 	public void submit(String metricName, double value) {
-		this.writer.set(new Metric<Double>(wrap(metricName), value));
+		if (this.writer instanceof GaugeWriter) {
+			((GaugeWriter) this.writer).set(wrap(metricName), value);
+		}
+		else {
+			this.writer.set(new Metric<Double>(wrap(metricName), value));
+		}
 	}
 
 	private String wrap(String metricName) {
-		if (metricName.startsWith("gauge") || metricName.startsWith("histogram")
-				|| metricName.startsWith("timer")) {
-			return metricName;
+		String cached = this.names.get(metricName);
+		if (cached != null) {
+			return cached;
+		}
+		String name = metricName;
+		if (!metricName.startsWith("gauge") && !metricName.startsWith("histogram")
+				&& !metricName.startsWith("timer")) {
+			name = "gauge." + metricName;
 		}
-		return "gauge." + metricName;
+		this.names.put(metricName, name);
+		return name;
 	}
 
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.writer;
+
+import org.springframework.boot.actuate.metrics.Metric;
+
+/**
+ * Optional interface that can be implemented by a {@link MetricWriter} to set gauge
+ * values without needing a {@link Metric} to be created for each update.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ * @see DefaultGaugeService
+ */
+public interface GaugeWriter extends MetricWriter {
+
+	/**
+	 * Set the value of a gauge.
+	 * @param metricName the name of the gauge
+	 * @param value the value
+	 */
+	void set(String metricName, double value);
+
+}
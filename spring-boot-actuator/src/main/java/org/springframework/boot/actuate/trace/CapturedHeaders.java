@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.trace;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * {@link Map} of HTTP headers that are captured as arrays and only converted to a map
+ * when they are first accessed (typically when traces are rendered by the trace
+ * endpoint). Single header values are {@link String}s and multiple values are
+ * {@link List}s.
+ *
+ * @author Phillip Webb
+ */
+class CapturedHeaders extends AbstractMap<String, Object> {
+
+	private final String[] names;
+
+	private final Object[] values;
+
+	private Map<String, Object> map;
+
+	CapturedHeaders(String[] names, Object[] values) {
+		this.names = names;
+		this.values = values;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return getMap().entrySet();
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		return getMap().put(key, value);
+	}
+
+	private synchronized Map<String, Object> getMap() {
+		if (this.map == null) {
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			for (int i = 0; i < this.names.length; i++) {
+				Object value = this.values[i];
+				if (value instanceof String[]) {
+					value = Arrays.asList((String[]) value);
+				}
+				map.put(this.names[i], value);
+			}
+			this.map = map;
+		}
+		return this.map;
+	}
+
+	/**
+	 * Capture the headers of the given request.
+	 * @param request the request
+	 * @return the captured headers
+	 */
+	public static CapturedHeaders request(HttpServletRequest request) {
+		List<String> names = new ArrayList<String>();
+		List<Object> values = new ArrayList<Object>();
+		Enumeration<String> headerNames = request.getHeaderNames();
+		while (headerNames.hasMoreElements()) {
+			String name = headerNames.nextElement();
+			names.add(name);
+			values.add(getValue(request.getHeaders(name)));
+		}
+		return new CapturedHeaders(names.toArray(new String[names.size()]),
+				values.toArray());
+	}
+
+	private static Object getValue(Enumeration<String> headers) {
+		if (!headers.hasMoreElements()) {
+			return "";
+		}
+		String value = headers.nextElement();
+		if (!headers.hasMoreElements()) {
+			return value;
+		}
+		List<String> values = new ArrayList<String>();
+		values.add(value);
+		while (headers.hasMoreElements()) {
+			values.add(headers.nextElement());
+		}
+		return values.toArray(new String[values.size()]);
+	}
+
+	/**
+	 * Capture the headers and status of the given response.
+	 * @param response the response
+	 * @return the captured headers
+	 */
+	public static CapturedHeaders response(HttpServletResponse response) {
+		Collection<String> headerNames = response.getHeaderNames();
+		String[] names = new String[headerNames.size() + 1];
+		Object[] values = new Object[names.length];
+		int i = 0;
+		for (String name : headerNames) {
+			names[i] = name;
+			values[i] = response.getHeader(name);
+			i++;
+		}
+		names[i] = "status";
+		values[i] = String.valueOf(response.getStatus());
+		return new CapturedHeaders(names, values);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,41 +21,111 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.util.Assert;
 
 /**
- * In-memory implementation of {@link TraceRepository}.
+ * In-memory implementation of {@link TraceRepository}. Traces are held in a fixed size
+ * ring buffer so adding a trace never blocks and takes the same time regardless of the
+ * capacity. Once the buffer is full the oldest traces are overwritten.
  *
  * @author Dave Syer
+ * @author Phillip Webb
  */
 public class InMemoryTraceRepository implements TraceRepository {
 
-	private int capacity = 100;
-
-	private final List<Trace> traces = new ArrayList<Trace>();
+	private volatile RingBuffer traces = new RingBuffer(100);
 
 	/**
+	 * Set the maximum number of traces that are kept. Traces that are added while the
+	 * capacity is being changed may be lost.
 	 * @param capacity the capacity to set
 	 */
 	public void setCapacity(int capacity) {
-		this.capacity = capacity;
+		Assert.isTrue(capacity > 0, "Capacity must be positive");
+		RingBuffer traces = new RingBuffer(capacity);
+		for (Trace trace : this.traces.findAll()) {
+			traces.add(trace);
+		}
+		this.traces = traces;
 	}
 
 	@Override
 	public List<Trace> findAll() {
-		synchronized (this.traces) {
-			return Collections.unmodifiableList(this.traces);
-		}
+		return Collections.unmodifiableList(this.traces.findAll());
 	}
 
 	@Override
 	public void add(Map<String, Object> map) {
-		Trace trace = new Trace(new Date(), map);
-		synchronized (this.traces) {
-			while (this.traces.size() >= this.capacity) {
-				this.traces.remove(0);
+		this.traces.add(new Trace(new Date(), map));
+	}
+
+	/**
+	 * Ring buffer of traces. Each trace is stored with the sequence number that it was
+	 * added with so that readers can skip slots that are being written or that have been
+	 * overwritten by a later trace, and so that a writer that is delayed until its slot
+	 * has been reused does not replace the later trace.
+	 */
+	private static class RingBuffer {
+
+		private final int capacity;
+
+		private final AtomicReferenceArray<Entry> entries;
+
+		private final AtomicLong sequence = new AtomicLong();
+
+		public RingBuffer(int capacity) {
+			this.capacity = capacity;
+			this.entries = new AtomicReferenceArray<Entry>(capacity);
+		}
+
+		public void add(Trace trace) {
+			long sequence = this.sequence.getAndIncrement();
+			int index = (int) (sequence % this.capacity);
+			Entry entry = new Entry(sequence, trace);
+			while (true) {
+				Entry current = this.entries.get(index);
+				if (current != null && current.sequence > sequence) {
+					// Already overwritten by a later trace
+					return;
+				}
+				if (this.entries.compareAndSet(index, current, entry)) {
+					return;
+				}
 			}
-			this.traces.add(trace);
 		}
+
+		public List<Trace> findAll() {
+			long end = this.sequence.get();
+			long start = Math.max(end - this.capacity, 0);
+			List<Trace> traces = new ArrayList<Trace>((int) (end - start));
+			for (long sequence = start; sequence < end; sequence++) {
+				Entry entry = this.entries.get((int) (sequence % this.capacity));
+				if (entry != null && entry.sequence == sequence) {
+					traces.add(entry.trace);
+				}
+			}
+			return traces;
+		}
+
+	}
+
+	/**
+	 * A single entry in the {@link RingBuffer}.
+	 */
+	private static class Entry {
+
+		private final long sequence;
+
+		private final Trace trace;
+
+		public Entry(long sequence, Trace trace) {
+			this.sequence = sequence;
+			this.trace = trace;
+		}
+
 	}
 
 }
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.trace;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Timings of the phases of a single HTTP request, measured using
+ * {@link System#nanoTime()}. Timings are shared by all filters that process a request
+ * (they are stored as a request attribute) and are started by the first filter that
+ * calls {@link #start(HttpServletRequest)}. The following phases are recorded:
+ * <ul>
+ * <li>Total time, from the start until the timings are read.</li>
+ * <li>Time to first byte, from the start until the first bytes are written to the
+ * response body or the response is flushed or committed (only if the response has been
+ * {@link #wrap(HttpServletResponse) wrapped}).</li>
+ * <li>Handler time, the time spent in the MVC handler (only if a
+ * {@link RequestTimingsInterceptor} is registered).</li>
+ * </ul>
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public final class RequestTimings {
+
+	private static final String ATTRIBUTE = RequestTimings.class.getName();
+
+	private static final long NOT_RECORDED = -1;
+
+	private static final double NANOS_PER_MILLI = 1000000.0;
+
+	private final long start = System.nanoTime();
+
+	private volatile long firstByte = NOT_RECORDED;
+
+	private volatile long handlerStart = NOT_RECORDED;
+
+	private volatile long handlerEnd = NOT_RECORDED;
+
+	private boolean wrapped;
+
+	private RequestTimings() {
+	}
+
+	/**
+	 * Wrap the response so that the time to first byte is recorded. Only the first call
+	 * wraps the response, later calls return the response unchanged.
+	 * @param response the response to wrap
+	 * @return the wrapped response
+	 */
+	public HttpServletResponse wrap(HttpServletResponse response) {
+		if (this.wrapped) {
+			return response;
+		}
+		this.wrapped = true;
+		return new TimingResponseWrapper(response);
+	}
+
+	void firstByte() {
+		if (this.firstByte == NOT_RECORDED) {
+			this.firstByte = elapsed();
+		}
+	}
+
+	void handlerStarted() {
+		if (this.handlerStart == NOT_RECORDED) {
+			this.handlerStart = elapsed();
+		}
+	}
+
+	void handlerCompleted() {
+		this.handlerEnd = elapsed();
+	}
+
+	private long elapsed() {
+		return System.nanoTime() - this.start;
+	}
+
+	/**
+	 * Returns the time since the timings were started.
+	 * @return the total time in nanoseconds
+	 */
+	public long getTotalTime() {
+		return elapsed();
+	}
+
+	/**
+	 * Returns the time until the response was first written to.
+	 * @return the time to first byte in nanoseconds or {@code -1} if not recorded
+	 */
+	public long getTimeToFirstByte() {
+		return this.firstByte;
+	}
+
+	/**
+	 * Returns the time spent in the MVC handler.
+	 * @return the handler time in nanoseconds or {@code -1} if not recorded
+	 */
+	public long getHandlerTime() {
+		long handlerStart = this.handlerStart;
+		long handlerEnd = this.handlerEnd;
+		if (handlerStart == NOT_RECORDED || handlerEnd == NOT_RECORDED) {
+			return NOT_RECORDED;
+		}
+		return handlerEnd - handlerStart;
+	}
+
+	/**
+	 * Returns the recorded timings in milliseconds, suitable for adding to a trace.
+	 * @return a map of timings
+	 */
+	public Map<String, Object> toMap() {
+		long total = getTotalTime();
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("total", toMillis(total));
+		if (this.firstByte != NOT_RECORDED) {
+			map.put("firstByte", toMillis(this.firstByte));
+		}
+		long handler = getHandlerTime();
+		if (handler != NOT_RECORDED) {
+			map.put("handler", toMillis(handler));
+			map.put("filters", toMillis(total - handler));
+		}
+		return map;
+	}
+
+	/**
+	 * Convert a time in nanoseconds to milliseconds.
+	 * @param nanos the time in nanoseconds
+	 * @return the time in milliseconds
+	 */
+	public static double toMillis(long nanos) {
+		return nanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Return the timings for the given request, starting them if they have not already
+	 * been started.
+	 * @param request the request
+	 * @return the timings
+	 */
+	public static RequestTimings start(HttpServletRequest request) {
+		RequestTimings timings = get(request);
+		if (timings == null) {
+			timings = new RequestTimings();
+			request.setAttribute(ATTRIBUTE, timings);
+		}
+		return timings;
+	}
+
+	/**
+	 * Return the timings for the given request.
+	 * @param request the request
+	 * @return the timings or {@code null} if they have not been started
+	 */
+	public static RequestTimings get(HttpServletRequest request) {
+		return (RequestTimings) request.getAttribute(ATTRIBUTE);
+	}
+
+	/**
+	 * Response wrapper used to record the time to first byte.
+	 */
+	private class TimingResponseWrapper extends HttpServletResponseWrapper {
+
+		private ServletOutputStream outputStream;
+
+		private PrintWriter writer;
+
+		public TimingResponseWrapper(HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (this.outputStream == null) {
+				this.outputStream = new TimingOutputStream(super.getOutputStream());
+			}
+			return this.outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (this.writer == null) {
+				this.writer = new PrintWriter(new TimingWriter(super.getWriter()));
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			firstByte();
+			super.flushBuffer();
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			firstByte();
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			firstByte();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			firstByte();
+			super.sendRedirect(location);
+		}
+
+	}
+
+	/**
+	 * Output stream used to record the time to first byte.
+	 */
+	private class TimingOutputStream extends ServletOutputStream {
+
+		private final ServletOutputStream delegate;
+
+		public TimingOutputStream(ServletOutputStream delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			firstByte();
+			this.delegate.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (len > 0) {
+				firstByte();
+			}
+			this.delegate.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			firstByte();
+			this.delegate.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			firstByte();
+			this.delegate.close();
+		}
+
+		@Override
+		public boolean isReady() {
+			return this.delegate.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			this.delegate.setWriteListener(writeListener);
+		}
+
+	}
+
+	/**
+	 * Writer used to record the time to first byte.
+	 */
+	private class TimingWriter extends Writer {
+
+		private final Writer delegate;
+
+		public TimingWriter(Writer delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			if (len > 0) {
+				firstByte();
+			}
+			this.delegate.write(cbuf, off, len);
+		}
+
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			if (len > 0) {
+				firstByte();
+			}
+			this.delegate.write(str, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			firstByte();
+			this.delegate.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			firstByte();
+			this.delegate.close();
+		}
+
+	}
+
+}
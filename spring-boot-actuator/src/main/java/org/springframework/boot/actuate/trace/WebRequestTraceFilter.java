@@ -17,11 +17,9 @@
 package org.springframework.boot.actuate.trace;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Enumeration;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -33,17 +31,32 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.boot.autoconfigure.web.ErrorAttributes;
 import org.springframework.core.Ordered;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
+import org.springframework.util.PathMatcher;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
 
 /**
- * Servlet {@link Filter} that logs all requests to a {@link TraceRepository}.
+ * Servlet {@link Filter} that logs requests to a {@link TraceRepository}. By default all
+ * requests are logged but a {@link #setSampleRate(double) sample rate} can be set (for
+ * all requests or for {@link #setPathSampleRates(Map) specific paths}) so that only some
+ * requests are logged. Requests that fail with a server error are always logged unless
+ * {@link #setTraceErrors(boolean) traceErrors} is {@code false}. Since that can only be
+ * decided once the request has been processed, the trace is created by
+ * {@link #getTrace(HttpServletRequest)} after the rest of the filter chain has been
+ * called and only for requests that are logged. Traces include the
+ * {@link RequestTimings timings} of the request.
  *
  * @author Dave Syer
+ * @author Phillip Webb
  */
 public class WebRequestTraceFilter extends OncePerRequestFilter implements Ordered {
 
+	private static final String ERROR_EXCEPTION_ATTRIBUTE = "javax.servlet.error.exception";
+
 	private final Log logger = LogFactory.getLog(WebRequestTraceFilter.class);
 
 	private boolean dumpRequests = false;
@@ -56,6 +69,24 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 
 	private ErrorAttributes errorAttributes;
 
+	private double sampleRate = 1.0;
+
+	private Map<String, Double> pathSampleRates = new LinkedHashMap<String, Double>();
+
+	private boolean traceErrors = true;
+
+	private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+		@Override
+		protected Random initialValue() {
+			// Each thread has its own so that request threads don't contend on the seed
+			return new Random();
+		}
+	};
+
+	private final PathMatcher pathMatcher = new AntPathMatcher();
+
+	private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
 	/**
 	 * Create a new {@link WebRequestTraceFilter} instance.
 	 * @param traceRepository the trace repository
@@ -73,6 +104,50 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 		this.dumpRequests = dumpRequests;
 	}
 
+	/**
+	 * Set the proportion of requests that are logged.
+	 * @param sampleRate the sample rate between {@code 0.0} and {@code 1.0} (default
+	 * {@code 1.0} meaning that all requests are logged)
+	 */
+	public void setSampleRate(double sampleRate) {
+		Assert.isTrue(sampleRate >= 0 && sampleRate <= 1,
+				"SampleRate must be between 0 and 1");
+		this.sampleRate = sampleRate;
+	}
+
+	public double getSampleRate() {
+		return this.sampleRate;
+	}
+
+	/**
+	 * Set the proportion of requests that are logged for specific paths. Keys are Ant
+	 * style patterns that are matched against the path within the application, the first
+	 * matching pattern is used. Requests that do not match any pattern use the
+	 * {@link #setSampleRate(double) sample rate}.
+	 * @param pathSampleRates a map of path pattern to sample rate
+	 */
+	public void setPathSampleRates(Map<String, Double> pathSampleRates) {
+		Assert.notNull(pathSampleRates, "PathSampleRates must not be null");
+		this.pathSampleRates = new LinkedHashMap<String, Double>(pathSampleRates);
+	}
+
+	public Map<String, Double> getPathSampleRates() {
+		return this.pathSampleRates;
+	}
+
+	/**
+	 * Set if requests that fail with a server error should always be logged, regardless
+	 * of the sample rate.
+	 * @param traceErrors if errors should always be logged (default {@code true})
+	 */
+	public void setTraceErrors(boolean traceErrors) {
+		this.traceErrors = traceErrors;
+	}
+
+	public boolean isTraceErrors() {
+		return this.traceErrors;
+	}
+
 	@Override
 	public int getOrder() {
 		return this.order;
@@ -86,65 +161,84 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 	protected void doFilterInternal(HttpServletRequest request,
 			HttpServletResponse response, FilterChain filterChain)
 			throws ServletException, IOException {
-
-		Map<String, Object> trace = getTrace(request);
 		if (this.logger.isTraceEnabled()) {
 			this.logger.trace("Processing request " + request.getMethod() + " "
 					+ request.getRequestURI());
 			if (this.dumpRequests) {
-				@SuppressWarnings("unchecked")
-				Map<String, Object> headers = (Map<String, Object>) trace.get("headers");
-				this.logger.trace("Headers: " + headers);
+				this.logger.trace("Headers: " + CapturedHeaders.request(request));
 			}
 		}
-
+		RequestTimings timings = RequestTimings.start(request);
+		boolean failed = true;
 		try {
-			filterChain.doFilter(request, response);
+			filterChain.doFilter(request, timings.wrap(response));
+			failed = false;
 		}
 		finally {
-			enhanceTrace(trace, response);
-			this.traceRepository.add(trace);
+			if (isSampled(request, response, failed)) {
+				Map<String, Object> trace = getTrace(request);
+				enhanceTrace(trace, response);
+				this.traceRepository.add(trace);
+			}
 		}
 	}
 
-	protected void enhanceTrace(Map<String, Object> trace, HttpServletResponse response) {
-		Map<String, String> headers = new LinkedHashMap<String, String>();
-		for (String header : response.getHeaderNames()) {
-			String value = response.getHeader(header);
-			headers.put(header, value);
+	private boolean isSampled(HttpServletRequest request, HttpServletResponse response,
+			boolean failed) {
+		if (this.traceErrors
+				&& (failed || response.getStatus() >= 500 || request
+						.getAttribute(ERROR_EXCEPTION_ATTRIBUTE) != null)) {
+			return true;
 		}
-		headers.put("status", "" + response.getStatus());
+		double sampleRate = getSampleRate(request);
+		return (sampleRate >= 1 || (sampleRate > 0 && this.random.get().nextDouble()
+				< sampleRate));
+	}
+
+	private double getSampleRate(HttpServletRequest request) {
+		if (!this.pathSampleRates.isEmpty()) {
+			String path = this.urlPathHelper.getPathWithinApplication(request);
+			for (Map.Entry<String, Double> entry : this.pathSampleRates.entrySet()) {
+				if (this.pathMatcher.match(entry.getKey(), path)) {
+					return entry.getValue();
+				}
+			}
+		}
+		return this.sampleRate;
+	}
+
+	/**
+	 * Add details of the response to a trace created by
+	 * {@link #getTrace(HttpServletRequest)}.
+	 * @param trace the trace
+	 * @param response the response
+	 */
+	protected void enhanceTrace(Map<String, Object> trace, HttpServletResponse response) {
 		@SuppressWarnings("unchecked")
 		Map<String, Object> allHeaders = (Map<String, Object>) trace.get("headers");
-		allHeaders.put("response", headers);
+		allHeaders.put("response", CapturedHeaders.response(response));
 	}
 
+	/**
+	 * Create a trace for the given request. Called once the rest of the filter chain has
+	 * processed the request, rather than before, and only for requests that are logged.
+	 * Request attributes and headers therefore include any changes made by the chain.
+	 * @param request the request
+	 * @return the trace
+	 */
 	protected Map<String, Object> getTrace(HttpServletRequest request) {
-
-		Map<String, Object> headers = new LinkedHashMap<String, Object>();
-		Enumeration<String> names = request.getHeaderNames();
-
-		while (names.hasMoreElements()) {
-			String name = names.nextElement();
-			List<String> values = Collections.list(request.getHeaders(name));
-			Object value = values;
-			if (values.size() == 1) {
-				value = values.get(0);
-			}
-			else if (values.isEmpty()) {
-				value = "";
-			}
-			headers.put(name, value);
-
-		}
 		Map<String, Object> trace = new LinkedHashMap<String, Object>();
 		Map<String, Object> allHeaders = new LinkedHashMap<String, Object>();
-		allHeaders.put("request", headers);
+		allHeaders.put("request", CapturedHeaders.request(request));
 		trace.put("method", request.getMethod());
 		trace.put("path", request.getRequestURI());
 		trace.put("headers", allHeaders);
+		RequestTimings timings = RequestTimings.get(request);
+		if (timings != null) {
+			trace.put("timing", timings.toMap());
+		}
 		Throwable exception = (Throwable) request
-				.getAttribute("javax.servlet.error.exception");
+				.getAttribute(ERROR_EXCEPTION_ATTRIBUTE);
 		if (exception != null && this.errorAttributes != null) {
 			RequestAttributes requestAttributes = new ServletRequestAttributes(request);
 			Map<String, Object> error = this.errorAttributes.getErrorAttributes(
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.boot.actuate.metrics.CounterService;
 import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.actuate.trace.RequestTimingsInterceptor;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -95,6 +96,52 @@ public class MetricFilterAutoConfigurationTests {
 		context.close();
 	}
 
+	@Test
+	public void recordsRepeatedHttpInteractionsWithSameKeys() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				Config.class, MetricFilterAutoConfiguration.class);
+		Filter filter = context.getBean(Filter.class);
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new MetricFilterTestController())
+				.addFilter(filter).build();
+		mvc.perform(get("/templateVarTest/foo")).andExpect(status().isOk());
+		mvc.perform(get("/templateVarTest/bar")).andExpect(status().isOk());
+		mvc.perform(get("/knownPath/foo")).andExpect(status().isNotFound());
+		verify(context.getBean(CounterService.class), times(2)).increment(
+				"status.200.templateVarTest.someVariable");
+		verify(context.getBean(GaugeService.class), times(2)).submit(
+				eq("response.templateVarTest.someVariable"), anyDouble());
+		verify(context.getBean(CounterService.class)).increment(
+				"status.404.knownPath.someVariable");
+		context.close();
+	}
+
+	@Test
+	public void recordsTimeToFirstByte() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				Config.class, MetricFilterAutoConfiguration.class);
+		Filter filter = context.getBean(Filter.class);
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new MetricFilterTestController())
+				.addFilter(filter).build();
+		mvc.perform(get("/templateVarTest/foo")).andExpect(status().isOk());
+		verify(context.getBean(GaugeService.class)).submit(
+				eq("ttfb.templateVarTest.someVariable"), anyDouble());
+		context.close();
+	}
+
+	@Test
+	public void recordsHandlerTime() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				Config.class, MetricFilterAutoConfiguration.class);
+		Filter filter = context.getBean(Filter.class);
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new MetricFilterTestController())
+				.addInterceptors(new RequestTimingsInterceptor()).addFilter(filter)
+				.build();
+		mvc.perform(get("/templateVarTest/foo")).andExpect(status().isOk());
+		verify(context.getBean(GaugeService.class)).submit(
+				eq("handler.templateVarTest.someVariable"), anyDouble());
+		context.close();
+	}
+
 	@Test
 	public void recordsKnown404HttpInteractionsAsSingleMetricWithPathAndTemplateVariable()
 			throws Exception {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,12 +29,15 @@ import org.apache.commons.dbcp.BasicDataSource;
 import org.junit.After;
 import org.junit.Test;
 import org.springframework.boot.actuate.endpoint.DataSourcePublicMetrics;
+import org.springframework.boot.actuate.endpoint.HistogramReaderPublicMetrics;
 import org.springframework.boot.actuate.endpoint.MetricReaderPublicMetrics;
 import org.springframework.boot.actuate.endpoint.PublicMetrics;
 import org.springframework.boot.actuate.endpoint.RichGaugeReaderPublicMetrics;
 import org.springframework.boot.actuate.endpoint.SystemPublicMetrics;
 import org.springframework.boot.actuate.endpoint.TomcatPublicMetrics;
+import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.histogram.InMemoryHistogramRepository;
 import org.springframework.boot.actuate.metrics.rich.RichGauge;
 import org.springframework.boot.actuate.metrics.rich.RichGaugeReader;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
@@ -119,6 +122,26 @@ public class PublicMetricsAutoConfigurationTests {
 		context.close();
 	}
 
+	@Test
+	public void histogramPublicMetrics() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				HistogramConfig.class, MetricRepositoryAutoConfiguration.class,
+				PublicMetricsAutoConfiguration.class);
+		GaugeService gaugeService = context.getBean(GaugeService.class);
+		for (int i = 1; i <= 100; i++) {
+			gaugeService.submit("foo", i);
+		}
+		HistogramReaderPublicMetrics publicMetrics = context
+				.getBean(HistogramReaderPublicMetrics.class);
+		Collection<Metric<?>> metrics = publicMetrics.metrics();
+		assertEquals(6, metrics.size());
+		assertHasMetric(metrics, new Metric<Long>("gauge.foo.count", 100L));
+		assertHasMetric(metrics, new Metric<Double>("gauge.foo.max", 100.0));
+		assertMetrics(metrics, "gauge.foo.p50", "gauge.foo.p95", "gauge.foo.p99",
+				"gauge.foo.p999");
+		context.close();
+	}
+
 	@Test
 	public void noDataSource() {
 		load();
@@ -280,6 +303,16 @@ public class PublicMetricsAutoConfigurationTests {
 
 	}
 
+	@Configuration
+	static class HistogramConfig {
+
+		@Bean
+		public InMemoryHistogramRepository histogramRepository() {
+			return new InMemoryHistogramRepository();
+		}
+
+	}
+
 	@Configuration
 	static class TomcatConfiguration {
 
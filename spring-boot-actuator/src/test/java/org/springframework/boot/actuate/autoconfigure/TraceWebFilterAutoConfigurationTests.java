@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,8 +19,11 @@ package org.springframework.boot.actuate.autoconfigure;
 import org.junit.Test;
 import org.springframework.boot.actuate.trace.WebRequestTraceFilter;
 import org.springframework.boot.autoconfigure.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.EnvironmentTestUtils;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 
 /**
@@ -40,4 +43,21 @@ public class TraceWebFilterAutoConfigurationTests {
 		context.close();
 	}
 
+	@Test
+	public void configureSampling() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(context, "management.trace.sample-rate:0.1",
+				"management.trace.path-sample-rates[/api/**]:0.5",
+				"management.trace.trace-errors:false");
+		context.register(PropertyPlaceholderAutoConfiguration.class,
+				TraceRepositoryAutoConfiguration.class,
+				TraceWebFilterAutoConfiguration.class);
+		context.refresh();
+		WebRequestTraceFilter filter = context.getBean(WebRequestTraceFilter.class);
+		assertEquals(0.1, filter.getSampleRate(), 0.0);
+		assertEquals(0.5, filter.getPathSampleRates().get("/api/**"), 0.0);
+		assertFalse(filter.isTraceErrors());
+		context.close();
+	}
+
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.histogram.InMemoryHistogramRepository;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link HistogramReaderPublicMetrics}.
+ *
+ * @author Phillip Webb
+ */
+public class HistogramReaderPublicMetricsTests {
+
+	@Test
+	public void testMetrics() throws Exception {
+		InMemoryHistogramRepository repository = new InMemoryHistogramRepository();
+		repository.set("a", 1.0);
+		repository.set("a", 4.0);
+
+		HistogramReaderPublicMetrics metrics = new HistogramReaderPublicMetrics(
+				repository);
+
+		Map<String, Metric<?>> results = new HashMap<String, Metric<?>>();
+		for (Metric<?> metric : metrics.metrics()) {
+			results.put(metric.getName(), metric);
+		}
+		assertTrue(results.containsKey("a.count"));
+		assertThat(results.get("a.count").getValue().longValue(), equalTo(2L));
+
+		assertTrue(results.containsKey("a.max"));
+		assertThat(results.get("a.max").getValue().doubleValue(), equalTo(4.0));
+
+		assertTrue(results.containsKey("a.p50"));
+		assertThat(results.get("a.p50").getValue().doubleValue(), equalTo(1.03125));
+
+		assertTrue(results.containsKey("a.p95"));
+		assertThat(results.get("a.p95").getValue().doubleValue(), equalTo(4.0));
+
+		assertTrue(results.containsKey("a.p99"));
+		assertTrue(results.containsKey("a.p999"));
+	}
+
+}
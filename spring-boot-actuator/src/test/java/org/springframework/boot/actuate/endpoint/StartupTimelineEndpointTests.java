@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.startup.StartupStep;
+import org.springframework.boot.context.startup.StartupTimeline;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link StartupTimelineEndpoint}.
+ *
+ * @author Phillip Webb
+ */
+public class StartupTimelineEndpointTests extends
+		AbstractEndpointTests<StartupTimelineEndpoint> {
+
+	public StartupTimelineEndpointTests() {
+		super(Config.class, StartupTimelineEndpoint.class, "startup", true,
+				"endpoints.startup");
+	}
+
+	@Test
+	public void invoke() throws Exception {
+		List<StartupStep> steps = getEndpointBean().invoke();
+		assertEquals(1, steps.size());
+		assertEquals("test", steps.get(0).getName());
+	}
+
+	@Configuration
+	@EnableConfigurationProperties
+	public static class Config {
+
+		@Bean
+		public StartupTimeline startupTimeline() {
+			StartupTimeline timeline = new StartupTimeline();
+			timeline.start("test").end();
+			return timeline;
+		}
+
+		@Bean
+		public StartupTimelineEndpoint endpoint() {
+			return new StartupTimelineEndpoint();
+		}
+
+	}
+
+}
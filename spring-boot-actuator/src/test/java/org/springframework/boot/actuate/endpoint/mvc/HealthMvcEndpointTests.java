@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -152,6 +152,21 @@ public class HealthMvcEndpointTests {
 		assertThat(health.getDetails().size(), is(equalTo(0)));
 	}
 
+	@Test
+	public void unsecureNotCachedWhenRefreshedInBackground() {
+		given(this.endpoint.getTimeToLive()).willReturn(10000L);
+		given(this.endpoint.getRefreshInterval()).willReturn(1000L);
+		given(this.endpoint.isSensitive()).willReturn(true);
+		given(this.endpoint.invoke()).willReturn(new Health.Builder().up().build());
+		Object result = this.mvc.invoke(null);
+		assertTrue(((Health) result).getStatus() == Status.UP);
+		given(this.endpoint.invoke()).willReturn(new Health.Builder().down().build());
+		result = this.mvc.invoke(null);
+		@SuppressWarnings("unchecked")
+		Health health = ((ResponseEntity<Health>) result).getBody();
+		assertTrue(health.getStatus() == Status.DOWN);
+	}
+
 	@Test
 	public void unsecureAnonymousAccessUnrestricted() {
 		this.environment.getPropertySources().addLast(NON_SENSITIVE);
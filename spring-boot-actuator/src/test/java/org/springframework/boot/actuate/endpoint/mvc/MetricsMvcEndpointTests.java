@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.EndpointWebMvcAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.ManagementServerPropertiesAutoConfiguration;
+import org.springframework.boot.actuate.endpoint.MetricsEndpoint;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.endpoint.mvc.MetricsMvcEndpointTests.TestConfiguration;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for {@link MetricsMvcEndpoint}.
+ *
+ * @author Phillip Webb
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = { TestConfiguration.class })
+@WebAppConfiguration
+public class MetricsMvcEndpointTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	private MockMvc mvc;
+
+	@Before
+	public void setUp() {
+		this.mvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	public void home() throws Exception {
+		this.mvc.perform(get("/metrics"))
+				.andExpect(status().isOk())
+				.andExpect(
+						content().string(
+								equalTo("{\"foo\":1,\"foo.bar\":2,\"foo.baz\":3,"
+										+ "\"food\":4,\"bar.one\":7,\"bar.two\":6}")));
+	}
+
+	@Test
+	public void specificMetric() throws Exception {
+		this.mvc.perform(get("/metrics/foo.bar")).andExpect(status().isOk())
+				.andExpect(content().string(equalTo("2")));
+	}
+
+	@Test
+	public void specificMetricTakesPrecedenceOverPrefix() throws Exception {
+		this.mvc.perform(get("/metrics/foo")).andExpect(status().isOk())
+				.andExpect(content().string(equalTo("1")));
+	}
+
+	@Test
+	public void metricsWithPrefix() throws Exception {
+		this.mvc.perform(get("/metrics/bar")).andExpect(status().isOk())
+				.andExpect(content().string(equalTo("{\"bar.one\":7,\"bar.two\":6}")));
+	}
+
+	@Test
+	public void lastMetricWins() throws Exception {
+		this.mvc.perform(get("/metrics/bar.one")).andExpect(status().isOk())
+				.andExpect(content().string(equalTo("7")));
+	}
+
+	@Test
+	public void missingMetric() throws Exception {
+		this.mvc.perform(get("/metrics/bar.three")).andExpect(status().isNotFound());
+		this.mvc.perform(get("/metrics/foo.ba")).andExpect(status().isNotFound());
+	}
+
+	@Import({ EndpointWebMvcAutoConfiguration.class,
+			ManagementServerPropertiesAutoConfiguration.class })
+	@EnableWebMvc
+	@Configuration
+	public static class TestConfiguration {
+
+		@Bean
+		public MetricsEndpoint endpoint() {
+			List<PublicMetrics> publicMetrics = new ArrayList<PublicMetrics>();
+			publicMetrics.add(new PublicMetrics() {
+
+				@Override
+				public Collection<Metric<?>> metrics() {
+					List<Metric<?>> metrics = new ArrayList<Metric<?>>();
+					metrics.add(new Metric<Integer>("foo", 1));
+					metrics.add(new Metric<Integer>("foo.bar", 2));
+					metrics.add(new Metric<Integer>("foo.baz", 3));
+					metrics.add(new Metric<Integer>("food", 4));
+					metrics.add(new Metric<Integer>("bar.one", 5));
+					metrics.add(new Metric<Integer>("bar.two", 6));
+					return metrics;
+				}
+
+			});
+			publicMetrics.add(new PublicMetrics() {
+
+				@Override
+				public Collection<Metric<?>> metrics() {
+					return Collections.<Metric<?>> singleton(new Metric<Integer>(
+							"bar.one", 7));
+				}
+
+			});
+			return new MetricsEndpoint(publicMetrics);
+		}
+
+		@Bean
+		public MetricsMvcEndpoint mvcEndpoint() {
+			return new MetricsMvcEndpoint(endpoint());
+		}
+
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link StreamingJsonBody}.
+ *
+ * @author Phillip Webb
+ */
+public class StreamingJsonBodyTests {
+
+	private final StreamingJsonBody body = new StreamingJsonBody() {
+
+		@Override
+		protected void write(JsonGenerator generator) throws IOException {
+			generator.writeStartObject();
+			generator.writeObjectField("foo", 1);
+			generator.writeObjectField("bar", Collections.singletonList("baz"));
+			generator.writeEndObject();
+		}
+
+	};
+
+	@Test
+	public void writesToGenerator() throws Exception {
+		assertEquals("{\"foo\":1,\"bar\":[\"baz\"]}",
+				new ObjectMapper().writeValueAsString(this.body));
+	}
+
+	@Test
+	public void usesMapperSettings() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.enable(SerializationFeature.INDENT_OUTPUT);
+		assertEquals(mapper.writeValueAsString(mapper.readValue(
+				"{\"foo\":1,\"bar\":[\"baz\"]}", Object.class)),
+				mapper.writeValueAsString(this.body));
+	}
+
+	@Test
+	public void writesWhenNested() throws Exception {
+		assertEquals("{\"body\":{\"foo\":1,\"bar\":[\"baz\"]}}",
+				new ObjectMapper().writeValueAsString(Collections.singletonMap("body",
+						this.body)));
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,7 +18,14 @@ package org.springframework.boot.actuate.health;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -30,6 +37,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
 
 /**
@@ -43,6 +51,8 @@ public class CompositeHealthIndicatorTests {
 
 	private HealthAggregator healthAggregator;
 
+	private ExecutorService executor = Executors.newFixedThreadPool(3);
+
 	@Mock
 	private HealthIndicator one;
 
@@ -65,6 +75,11 @@ public class CompositeHealthIndicatorTests {
 		this.healthAggregator = new OrderedHealthAggregator();
 	}
 
+	@After
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+
 	@Test
 	public void createWithIndicators() throws Exception {
 		Map<String, HealthIndicator> indicators = new HashMap<String, HealthIndicator>();
@@ -153,4 +168,184 @@ public class CompositeHealthIndicatorTests {
 				mapper.writeValueAsString(result));
 	}
 
+	@Test
+	public void concurrentIndicators() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(2);
+		CompositeHealthIndicator composite = new CompositeHealthIndicator(
+				this.healthAggregator);
+		composite.setExecutor(this.executor);
+		composite.setTimeout(5000);
+		composite.addHealthIndicator("one", new LatchHealthIndicator(latch));
+		composite.addHealthIndicator("two", new LatchHealthIndicator(latch));
+		// Would time out if the indicators were not called at the same time
+		Health result = composite.health();
+		assertThat(result.getStatus(), equalTo(Status.UP));
+		assertThat(result.getDetails().size(), equalTo(2));
+	}
+
+	@Test
+	public void concurrentIndicatorTimesOut() throws Exception {
+		LatchHealthIndicator slow = new LatchHealthIndicator(new CountDownLatch(2));
+		CompositeHealthIndicator composite = new CompositeHealthIndicator(
+				this.healthAggregator);
+		composite.setExecutor(this.executor);
+		composite.setTimeout(100);
+		composite.addHealthIndicator("one", this.one);
+		composite.addHealthIndicator("slow", slow);
+		Health result = composite.health();
+		assertThat(result.getDetails(), hasEntry("one", (Object) new Health.Builder()
+				.unknown().withDetail("1", "1").build()));
+		assertThat(result.getDetails(), hasEntry("slow", (Object) new Health.Builder()
+				.unknown().withDetail("error", "Timed out after 100ms").build()));
+		assertTrue(slow.interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void concurrentIndicatorTimesOutWithStatus() throws Exception {
+		CompositeHealthIndicator composite = new CompositeHealthIndicator(
+				this.healthAggregator);
+		composite.setExecutor(this.executor);
+		composite.setTimeout(100);
+		composite.setTimeoutStatus(Status.DOWN);
+		composite.addHealthIndicator("slow", new LatchHealthIndicator(
+				new CountDownLatch(2)));
+		assertThat(composite.health().getStatus(), equalTo(Status.DOWN));
+	}
+
+	@Test
+	public void queuedIndicatorsAreTimedFromWhenTheyStart() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CompositeHealthIndicator composite = new CompositeHealthIndicator(
+					this.healthAggregator);
+			composite.setExecutor(executor);
+			composite.setTimeout(500);
+			composite.addHealthIndicator("one", new SleepHealthIndicator(300));
+			composite.addHealthIndicator("two", new SleepHealthIndicator(300));
+			composite.addHealthIndicator("three", new SleepHealthIndicator(300));
+			// Would time out if queued indicators were timed from submission
+			Health result = composite.health();
+			assertThat(result.getStatus(), equalTo(Status.UP));
+			assertThat(result.getDetails().size(), equalTo(3));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void queuedIndicatorNotStarted() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final LatchHealthIndicator blocking = new LatchHealthIndicator(
+					new CountDownLatch(2));
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					blocking.health();
+				}
+			});
+			CompositeHealthIndicator composite = new CompositeHealthIndicator(
+					this.healthAggregator);
+			composite.setExecutor(executor);
+			composite.setTimeout(100);
+			composite.addHealthIndicator("one", this.one);
+			Health result = composite.health();
+			assertThat(result.getDetails(), hasEntry("one", (Object) new Health.Builder()
+					.unknown().withDetail("error", "Not started within 100ms").build()));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void concurrentIndicatorFails() throws Exception {
+		given(this.two.health()).willThrow(new IllegalStateException("Failed"));
+		CompositeHealthIndicator composite = new CompositeHealthIndicator(
+				this.healthAggregator);
+		composite.setExecutor(this.executor);
+		composite.addHealthIndicator("one", this.one);
+		composite.addHealthIndicator("two", this.two);
+		Health result = composite.health();
+		assertThat(result.getStatus(), equalTo(Status.DOWN));
+		assertThat(result.getDetails(), hasEntry("two", (Object) new Health.Builder()
+				.down().withDetail("error", "java.lang.IllegalStateException: Failed")
+				.build()));
+	}
+
+	@Test
+	public void concurrentIndicatorRejected() throws Exception {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0,
+				TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(1));
+		try {
+			LatchHealthIndicator slow = new LatchHealthIndicator(new CountDownLatch(2));
+			CompositeHealthIndicator composite = new CompositeHealthIndicator(
+					this.healthAggregator);
+			composite.setExecutor(executor);
+			composite.setTimeout(100);
+			composite.addHealthIndicator("slow", slow);
+			composite.addHealthIndicator("one", this.one);
+			composite.addHealthIndicator("two", this.two);
+			Health result = composite.health();
+			assertThat(result.getDetails(), hasEntry("two", (Object) new Health.Builder()
+					.unknown().withDetail("error", "Rejected by executor").build()));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * {@link HealthIndicator} that sleeps before reporting that it is up.
+	 */
+	private static class SleepHealthIndicator implements HealthIndicator {
+
+		private final long sleep;
+
+		public SleepHealthIndicator(long sleep) {
+			this.sleep = sleep;
+		}
+
+		@Override
+		public Health health() {
+			try {
+				Thread.sleep(this.sleep);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return Health.up().build();
+		}
+
+	}
+
+	/**
+	 * {@link HealthIndicator} that counts down a latch and then waits for it to reach
+	 * zero.
+	 */
+	private static class LatchHealthIndicator implements HealthIndicator {
+
+		private final CountDownLatch latch;
+
+		private final CountDownLatch interrupted = new CountDownLatch(1);
+
+		public LatchHealthIndicator(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Health health() {
+			this.latch.countDown();
+			try {
+				this.latch.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				this.interrupted.countDown();
+			}
+			return Health.up().build();
+		}
+
+	}
+
 }
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.health;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ScheduledCompositeHealthIndicator}.
+ *
+ * @author Phillip Webb
+ */
+public class ScheduledCompositeHealthIndicatorTests {
+
+	private ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+
+	private ScheduledCompositeHealthIndicator indicator;
+
+	@Before
+	public void setup() {
+		this.indicator = new ScheduledCompositeHealthIndicator(
+				new OrderedHealthAggregator(), this.executor);
+	}
+
+	@After
+	public void shutdown() {
+		this.indicator.stop();
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void unknownBeforeStart() throws Exception {
+		CountingHealthIndicator one = new CountingHealthIndicator(Status.UP, 1);
+		this.indicator.addHealthIndicator("one", one);
+		Health health = this.indicator.health();
+		assertThat(health.getStatus(), equalTo(Status.UNKNOWN));
+		assertThat(health.getDetails(), hasEntry("one", (Object) Health.unknown()
+				.build()));
+		assertThat(one.calls.get(), equalTo(0));
+	}
+
+	@Test
+	public void refreshesInBackground() throws Exception {
+		CountingHealthIndicator one = new CountingHealthIndicator(Status.UP, 3);
+		CountingHealthIndicator two = new CountingHealthIndicator(Status.DOWN, 1);
+		this.indicator.addHealthIndicator("one", one, 10);
+		this.indicator.addHealthIndicator("two", two, 60000);
+		this.indicator.start();
+		assertTrue(one.latch.await(5, TimeUnit.SECONDS));
+		Health health = waitForHealth("two", Health.down().build());
+		assertThat(health.getStatus(), equalTo(Status.DOWN));
+		assertThat(health.getDetails(), hasEntry("one", (Object) Health.up().build()));
+		assertThat(health.getDetails(), hasEntry("two", (Object) Health.down().build()));
+		assertThat(two.calls.get(), equalTo(1));
+	}
+
+	@Test
+	public void healthDoesNotCallIndicators() throws Exception {
+		CountingHealthIndicator one = new CountingHealthIndicator(Status.UP, 1);
+		this.indicator.addHealthIndicator("one", one, 60000);
+		this.indicator.start();
+		waitForHealth("one", Health.up().build());
+		for (int i = 0; i < 10; i++) {
+			this.indicator.health();
+		}
+		assertThat(one.calls.get(), equalTo(1));
+	}
+
+	@Test
+	public void indicatorThatThrowsIsDown() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(2);
+		this.indicator.addHealthIndicator("fail", new HealthIndicator() {
+			@Override
+			public Health health() {
+				latch.countDown();
+				throw new IllegalStateException("Failed");
+			}
+		}, 10);
+		this.indicator.start();
+		// Called again after throwing
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		waitForHealth("fail", Health.down(new IllegalStateException("Failed")).build());
+	}
+
+	@Test
+	public void blockingIndicatorIsStale() throws Exception {
+		BlockingHealthIndicator blocking = new BlockingHealthIndicator();
+		CountingHealthIndicator one = new CountingHealthIndicator(Status.UP, 20);
+		this.indicator.addHealthIndicator("blocking", blocking, 10);
+		this.indicator.addHealthIndicator("one", one, 10);
+		this.indicator.start();
+		try {
+			assertTrue(blocking.called.await(5, TimeUnit.SECONDS));
+			// The other indicator keeps being refreshed while the first is blocked
+			assertTrue(one.latch.await(5, TimeUnit.SECONDS));
+			Health health = waitForStatus("blocking", Status.UNKNOWN);
+			assertThat(health.getDetails(), hasEntry("one", (Object) Health.up().build()));
+			assertThat(((Health) health.getDetails().get("blocking")).getDetails()
+					.get("error").toString(), startsWith("Not refreshed for "));
+		}
+		finally {
+			blocking.latch.countDown();
+		}
+	}
+
+	@Test
+	public void staleIndicatorWithStatus() throws Exception {
+		BlockingHealthIndicator blocking = new BlockingHealthIndicator();
+		this.indicator.setStaleStatus(Status.DOWN);
+		this.indicator.addHealthIndicator("blocking", blocking, 10);
+		this.indicator.start();
+		try {
+			waitForStatus("blocking", Status.DOWN);
+			assertThat(this.indicator.health().getStatus(), equalTo(Status.DOWN));
+		}
+		finally {
+			blocking.latch.countDown();
+		}
+	}
+
+	@Test
+	public void staleIndicatorRecovers() throws Exception {
+		BlockOnceHealthIndicator blocking = new BlockOnceHealthIndicator();
+		this.indicator.addHealthIndicator("blocking", blocking, 10);
+		this.indicator.start();
+		try {
+			waitForHealth("blocking", Health.up().build());
+			assertTrue(blocking.blocked.await(5, TimeUnit.SECONDS));
+			Health health = waitForStatus("blocking", Status.UNKNOWN);
+			assertThat(((Health) health.getDetails().get("blocking")).getDetails()
+					.get("error").toString(), startsWith("Not refreshed for "));
+		}
+		finally {
+			blocking.latch.countDown();
+		}
+		waitForHealth("blocking", Health.outOfService().build());
+	}
+
+	@Test
+	public void staleIndicatorNotReportedWhenMissedRefreshesIsZero() throws Exception {
+		BlockingHealthIndicator blocking = new BlockingHealthIndicator();
+		this.indicator.setMaxMissedRefreshes(0);
+		this.indicator.addHealthIndicator("blocking", blocking, 10);
+		this.indicator.start();
+		try {
+			assertTrue(blocking.called.await(5, TimeUnit.SECONDS));
+			Thread.sleep(100);
+			assertThat(this.indicator.health().getDetails(), hasEntry("blocking",
+					(Object) Health.unknown().build()));
+		}
+		finally {
+			blocking.latch.countDown();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void cannotAddOnceStarted() throws Exception {
+		this.indicator.start();
+		this.indicator.addHealthIndicator("one", new CountingHealthIndicator(Status.UP,
+				1));
+	}
+
+	private Health waitForHealth(String name, Health expected) throws Exception {
+		long end = System.currentTimeMillis() + 5000;
+		Health health = this.indicator.health();
+		while (!expected.equals(health.getDetails().get(name))
+				&& System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+			health = this.indicator.health();
+		}
+		assertThat(health.getDetails(), hasEntry(name, (Object) expected));
+		return health;
+	}
+
+	private Health waitForStatus(String name, Status expected) throws Exception {
+		long end = System.currentTimeMillis() + 5000;
+		Health health = this.indicator.health();
+		while (!expected.equals(((Health) health.getDetails().get(name)).getStatus())
+				&& System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+			health = this.indicator.health();
+		}
+		assertThat(((Health) health.getDetails().get(name)).getStatus(),
+				equalTo(expected));
+		return health;
+	}
+
+	private static class CountingHealthIndicator implements HealthIndicator {
+
+		private final Status status;
+
+		private final CountDownLatch latch;
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		public CountingHealthIndicator(Status status, int count) {
+			this.status = status;
+			this.latch = new CountDownLatch(count);
+		}
+
+		@Override
+		public Health health() {
+			this.calls.incrementAndGet();
+			this.latch.countDown();
+			return Health.status(this.status).build();
+		}
+
+	}
+
+	private static class BlockOnceHealthIndicator implements HealthIndicator {
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private final CountDownLatch blocked = new CountDownLatch(1);
+
+		private final CountDownLatch latch = new CountDownLatch(1);
+
+		@Override
+		public Health health() {
+			int call = this.calls.incrementAndGet();
+			if (call == 1) {
+				return Health.up().build();
+			}
+			if (call == 2) {
+				this.blocked.countDown();
+				try {
+					this.latch.await();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return Health.outOfService().build();
+		}
+
+	}
+
+	private static class BlockingHealthIndicator implements HealthIndicator {
+
+		private final CountDownLatch called = new CountDownLatch(1);
+
+		private final CountDownLatch latch = new CountDownLatch(1);
+
+		@Override
+		public Health health() {
+			this.called.countDown();
+			try {
+				this.latch.await();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return Health.up().build();
+		}
+
+	}
+
+}
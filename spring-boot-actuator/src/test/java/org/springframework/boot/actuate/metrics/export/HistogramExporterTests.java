@@ -0,0 +1,49 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.export;
+
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Iterables;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.histogram.InMemoryHistogramRepository;
+import org.springframework.boot.actuate.metrics.repository.InMemoryMetricRepository;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link HistogramExporter}.
+ *
+ * @author Phillip Webb
+ */
+public class HistogramExporterTests {
+
+	private final InMemoryHistogramRepository reader = new InMemoryHistogramRepository();
+
+	private final InMemoryMetricRepository writer = new InMemoryMetricRepository();
+
+	private final HistogramExporter exporter = new HistogramExporter(this.reader,
+			this.writer);
+
+	@Test
+	public void prefixedMetricsCopied() {
+		this.reader.set(new Metric<Number>("foo", 2.3));
+		this.exporter.export();
+		assertEquals(1, Iterables.collection(this.writer.groups()).size());
+		assertEquals(6, Iterables.collection(this.writer.findAll("foo")).size());
+	}
+
+}
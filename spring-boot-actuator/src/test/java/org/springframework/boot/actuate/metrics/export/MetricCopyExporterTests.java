@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,8 +21,11 @@ import java.util.Date;
 import org.junit.Test;
 import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.boot.actuate.metrics.repository.InMemoryMetricRepository;
+import org.springframework.boot.actuate.metrics.writer.Delta;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
 /**
  * @author Dave Syer
@@ -58,4 +61,98 @@ public class MetricCopyExporterTests {
 		assertEquals(1, this.writer.count());
 	}
 
+	@Test
+	public void onlyChangesExportedOnSubsequentExports() {
+		this.exporter.setEarliestTimestamp(new Date(0));
+		this.reader.set(new Metric<Number>("foo", 2.3, new Date(
+				System.currentTimeMillis() - 10000)));
+		this.exporter.export();
+		assertEquals(1, this.writer.count());
+		this.writer.reset("foo");
+		this.reader.increment("bar", 1L);
+		this.exporter.export();
+		assertEquals(1, this.writer.count());
+		assertEquals(1L, this.writer.findOne("bar").getValue());
+	}
+
+	@Test
+	public void updateDuringExportIsExportedNextTime() {
+		InMemoryMetricRepository writer = new InMemoryMetricRepository() {
+
+			private boolean updated;
+
+			@Override
+			public void set(Metric<?> value) {
+				super.set(value);
+				if (!this.updated) {
+					// Simulates an update that races with the export and that has a
+					// timestamp from before the export started
+					this.updated = true;
+					MetricCopyExporterTests.this.reader.increment(new Delta<Long>("bar",
+							1L, new Date(1000)));
+				}
+			}
+
+		};
+		MetricCopyExporter exporter = new MetricCopyExporter(this.reader, writer);
+		exporter.setEarliestTimestamp(new Date(0));
+		this.reader.set(new Metric<Number>("foo", 2.3));
+		exporter.export();
+		assertNull(writer.findOne("bar"));
+		exporter.export();
+		assertEquals(1L, writer.findOne("bar").getValue());
+		writer.reset("bar");
+		exporter.export();
+		assertNull(writer.findOne("bar"));
+	}
+
+	@Test
+	public void changesAreExportedAgainAfterFailedWrite() {
+		InMemoryMetricRepository writer = new InMemoryMetricRepository() {
+
+			private boolean failed;
+
+			@Override
+			public void set(Metric<?> value) {
+				if (!this.failed) {
+					this.failed = true;
+					throw new IllegalStateException("Failed");
+				}
+				super.set(value);
+			}
+
+		};
+		MetricCopyExporter exporter = new MetricCopyExporter(this.reader, writer);
+		exporter.setEarliestTimestamp(new Date(0));
+		exporter.export();
+		this.reader.set(new Metric<Number>("foo", 2.3));
+		try {
+			exporter.export();
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// Expected
+		}
+		exporter.export();
+		assertEquals(2.3, writer.findOne("foo").getValue());
+	}
+
+	@Test
+	public void updateWithOldTimestampIsExported() {
+		this.exporter.setEarliestTimestamp(new Date(0));
+		this.exporter.export();
+		this.reader.increment(new Delta<Long>("bar", 1L, new Date(1000)));
+		this.exporter.export();
+		assertEquals(1L, this.writer.findOne("bar").getValue());
+	}
+
+	@Test
+	public void prefix() {
+		MetricCopyExporter exporter = new MetricCopyExporter(this.reader, this.writer,
+				"spam");
+		this.reader.set(new Metric<Number>("foo", 2.3));
+		exporter.export();
+		assertEquals(2.3, this.writer.findOne("spam.foo").getValue());
+	}
+
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.histogram;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link Histogram}.
+ *
+ * @author Phillip Webb
+ */
+public class HistogramTests {
+
+	private final Histogram histogram = new Histogram("foo");
+
+	@Test
+	public void empty() {
+		assertEquals(0, this.histogram.getCount());
+		assertEquals(0.0, this.histogram.getMax(), 0.0);
+		assertEquals(0.0, this.histogram.getValueAtPercentile(99), 0.0);
+	}
+
+	@Test
+	public void percentiles() {
+		for (int i = 1; i <= 1000; i++) {
+			this.histogram.record(i);
+		}
+		assertEquals(1000, this.histogram.getCount());
+		assertEquals(1000.0, this.histogram.getMax(), 0.0);
+		assertEquals(500.0, this.histogram.getValueAtPercentile(50), 500 * 0.035);
+		assertEquals(950.0, this.histogram.getValueAtPercentile(95), 950 * 0.035);
+		assertEquals(990.0, this.histogram.getValueAtPercentile(99), 990 * 0.035);
+		assertEquals(1000.0, this.histogram.getValueAtPercentile(100), 0.0);
+	}
+
+	@Test
+	public void tailIsNotHidden() {
+		for (int i = 0; i < 990; i++) {
+			this.histogram.record(10);
+		}
+		for (int i = 0; i < 10; i++) {
+			this.histogram.record(5000);
+		}
+		assertEquals(10.0, this.histogram.getValueAtPercentile(50), 10 * 0.035);
+		assertEquals(10.0, this.histogram.getValueAtPercentile(99), 10 * 0.035);
+		assertEquals(5000.0, this.histogram.getValueAtPercentile(99.9), 5000 * 0.035);
+	}
+
+	@Test
+	public void smallAndNegativeValuesCountedAsZero() {
+		this.histogram.record(-1);
+		this.histogram.record(0);
+		this.histogram.record(0.0001);
+		assertEquals(3, this.histogram.getCount());
+		assertEquals(0.0, this.histogram.getValueAtPercentile(100), 0.0);
+	}
+
+	@Test
+	public void merge() {
+		Histogram other = new Histogram("foo");
+		for (int i = 1; i <= 100; i++) {
+			this.histogram.record(i);
+			other.record(i + 100);
+		}
+		this.histogram.merge(other);
+		assertEquals(200, this.histogram.getCount());
+		assertEquals(200.0, this.histogram.getMax(), 0.0);
+		assertEquals(100.0, this.histogram.getValueAtPercentile(50), 100 * 0.035);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,19 @@
 
 package org.springframework.boot.actuate.metrics.repository;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.junit.Test;
 import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.boot.actuate.metrics.writer.Delta;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Tests for {@link InMemoryMetricRepository}.
@@ -37,10 +43,132 @@ public class InMemoryMetricRepositoryTests {
 		assertEquals(1.0, this.repository.findOne("foo").getValue().doubleValue(), 0.01);
 	}
 
+	@Test
+	public void incrementWithoutDelta() {
+		this.repository.increment("foo", 2L);
+		this.repository.increment("foo", -1L);
+		assertEquals(1L, this.repository.findOne("foo").getValue());
+		assertEquals(1, this.repository.count());
+	}
+
+	@Test
+	public void incrementExisting() {
+		this.repository.set(new Metric<Long>("foo", 3L, new Date()));
+		this.repository.increment(new Delta<Integer>("foo", 1, new Date()));
+		assertEquals(4L, this.repository.findOne("foo").getValue());
+		assertEquals(1, this.repository.count());
+	}
+
 	@Test
 	public void set() {
 		this.repository.set(new Metric<Double>("foo", 2.5, new Date()));
 		assertEquals(2.5, this.repository.findOne("foo").getValue().doubleValue(), 0.01);
 	}
 
+	@Test
+	public void setWithoutMetric() {
+		this.repository.set("foo", 2.5);
+		this.repository.set("foo", 3.5);
+		assertEquals(3.5, this.repository.findOne("foo").getValue());
+		assertEquals(1, this.repository.count());
+	}
+
+	@Test
+	public void incrementGauge() {
+		this.repository.set("foo", 2.0);
+		this.repository.increment("foo", 1L);
+		assertEquals(3L, this.repository.findOne("foo").getValue());
+		assertEquals(1, this.repository.count());
+	}
+
+	@Test
+	public void setReplacesCounter() {
+		this.repository.increment("foo", 1L);
+		this.repository.set(new Metric<Double>("foo", 2.5, new Date()));
+		assertEquals(2.5, this.repository.findOne("foo").getValue().doubleValue(), 0.01);
+		assertEquals(1, this.repository.count());
+	}
+
+	@Test
+	public void reset() {
+		this.repository.increment("foo", 1L);
+		this.repository.reset("foo");
+		assertNull(this.repository.findOne("foo"));
+		assertEquals(0, this.repository.count());
+	}
+
+	@Test
+	public void findAllIncludesCountersInOrder() {
+		this.repository.set(new Metric<Double>("gauge.bar", 2.5, new Date()));
+		this.repository.set("gauge.baz", 1.5);
+		this.repository.increment("counter.foo", 1L);
+		this.repository.increment("counter.bar", 1L);
+		List<String> names = new ArrayList<String>();
+		for (Metric<?> metric : this.repository.findAll()) {
+			names.add(metric.getName());
+		}
+		assertEquals("[counter.bar, counter.foo, gauge.bar, gauge.baz]",
+				names.toString());
+	}
+
+	@Test
+	public void findAllWithPrefixIncludesCounters() {
+		this.repository.set(new Metric<Double>("counter.foo.spam", 2.5, new Date()));
+		this.repository.increment("counter.foo.bar", 1L);
+		this.repository.increment("counter.foobar", 1L);
+		List<String> names = new ArrayList<String>();
+		for (Metric<?> metric : this.repository.findAll("counter.foo")) {
+			names.add(metric.getName());
+		}
+		assertEquals("[counter.foo.bar, counter.foo.spam]", names.toString());
+	}
+
+	@Test
+	public void findAllChangedSinceOnlyIncludesChanges() {
+		this.repository.set(new Metric<Double>("gauge.old", 2.5));
+		this.repository.increment("counter.old", 1L);
+		this.repository.set("gauge.foo.old", 1.5);
+		long version = this.repository.nextVersion();
+		// Timestamps in the past don't matter, only when the change was made
+		this.repository.set(new Metric<Double>("gauge.new", 2.5, new Date(0)));
+		this.repository.increment(new Delta<Long>("counter.new", 1L, new Date(0)));
+		this.repository.set("gauge.foo.new", 1.5);
+		List<String> names = new ArrayList<String>();
+		for (Metric<?> metric : this.repository.findAllChangedSince(version)) {
+			names.add(metric.getName());
+		}
+		assertEquals("[counter.new, gauge.foo.new, gauge.new]", names.toString());
+		names.clear();
+		for (Metric<?> metric : this.repository.findAllChangedSince("gauge.foo",
+				version)) {
+			names.add(metric.getName());
+		}
+		assertEquals("[gauge.foo.new]", names.toString());
+		assertEquals(0, count(this.repository.findAllChangedSince(this.repository
+				.nextVersion())));
+	}
+
+	@Test
+	public void findAllChangedSinceIncludesValuesThatWereSetInBulk() {
+		this.repository.set(new Metric<Double>("gauge.old", 2.5));
+		long version = this.repository.nextVersion();
+		ConcurrentNavigableMap<String, Metric<?>> values = new ConcurrentSkipListMap<String, Metric<?>>();
+		values.put("gauge.new", new Metric<Double>("gauge.new", 1.5));
+		this.repository.setValues(values);
+		List<String> names = new ArrayList<String>();
+		for (Metric<?> metric : this.repository.findAllChangedSince(version)) {
+			names.add(metric.getName());
+		}
+		assertEquals("[gauge.new]", names.toString());
+	}
+
+	private int count(Iterable<?> iterable) {
+		int count = 0;
+		for (Iterator<?> iterator = iterable.iterator(); iterator.hasNext(); iterator
+				.next()) {
+			count++;
+		}
+		return count;
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 
 package org.springframework.boot.actuate.metrics.repository.redis;
 
+import java.util.Iterator;
+import java.util.Map;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -24,6 +27,7 @@ import org.springframework.boot.actuate.metrics.Iterables;
 import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.boot.actuate.metrics.writer.Delta;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -92,6 +96,86 @@ public class RedisMetricRepositoryTests {
 		assertEquals("foo", metric.getName());
 	}
 
+	@Test
+	public void findAllWithValues() {
+		this.repository.increment(new Delta<Long>("foo", 3L));
+		this.repository.set(new Metric<Number>("bar", 12.3));
+		Iterator<Metric<?>> metrics = this.repository.findAll().iterator();
+		Metric<?> foo = metrics.next();
+		assertEquals("foo", foo.getName());
+		assertEquals(3, foo.getValue().longValue());
+		Metric<?> bar = metrics.next();
+		assertEquals("bar", bar.getName());
+		assertEquals(12.3, bar.getValue().doubleValue(), 0.01);
+	}
+
+	@Test
+	public void bufferedIncrementAndFlush() {
+		this.repository.setBuffered(true);
+		this.repository.increment(new Delta<Long>("foo", 3L));
+		this.repository.increment(new Delta<Long>("foo", 2L));
+		assertNull(this.repository.findOne("foo"));
+		this.repository.flush();
+		assertEquals(5, this.repository.findOne("foo").getValue().longValue());
+		this.repository.increment(new Delta<Long>("foo", 1L));
+		this.repository.flush();
+		assertEquals(6, this.repository.findOne("foo").getValue().longValue());
+	}
+
+	@Test
+	public void bufferedSetReplacesIncrement() {
+		this.repository.setBuffered(true);
+		this.repository.increment(new Delta<Long>("foo", 3L));
+		this.repository.set(new Metric<Number>("foo", 12.3));
+		this.repository.increment(new Delta<Long>("foo", 1L));
+		this.repository.flush();
+		assertEquals(13.3, this.repository.findOne("foo").getValue().doubleValue(), 0.01);
+	}
+
+	@Test
+	public void bufferedIncrementRemovedOnceFlushedAtZero() {
+		this.repository.setFlushInterval(0);
+		this.repository.setBuffered(true);
+		this.repository.increment(new Delta<Long>("foo", 3L));
+		this.repository.flush();
+		assertEquals(1, getPendingIncrements().size());
+		this.repository.flush();
+		assertEquals(0, getPendingIncrements().size());
+		this.repository.increment(new Delta<Long>("foo", 2L));
+		this.repository.flush();
+		assertEquals(5, this.repository.findOne("foo").getValue().longValue());
+	}
+
+	@Test
+	public void flushIntervalSchedulesFlushing() throws Exception {
+		this.repository.setFlushInterval(1000);
+		this.repository.setBuffered(true);
+		assertNotNull(ReflectionTestUtils.getField(this.repository, "flushExecutor"));
+		this.repository.increment(new Delta<Long>("foo", 3L));
+		this.repository.destroy();
+		assertNull(ReflectionTestUtils.getField(this.repository, "flushExecutor"));
+		assertEquals(3, this.repository.findOne("foo").getValue().longValue());
+	}
+
+	@Test
+	public void bufferedIncrementFlushedOnDestroy() throws Exception {
+		this.repository.setFlushInterval(0);
+		this.repository.setBuffered(true);
+		this.repository.increment(new Delta<Long>("foo", 3L));
+		assertNull(this.repository.findOne("foo"));
+		this.repository.destroy();
+		assertEquals(3, this.repository.findOne("foo").getValue().longValue());
+	}
+
+	@Test
+	public void bufferedIncrementFlushedWhenUnbuffered() {
+		this.repository.setFlushInterval(0);
+		this.repository.setBuffered(true);
+		this.repository.increment(new Delta<Long>("foo", 3L));
+		this.repository.setBuffered(false);
+		assertEquals(3, this.repository.findOne("foo").getValue().longValue());
+	}
+
 	@Test
 	public void count() {
 		this.repository.increment(new Delta<Long>("foo", 3L));
@@ -99,4 +183,9 @@ public class RedisMetricRepositoryTests {
 		assertEquals(2, this.repository.count());
 	}
 
+	private Map<?, ?> getPendingIncrements() {
+		return (Map<?, ?>) ReflectionTestUtils.getField(this.repository,
+				"pendingIncrements");
+	}
+
 }
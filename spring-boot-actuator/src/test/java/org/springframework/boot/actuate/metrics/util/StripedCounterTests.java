@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link StripedCounter}.
+ *
+ * @author Phillip Webb
+ */
+public class StripedCounterTests {
+
+	private final StripedCounter counter = new StripedCounter();
+
+	@Test
+	public void addAndGet() {
+		this.counter.add(3, 100);
+		this.counter.add(-1, 200);
+		assertEquals(2, this.counter.get());
+		assertEquals(200, this.counter.getTimestamp());
+	}
+
+	@Test
+	public void timestampIsMostRecent() {
+		this.counter.add(1, 200);
+		this.counter.add(1, 100);
+		assertEquals(200, this.counter.getTimestamp());
+	}
+
+	@Test
+	public void addConcurrently() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						for (int j = 0; j < 10000; j++) {
+							StripedCounterTests.this.counter.add(1, j);
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				result.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertEquals(80000, this.counter.get());
+	}
+
+}
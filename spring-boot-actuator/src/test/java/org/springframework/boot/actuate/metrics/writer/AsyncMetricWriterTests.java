@@ -0,0 +1,191 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.writer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.repository.InMemoryMetricRepository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link AsyncMetricWriter}.
+ *
+ * @author Phillip Webb
+ */
+public class AsyncMetricWriterTests {
+
+	private final InMemoryMetricRepository repository = new InMemoryMetricRepository();
+
+	private final AsyncMetricWriter writer = new AsyncMetricWriter(this.repository);
+
+	@Test
+	public void incrementsAreWritten() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			this.writer.increment("counter.foo", 1);
+			this.writer.increment(new Delta<Long>("counter.foo", 2L));
+		}
+		this.writer.destroy();
+		assertEquals(300L, this.repository.findOne("counter.foo").getValue().longValue());
+		assertEquals(0, this.writer.getPending());
+	}
+
+	@Test
+	public void lastValueIsWritten() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			this.writer.set("gauge.foo", i);
+			this.writer.set(new Metric<Double>("gauge.bar", (double) i));
+		}
+		this.writer.destroy();
+		assertEquals(99.0, this.repository.findOne("gauge.foo").getValue()
+				.doubleValue(), 0.0);
+		assertEquals(99.0, this.repository.findOne("gauge.bar").getValue()
+				.doubleValue(), 0.0);
+	}
+
+	@Test
+	public void resetIsWritten() throws Exception {
+		this.repository.set(new Metric<Double>("gauge.foo", 1.0));
+		this.writer.reset("gauge.foo");
+		this.writer.destroy();
+		assertNull(this.repository.findOne("gauge.foo"));
+	}
+
+	@Test
+	public void updatesAreCoalesced() throws Exception {
+		BlockingMetricWriter delegate = new BlockingMetricWriter(this.repository);
+		AsyncMetricWriter writer = new AsyncMetricWriter(delegate);
+		writer.set("gauge.block", 1.0);
+		assertTrue(delegate.blocked.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 10; i++) {
+			writer.increment("counter.foo", 1);
+		}
+		assertEquals(1, writer.getPending());
+		assertEquals(9, writer.getCoalesced());
+		delegate.release.countDown();
+		writer.destroy();
+		assertEquals(10L, this.repository.findOne("counter.foo").getValue().longValue());
+		assertEquals(2, delegate.writes);
+	}
+
+	@Test
+	public void updatesAreDroppedWhenFull() throws Exception {
+		BlockingMetricWriter delegate = new BlockingMetricWriter(this.repository);
+		AsyncMetricWriter writer = new AsyncMetricWriter(delegate);
+		writer.setCapacity(1);
+		writer.set("gauge.block", 1.0);
+		assertTrue(delegate.blocked.await(5, TimeUnit.SECONDS));
+		writer.increment("counter.foo", 1);
+		writer.increment("counter.bar", 1);
+		assertEquals(1, writer.getDropped());
+		delegate.release.countDown();
+		writer.destroy();
+		assertEquals(1L, this.repository.findOne("counter.foo").getValue().longValue());
+		assertNull(this.repository.findOne("counter.bar"));
+	}
+
+	@Test
+	public void failuresDoNotStopWriter() throws Exception {
+		AsyncMetricWriter writer = new AsyncMetricWriter(new InMemoryMetricRepository() {
+			@Override
+			public void set(String metricName, double value) {
+				throw new IllegalStateException("Failed");
+			}
+		});
+		writer.set("gauge.foo", 1.0);
+		writer.increment("counter.foo", 1);
+		writer.destroy();
+		assertEquals(0, writer.getPending());
+	}
+
+	@Test
+	public void updatesAreDroppedOnceDestroyed() throws Exception {
+		this.writer.destroy();
+		this.writer.increment("counter.foo", 1);
+		assertEquals(1, this.writer.getDropped());
+		assertNull(this.repository.findOne("counter.foo"));
+	}
+
+	@Test
+	public void destroyDoesNotWaitForHungDelegate() throws Exception {
+		BlockingMetricWriter delegate = new BlockingMetricWriter(this.repository);
+		AsyncMetricWriter writer = new AsyncMetricWriter(delegate);
+		writer.setShutdownTimeout(100);
+		writer.set("gauge.block", 1.0);
+		assertTrue(delegate.blocked.await(5, TimeUnit.SECONDS));
+		writer.increment("counter.foo", 1);
+		writer.increment("counter.bar", 1);
+		try {
+			writer.destroy();
+			assertEquals(2, writer.getDropped());
+			assertEquals(0, writer.getPending());
+			assertNull(this.repository.findOne("counter.foo"));
+		}
+		finally {
+			delegate.release.countDown();
+		}
+	}
+
+	/**
+	 * {@link MetricWriter} that blocks on the first write until released.
+	 */
+	private static class BlockingMetricWriter implements MetricWriter {
+
+		private final MetricWriter delegate;
+
+		private final CountDownLatch blocked = new CountDownLatch(1);
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private volatile int writes;
+
+		public BlockingMetricWriter(MetricWriter delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void increment(Delta<?> delta) {
+			this.writes++;
+			this.delegate.increment(delta);
+		}
+
+		@Override
+		public void set(Metric<?> value) {
+			this.writes++;
+			this.blocked.countDown();
+			try {
+				this.release.await();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			this.delegate.set(value);
+		}
+
+		@Override
+		public void reset(String metricName) {
+			this.delegate.reset(metricName);
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 /**
  * Tests for {@link DefaultCounterService}.
@@ -61,4 +62,15 @@ public class DefaultCounterServiceTests {
 		this.service.reset("foo");
 		verify(this.repository).reset("counter.foo");
 	}
+
+	@Test
+	public void incrementCounterWriter() {
+		CounterWriter writer = mock(CounterWriter.class);
+		DefaultCounterService service = new DefaultCounterService(writer);
+		service.increment("foo");
+		service.decrement("counter.bar");
+		verify(writer).increment("counter.foo", 1L);
+		verify(writer).increment("counter.bar", -1L);
+		verifyNoMoreInteractions(writer);
+	}
 }
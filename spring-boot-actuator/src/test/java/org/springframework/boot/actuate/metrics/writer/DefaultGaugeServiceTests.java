@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import org.springframework.boot.actuate.metrics.Metric;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 /**
  * Tests for {@link DefaultGaugeService}.
@@ -43,4 +44,15 @@ public class DefaultGaugeServiceTests {
 		assertEquals(2.3, captor.getValue().getValue());
 	}
 
+	@Test
+	public void setGaugeWriter() {
+		GaugeWriter writer = mock(GaugeWriter.class);
+		DefaultGaugeService service = new DefaultGaugeService(writer);
+		service.submit("foo", 2.3);
+		service.submit("timer.bar", 1.0);
+		verify(writer).set("gauge.foo", 2.3);
+		verify(writer).set("timer.bar", 1.0);
+		verifyNoMoreInteractions(writer);
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.boot.actuate.trace;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -27,6 +28,7 @@ import static org.junit.Assert.assertEquals;
  * Tests for {@link InMemoryTraceRepository}.
  *
  * @author Dave Syer
+ * @author Phillip Webb
  */
 public class InMemoryTraceRepositoryTests {
 
@@ -43,4 +45,72 @@ public class InMemoryTraceRepositoryTests {
 		assertEquals("bar", traces.get(1).getInfo().get("bar"));
 	}
 
+	@Test
+	public void oldestFirstAfterWrapping() {
+		this.repository.setCapacity(3);
+		for (int i = 0; i < 10; i++) {
+			this.repository.add(Collections.<String, Object> singletonMap("i", i));
+		}
+		assertEquals(list(7, 8, 9), getValues(this.repository.findAll()));
+	}
+
+	@Test
+	public void findAllReturnsSnapshot() {
+		this.repository.add(Collections.<String, Object> singletonMap("i", 0));
+		List<Trace> traces = this.repository.findAll();
+		this.repository.add(Collections.<String, Object> singletonMap("i", 1));
+		assertEquals(1, traces.size());
+		assertEquals(2, this.repository.findAll().size());
+	}
+
+	@Test
+	public void changeCapacityKeepsNewestTraces() {
+		for (int i = 0; i < 5; i++) {
+			this.repository.add(Collections.<String, Object> singletonMap("i", i));
+		}
+		this.repository.setCapacity(2);
+		assertEquals(list(3, 4), getValues(this.repository.findAll()));
+		this.repository.setCapacity(4);
+		this.repository.add(Collections.<String, Object> singletonMap("i", 5));
+		assertEquals(list(3, 4, 5), getValues(this.repository.findAll()));
+	}
+
+	@Test
+	public void concurrentAdd() throws Exception {
+		this.repository.setCapacity(1000);
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 10000; i++) {
+						InMemoryTraceRepositoryTests.this.repository.add(Collections
+								.<String, Object> singletonMap("i", i));
+					}
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(1000, this.repository.findAll().size());
+	}
+
+	private List<Object> getValues(List<Trace> traces) {
+		List<Object> values = new ArrayList<Object>();
+		for (Trace trace : traces) {
+			values.add(trace.getInfo().get("i"));
+		}
+		return values;
+	}
+
+	private List<Object> list(Object... values) {
+		List<Object> list = new ArrayList<Object>();
+		Collections.addAll(list, values);
+		return list;
+	}
+
 }
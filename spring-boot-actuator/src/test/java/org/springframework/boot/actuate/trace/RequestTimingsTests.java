@@ -0,0 +1,133 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.trace;
+
+import java.io.PrintWriter;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link RequestTimings}.
+ *
+ * @author Phillip Webb
+ */
+public class RequestTimingsTests {
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest("GET",
+			"/foo");
+
+	@Test
+	public void startIsSharedByRequest() {
+		assertNull(RequestTimings.get(this.request));
+		RequestTimings timings = RequestTimings.start(this.request);
+		assertSame(timings, RequestTimings.start(this.request));
+		assertSame(timings, RequestTimings.get(this.request));
+	}
+
+	@Test
+	public void wrapsResponseOnce() {
+		RequestTimings timings = RequestTimings.start(this.request);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpServletResponse wrapped = timings.wrap(response);
+		assertNotSame(response, wrapped);
+		assertSame(wrapped, timings.wrap(wrapped));
+	}
+
+	@Test
+	public void recordsTimeToFirstByte() throws Exception {
+		RequestTimings timings = RequestTimings.start(this.request);
+		MockHttpServletResponse mockResponse = new MockHttpServletResponse();
+		HttpServletResponse response = timings.wrap(mockResponse);
+		assertEquals(-1, timings.getTimeToFirstByte());
+		PrintWriter writer = response.getWriter();
+		assertSame(writer, response.getWriter());
+		writer.write("");
+		assertEquals(-1, timings.getTimeToFirstByte());
+		writer.write("foo");
+		long timeToFirstByte = timings.getTimeToFirstByte();
+		assertTrue(timeToFirstByte >= 0);
+		response.flushBuffer();
+		assertEquals(timeToFirstByte, timings.getTimeToFirstByte());
+		assertTrue(timings.getTotalTime() >= timeToFirstByte);
+		writer.flush();
+		assertEquals("foo", mockResponse.getContentAsString());
+	}
+
+	@Test
+	public void recordsTimeToFirstByteFromOutputStream() throws Exception {
+		RequestTimings timings = RequestTimings.start(this.request);
+		HttpServletResponse response = timings.wrap(new MockHttpServletResponse());
+		ServletOutputStream outputStream = response.getOutputStream();
+		assertSame(outputStream, response.getOutputStream());
+		outputStream.write(new byte[0]);
+		assertEquals(-1, timings.getTimeToFirstByte());
+		outputStream.write(new byte[] { 1, 2, 3 });
+		assertTrue(timings.getTimeToFirstByte() >= 0);
+	}
+
+	@Test
+	public void recordsTimeToFirstByteWhenFlushed() throws Exception {
+		RequestTimings timings = RequestTimings.start(this.request);
+		HttpServletResponse response = timings.wrap(new MockHttpServletResponse());
+		response.getWriter();
+		assertEquals(-1, timings.getTimeToFirstByte());
+		response.flushBuffer();
+		assertTrue(timings.getTimeToFirstByte() >= 0);
+	}
+
+	@Test
+	public void recordsHandlerTime() throws Exception {
+		RequestTimings timings = RequestTimings.start(this.request);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		RequestTimingsInterceptor interceptor = new RequestTimingsInterceptor();
+		assertEquals(-1, timings.getHandlerTime());
+		interceptor.preHandle(this.request, response, this);
+		interceptor.afterCompletion(this.request, response, this, null);
+		assertTrue(timings.getHandlerTime() >= 0);
+		Map<String, Object> map = timings.toMap();
+		assertTrue(map.containsKey("total"));
+		assertTrue(map.containsKey("handler"));
+		assertTrue(map.containsKey("filters"));
+	}
+
+	@Test
+	public void interceptorWithoutTimings() throws Exception {
+		RequestTimingsInterceptor interceptor = new RequestTimingsInterceptor();
+		assertTrue(interceptor.preHandle(this.request, new MockHttpServletResponse(),
+				this));
+	}
+
+	@Test
+	public void toMapOnlyIncludesRecordedTimings() {
+		Map<String, Object> map = RequestTimings.start(this.request).toMap();
+		assertEquals(1, map.size());
+		assertTrue(map.containsKey("total"));
+	}
+
+}
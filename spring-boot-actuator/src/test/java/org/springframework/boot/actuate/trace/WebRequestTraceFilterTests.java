@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,24 +16,37 @@
 
 package org.springframework.boot.actuate.trace;
 
+import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
 
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
 import org.junit.Test;
 import org.springframework.boot.autoconfigure.web.DefaultErrorAttributes;
+import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for {@link WebRequestTraceFilter}.
  *
  * @author Dave Syer
+ * @author Phillip Webb
  */
 public class WebRequestTraceFilterTests {
 
+	private final InMemoryTraceRepository repository = new InMemoryTraceRepository();
+
 	private final WebRequestTraceFilter filter = new WebRequestTraceFilter(
-			new InMemoryTraceRepository());
+			this.repository);
 
 	@Test
 	public void filterDumpsRequest() {
@@ -90,4 +103,71 @@ public class WebRequestTraceFilterTests {
 		System.err.println(map);
 		assertEquals("Foo", map.get("message").toString());
 	}
+
+	@Test
+	public void filterAddsTrace() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.addHeader("Accept", "application/json");
+		this.filter.doFilter(request, new MockHttpServletResponse(),
+				new MockFilterChain());
+		assertEquals(1, this.repository.findAll().size());
+		Map<String, Object> trace = this.repository.findAll().get(0).getInfo();
+		assertEquals("{request={Accept=application/json}, response={status=200}}",
+				trace.get("headers").toString());
+		assertTrue(((Map<?, ?>) trace.get("timing")).containsKey("total"));
+	}
+
+	@Test
+	public void sampleRateZeroSkipsTrace() throws Exception {
+		this.filter.setSampleRate(0);
+		this.filter.doFilter(new MockHttpServletRequest("GET", "/foo"),
+				new MockHttpServletResponse(), new MockFilterChain());
+		assertEquals(0, this.repository.findAll().size());
+	}
+
+	@Test
+	public void pathSampleRate() throws Exception {
+		this.filter.setSampleRate(0);
+		this.filter.setPathSampleRates(Collections.singletonMap("/foo/**", 1.0));
+		this.filter.doFilter(new MockHttpServletRequest("GET", "/foo/bar"),
+				new MockHttpServletResponse(), new MockFilterChain());
+		this.filter.doFilter(new MockHttpServletRequest("GET", "/bar"),
+				new MockHttpServletResponse(), new MockFilterChain());
+		assertEquals(1, this.repository.findAll().size());
+		assertEquals("/foo/bar", this.repository.findAll().get(0).getInfo().get("path"));
+	}
+
+	@Test
+	public void serverErrorIsAlwaysTraced() throws Exception {
+		this.filter.setSampleRate(0);
+		this.filter.doFilter(new MockHttpServletRequest("GET", "/foo"),
+				new MockHttpServletResponse(), new StatusFilterChain(500));
+		assertEquals(1, this.repository.findAll().size());
+	}
+
+	@Test
+	public void serverErrorNotTracedWhenTraceErrorsIsFalse() throws Exception {
+		this.filter.setSampleRate(0);
+		this.filter.setTraceErrors(false);
+		this.filter.doFilter(new MockHttpServletRequest("GET", "/foo"),
+				new MockHttpServletResponse(), new StatusFilterChain(500));
+		assertEquals(0, this.repository.findAll().size());
+	}
+
+	private static class StatusFilterChain implements FilterChain {
+
+		private final int status;
+
+		public StatusFilterChain(int status) {
+			this.status = status;
+		}
+
+		@Override
+		public void doFilter(ServletRequest request, ServletResponse response)
+				throws IOException, ServletException {
+			((HttpServletResponse) response).setStatus(this.status);
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
 import org.springframework.core.Ordered;
@@ -41,7 +42,8 @@ import org.springframework.util.Assert;
 /**
  * Sort {@link EnableAutoConfiguration auto-configuration} classes into priority order by
  * reading {@link Ordered}, {@link AutoConfigureBefore} and {@link AutoConfigureAfter}
- * annotations (without loading classes).
+ * annotations (without loading classes). Annotations are read from the
+ * {@link AutoConfigurationMetadata} where possible and from class files otherwise.
  *
  * @author Phillip Webb
  */
@@ -49,16 +51,27 @@ class AutoConfigurationSorter {
 
 	private final CachingMetadataReaderFactory metadataReaderFactory;
 
+	private final AutoConfigurationMetadata autoConfigurationMetadata;
+
 	public AutoConfigurationSorter(ResourceLoader resourceLoader) {
+		this(resourceLoader, AutoConfigurationMetadataLoader
+				.loadMetadata(new Properties()));
+	}
+
+	public AutoConfigurationSorter(ResourceLoader resourceLoader,
+			AutoConfigurationMetadata autoConfigurationMetadata) {
 		Assert.notNull(resourceLoader, "ResourceLoader must not be null");
+		Assert.notNull(autoConfigurationMetadata,
+				"AutoConfigurationMetadata must not be null");
 		this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+		this.autoConfigurationMetadata = autoConfigurationMetadata;
 	}
 
 	public List<String> getInPriorityOrder(Collection<String> classNames)
 			throws IOException {
 
 		final AutoConfigurationClasses classes = new AutoConfigurationClasses(
-				this.metadataReaderFactory, classNames);
+				this.metadataReaderFactory, this.autoConfigurationMetadata, classNames);
 
 		List<String> orderedClassNames = new ArrayList<String>(classNames);
 
@@ -116,11 +129,11 @@ class AutoConfigurationSorter {
 		private final Map<String, AutoConfigurationClass> classes = new HashMap<String, AutoConfigurationClass>();
 
 		public AutoConfigurationClasses(MetadataReaderFactory metadataReaderFactory,
+				AutoConfigurationMetadata autoConfigurationMetadata,
 				Collection<String> classNames) throws IOException {
 			for (String className : classNames) {
-				MetadataReader metadataReader = metadataReaderFactory
-						.getMetadataReader(className);
-				this.classes.put(className, new AutoConfigurationClass(metadataReader));
+				this.classes.put(className, new AutoConfigurationClass(className,
+						metadataReaderFactory, autoConfigurationMetadata));
 			}
 		}
 
@@ -143,36 +156,88 @@ class AutoConfigurationSorter {
 
 	private static class AutoConfigurationClass {
 
-		private final AnnotationMetadata metadata;
+		private final String className;
+
+		private final MetadataReaderFactory metadataReaderFactory;
+
+		private final AutoConfigurationMetadata autoConfigurationMetadata;
 
-		public AutoConfigurationClass(MetadataReader metadataReader) {
-			this.metadata = metadataReader.getAnnotationMetadata();
+		private AnnotationMetadata annotationMetadata;
+
+		private Set<String> before;
+
+		private Set<String> after;
+
+		public AutoConfigurationClass(String className,
+				MetadataReaderFactory metadataReaderFactory,
+				AutoConfigurationMetadata autoConfigurationMetadata) {
+			this.className = className;
+			this.metadataReaderFactory = metadataReaderFactory;
+			this.autoConfigurationMetadata = autoConfigurationMetadata;
 		}
 
 		public int getOrder() {
-			Map<String, Object> orderedAnnotation = this.metadata
+			if (wasProcessed()) {
+				Integer order = this.autoConfigurationMetadata.getInteger(
+						this.className, "Order");
+				return (order == null ? Ordered.LOWEST_PRECEDENCE : order);
+			}
+			Map<String, Object> orderedAnnotation = getAnnotationMetadata()
 					.getAnnotationAttributes(Order.class.getName());
 			return (orderedAnnotation == null ? Ordered.LOWEST_PRECEDENCE
 					: (Integer) orderedAnnotation.get("value"));
 		}
 
 		public Set<String> getBefore() {
-			return getAnnotationValue(AutoConfigureBefore.class);
+			if (this.before == null) {
+				this.before = (wasProcessed() ? getSet("AutoConfigureBefore")
+						: getAnnotationValue(AutoConfigureBefore.class));
+			}
+			return this.before;
 		}
 
 		public Set<String> getAfter() {
-			return getAnnotationValue(AutoConfigureAfter.class);
+			if (this.after == null) {
+				this.after = (wasProcessed() ? getSet("AutoConfigureAfter")
+						: getAnnotationValue(AutoConfigureAfter.class));
+			}
+			return this.after;
+		}
+
+		private boolean wasProcessed() {
+			return this.autoConfigurationMetadata.wasProcessed(this.className);
+		}
+
+		private Set<String> getSet(String key) {
+			Set<String> value = this.autoConfigurationMetadata.getSet(this.className,
+					key);
+			return (value == null ? Collections.<String> emptySet() : value);
 		}
 
 		private Set<String> getAnnotationValue(Class<?> annotation) {
-			Map<String, Object> attributes = this.metadata.getAnnotationAttributes(
-					annotation.getName(), true);
+			Map<String, Object> attributes = getAnnotationMetadata()
+					.getAnnotationAttributes(annotation.getName(), true);
 			if (attributes == null) {
 				return Collections.emptySet();
 			}
 			return new HashSet<String>(Arrays.asList((String[]) attributes.get("value")));
 		}
 
+		private AnnotationMetadata getAnnotationMetadata() {
+			if (this.annotationMetadata == null) {
+				try {
+					MetadataReader metadataReader = this.metadataReaderFactory
+							.getMetadataReader(this.className);
+					this.annotationMetadata = metadataReader.getAnnotationMetadata();
+				}
+				catch (IOException ex) {
+					throw new IllegalStateException("Unable to read meta-data for class "
+							+ this.className, ex);
+				}
+			}
+			return this.annotationMetadata;
+		}
+
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,7 +22,11 @@ import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.Aware;
 import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.DeferredImportSelector;
 import org.springframework.core.Ordered;
@@ -32,6 +36,7 @@ import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.SpringFactoriesLoader;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 /**
  * {@link DeferredImportSelector} to handle {@link EnableAutoConfiguration
@@ -43,10 +48,12 @@ import org.springframework.util.Assert;
  */
 @Order(Ordered.LOWEST_PRECEDENCE)
 class EnableAutoConfigurationImportSelector implements DeferredImportSelector,
-		BeanClassLoaderAware, ResourceLoaderAware {
+		BeanClassLoaderAware, ResourceLoaderAware, BeanFactoryAware {
 
 	private ClassLoader beanClassLoader;
 
+	private BeanFactory beanFactory;
+
 	private ResourceLoader resourceLoader;
 
 	@Override
@@ -68,9 +75,14 @@ class EnableAutoConfigurationImportSelector implements DeferredImportSelector,
 			// Remove those specifically disabled
 			factories.removeAll(Arrays.asList(attributes.getStringArray("exclude")));
 
+			// Remove those that cannot match, using the meta-data index where possible
+			AutoConfigurationMetadata autoConfigurationMetadata = AutoConfigurationMetadataLoader
+					.loadMetadata(this.beanClassLoader);
+			factories = filter(factories, autoConfigurationMetadata);
+
 			// Sort
-			factories = new AutoConfigurationSorter(this.resourceLoader)
-					.getInPriorityOrder(factories);
+			factories = new AutoConfigurationSorter(this.resourceLoader,
+					autoConfigurationMetadata).getInPriorityOrder(factories);
 
 			return factories.toArray(new String[factories.size()]);
 		}
@@ -79,6 +91,66 @@ class EnableAutoConfigurationImportSelector implements DeferredImportSelector,
 		}
 	}
 
+	private List<String> filter(List<String> configurations,
+			AutoConfigurationMetadata autoConfigurationMetadata) {
+		String[] candidates = configurations.toArray(new String[configurations.size()]);
+		boolean[] skip = new boolean[candidates.length];
+		boolean skipped = false;
+		for (AutoConfigurationImportFilter filter : getAutoConfigurationImportFilters()) {
+			invokeAwareMethods(filter);
+			boolean[] match = filter.match(candidates, autoConfigurationMetadata);
+			for (int i = 0; i < match.length; i++) {
+				if (!match[i]) {
+					skip[i] = true;
+					skipped = true;
+				}
+			}
+		}
+		if (!skipped) {
+			return configurations;
+		}
+		List<String> result = new ArrayList<String>(candidates.length);
+		for (int i = 0; i < candidates.length; i++) {
+			if (!skip[i]) {
+				result.add(candidates[i]);
+			}
+		}
+		return result;
+	}
+
+	protected List<AutoConfigurationImportFilter> getAutoConfigurationImportFilters() {
+		List<String> names = SpringFactoriesLoader.loadFactoryNames(
+				AutoConfigurationImportFilter.class, this.beanClassLoader);
+		List<AutoConfigurationImportFilter> filters = new ArrayList<AutoConfigurationImportFilter>(
+				names.size());
+		for (String name : names) {
+			try {
+				Class<?> filterClass = ClassUtils.forName(name, this.beanClassLoader);
+				Assert.isAssignable(AutoConfigurationImportFilter.class, filterClass);
+				filters.add((AutoConfigurationImportFilter) BeanUtils
+						.instantiateClass(filterClass));
+			}
+			catch (ClassNotFoundException ex) {
+				throw new IllegalArgumentException(
+						"Unable to instantiate AutoConfigurationImportFilter [" + name
+								+ "]", ex);
+			}
+		}
+		return filters;
+	}
+
+	private void invokeAwareMethods(Object instance) {
+		if (instance instanceof Aware) {
+			if (instance instanceof BeanClassLoaderAware) {
+				((BeanClassLoaderAware) instance)
+						.setBeanClassLoader(this.beanClassLoader);
+			}
+			if (instance instanceof BeanFactoryAware) {
+				((BeanFactoryAware) instance).setBeanFactory(this.beanFactory);
+			}
+		}
+	}
+
 	@Override
 	public void setBeanClassLoader(ClassLoader classLoader) {
 		this.beanClassLoader = classLoader;
@@ -89,4 +161,9 @@ class EnableAutoConfigurationImportSelector implements DeferredImportSelector,
 		this.resourceLoader = resourceLoader;
 	}
 
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
 }
@@ -26,6 +26,7 @@ import java.util.TreeMap;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.ClassPresenceCache;
 import org.springframework.context.annotation.Condition;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
@@ -45,6 +46,10 @@ public class ConditionEvaluationReport {
 
 	private ConditionEvaluationReport parent;
 
+	private ClassPresenceCache classPresenceCache;
+
+	private ClassPresenceCache.Statistics initialClassPresenceStatistics;
+
 	/**
 	 * Private constructor.
 	 * @see #get(ConfigurableListableBeanFactory)
@@ -85,6 +90,23 @@ public class ConditionEvaluationReport {
 		return this.parent;
 	}
 
+	/**
+	 * Returns statistics for the {@link ClassPresenceCache} of the bean class loader,
+	 * covering the class presence checks made since this report was created. The
+	 * statistics show how many checks were made while conditions were evaluated and how
+	 * many of them were answered without loading a class. The cache is shared by
+	 * everything that uses the same class loader so concurrent checks from elsewhere
+	 * are included.
+	 * @return the class presence statistics (or null if they aren't available)
+	 */
+	public ClassPresenceCache.Statistics getClassPresenceStatistics() {
+		if (this.classPresenceCache == null) {
+			return null;
+		}
+		return this.classPresenceCache.getStatistics().since(
+				this.initialClassPresenceStatistics);
+	}
+
 	/**
 	 * Obtain a {@link ConditionEvaluationReport} for the specified bean factory.
 	 * @param beanFactory the bean factory
@@ -99,6 +121,10 @@ public class ConditionEvaluationReport {
 			}
 			else {
 				report = new ConditionEvaluationReport();
+				report.classPresenceCache = ClassPresenceCache.get(beanFactory
+						.getBeanClassLoader());
+				report.initialClassPresenceStatistics = report.classPresenceCache
+						.getStatistics();
 				beanFactory.registerSingleton(BEAN_NAME, report);
 			}
 			locateParent(beanFactory.getParentBeanFactory(), report);
@@ -20,7 +20,16 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.ClassPresenceCache;
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
 import org.springframework.context.annotation.Condition;
 import org.springframework.context.annotation.ConditionContext;
 import org.springframework.core.Ordered;
@@ -31,14 +40,135 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
 
 /**
- * {@link Condition} that checks for the presence or absence of specific classes.
+ * {@link Condition} that checks for the presence or absence of specific classes. Also
+ * used as an {@link AutoConfigurationImportFilter} to remove auto-configuration
+ * candidates whose {@link ConditionalOnClass @ConditionalOnClass} classes are missing
+ * using only the {@link AutoConfigurationMetadata}, before any of their class files are
+ * read.
  *
  * @author Phillip Webb
  * @see ConditionalOnClass
  * @see ConditionalOnMissingClass
  */
 @Order(Ordered.HIGHEST_PRECEDENCE)
-class OnClassCondition extends SpringBootCondition {
+class OnClassCondition extends SpringBootCondition implements
+		AutoConfigurationImportFilter, BeanFactoryAware, BeanClassLoaderAware {
+
+	private BeanFactory beanFactory;
+
+	private ClassLoader beanClassLoader;
+
+	@Override
+	public boolean[] match(String[] autoConfigurationClasses,
+			AutoConfigurationMetadata autoConfigurationMetadata) {
+		ConditionOutcome[] outcomes = getOutcomes(autoConfigurationClasses,
+				autoConfigurationMetadata);
+		ConditionEvaluationReport report = getConditionEvaluationReport();
+		boolean[] match = new boolean[outcomes.length];
+		for (int i = 0; i < outcomes.length; i++) {
+			match[i] = (outcomes[i] == null);
+			if (!match[i] && report != null) {
+				report.recordConditionEvaluation(autoConfigurationClasses[i], this,
+						outcomes[i]);
+			}
+		}
+		return match;
+	}
+
+	private ConditionOutcome[] getOutcomes(final String[] autoConfigurationClasses,
+			final AutoConfigurationMetadata autoConfigurationMetadata) {
+		final ConditionOutcome[] outcomes = new ConditionOutcome[autoConfigurationClasses.length];
+		final int split = autoConfigurationClasses.length / 2;
+		if (split == 0 || Runtime.getRuntime().availableProcessors() < 2) {
+			resolveOutcomes(autoConfigurationClasses, 0, outcomes.length,
+					autoConfigurationMetadata, outcomes);
+			return outcomes;
+		}
+		// The checks are independent so resolve the first half on another thread.
+		// Each thread writes to its own range of the array and the join publishes the
+		// results of the other thread
+		final Throwable[] failure = new Throwable[1];
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					resolveOutcomes(autoConfigurationClasses, 0, split,
+							autoConfigurationMetadata, outcomes);
+				}
+				catch (Throwable ex) {
+					failure[0] = ex;
+				}
+			}
+		}, "auto-configuration-filter");
+		thread.setDaemon(true);
+		thread.start();
+		resolveOutcomes(autoConfigurationClasses, split, outcomes.length,
+				autoConfigurationMetadata, outcomes);
+		try {
+			thread.join();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while filtering "
+					+ "auto-configuration classes", ex);
+		}
+		if (failure[0] != null) {
+			throw new IllegalStateException("Unable to filter auto-configuration "
+					+ "classes", failure[0]);
+		}
+		return outcomes;
+	}
+
+	private void resolveOutcomes(String[] autoConfigurationClasses, int start, int end,
+			AutoConfigurationMetadata autoConfigurationMetadata,
+			ConditionOutcome[] outcomes) {
+		for (int i = start; i < end; i++) {
+			Set<String> candidates = autoConfigurationMetadata.getSet(
+					autoConfigurationClasses[i], "ConditionalOnClass");
+			List<String> missing = getMissingClasses(candidates);
+			if (!missing.isEmpty()) {
+				outcomes[i] = ConditionOutcome.noMatch("required @ConditionalOnClass "
+						+ "classes not found: "
+						+ StringUtils.collectionToCommaDelimitedString(missing));
+			}
+		}
+	}
+
+	private List<String> getMissingClasses(Set<String> candidates) {
+		if (candidates == null) {
+			return Collections.emptyList();
+		}
+		List<String> missing = new LinkedList<String>();
+		ClassLoader classLoader = (this.beanClassLoader != null ? this.beanClassLoader
+				: ClassUtils.getDefaultClassLoader());
+		for (String candidate : candidates) {
+			// Only look for the class file so that nothing is loaded or initialized
+			String resourceName = ClassUtils.convertClassNameToResourcePath(candidate)
+					+ ClassUtils.CLASS_FILE_SUFFIX;
+			if (classLoader.getResource(resourceName) == null) {
+				missing.add(candidate);
+			}
+		}
+		return missing;
+	}
+
+	private ConditionEvaluationReport getConditionEvaluationReport() {
+		if (this.beanFactory instanceof ConfigurableListableBeanFactory) {
+			return ConditionEvaluationReport
+					.get((ConfigurableListableBeanFactory) this.beanFactory);
+		}
+		return null;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		this.beanClassLoader = classLoader;
+	}
 
 	@Override
 	public ConditionOutcome getMatchOutcome(ConditionContext context,
@@ -112,14 +242,15 @@ class OnClassCondition extends SpringBootCondition {
 		PRESENT {
 			@Override
 			public boolean matches(String className, ConditionContext context) {
-				return ClassUtils.isPresent(className, context.getClassLoader());
+				return ClassPresenceCache.isPresent(className, context.getClassLoader());
 			}
 		},
 
 		MISSING {
 			@Override
 			public boolean matches(String className, ConditionContext context) {
-				return !ClassUtils.isPresent(className, context.getClassLoader());
+				return !ClassPresenceCache.isPresent(className,
+						context.getClassLoader());
 			}
 		};
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -109,13 +109,14 @@ public class AutoConfigurationReportLoggingInitializer implements
 						+ "debug logging (start with --debug)\n\n");
 			}
 			if (this.logger.isDebugEnabled()) {
-				this.logger.debug(getLogMessage(this.report
-						.getConditionAndOutcomesBySource()));
+				this.logger.debug(getLogMessage(this.report));
 			}
 		}
 	}
 
-	private StringBuilder getLogMessage(Map<String, ConditionAndOutcomes> outcomes) {
+	private StringBuilder getLogMessage(ConditionEvaluationReport report) {
+		Map<String, ConditionAndOutcomes> outcomes = report
+				.getConditionAndOutcomesBySource();
 		StringBuilder message = new StringBuilder();
 		message.append("\n\n\n");
 		message.append("=========================\n");
@@ -138,6 +139,11 @@ public class AutoConfigurationReportLoggingInitializer implements
 			}
 		}
 		message.append("\n\n");
+		if (report.getClassPresenceStatistics() != null) {
+			message.append("Class presence checks:\n");
+			message.append("----------------------\n\n");
+			message.append("   " + report.getClassPresenceStatistics() + "\n\n\n");
+		}
 		return message;
 	}
 
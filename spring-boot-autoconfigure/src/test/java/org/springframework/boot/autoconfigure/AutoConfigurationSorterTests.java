@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.boot.autoconfigure;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Properties;
 
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
@@ -115,6 +116,39 @@ public class AutoConfigurationSorterTests {
 		this.sorter.getInPriorityOrder(Arrays.asList(A, B, C, D));
 	}
 
+	@Test
+	public void byAutoConfigurationMetadata() throws Exception {
+		// The classes don't exist so can only be sorted using the meta-data
+		Properties properties = new Properties();
+		properties.put("test.Lowest", "");
+		properties.put("test.Highest", "");
+		properties.put("test.Highest.Order", String.valueOf(Ordered.HIGHEST_PRECEDENCE));
+		properties.put("test.A", "");
+		properties.put("test.A.AutoConfigureAfter", "test.B");
+		properties.put("test.B", "");
+		properties.put("test.B.AutoConfigureBefore", "test.Lowest");
+		this.sorter = new AutoConfigurationSorter(new DefaultResourceLoader(),
+				AutoConfigurationMetadataLoader.loadMetadata(properties));
+		List<String> actual = this.sorter.getInPriorityOrder(Arrays.asList(
+				"test.Lowest", "test.A", "test.Highest", "test.B"));
+		assertThat(actual, nameMatcher("test.Highest", "test.B", "test.A",
+				"test.Lowest"));
+	}
+
+	@Test
+	public void byAutoConfigurationMetadataWithEmptyOrder() throws Exception {
+		Properties properties = new Properties();
+		properties.put("test.Lowest", "");
+		properties.put("test.Lowest.Order", "");
+		properties.put("test.Highest", "");
+		properties.put("test.Highest.Order", String.valueOf(Ordered.HIGHEST_PRECEDENCE));
+		this.sorter = new AutoConfigurationSorter(new DefaultResourceLoader(),
+				AutoConfigurationMetadataLoader.loadMetadata(properties));
+		List<String> actual = this.sorter.getInPriorityOrder(Arrays.asList(
+				"test.Lowest", "test.Highest"));
+		assertThat(actual, nameMatcher("test.Highest", "test.Lowest"));
+	}
+
 	private Matcher<? super List<String>> nameMatcher(String... names) {
 
 		final List<String> list = Arrays.asList(names);
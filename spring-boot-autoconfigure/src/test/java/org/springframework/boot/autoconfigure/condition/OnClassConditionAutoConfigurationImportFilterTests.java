@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.condition;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link AutoConfigurationImportFilter} part of {@link OnClassCondition}.
+ *
+ * @author Phillip Webb
+ */
+public class OnClassConditionAutoConfigurationImportFilterTests {
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+	private final OnClassCondition filter = new OnClassCondition();
+
+	@Test
+	public void matchWhenClassesArePresentOrNotIndexed() {
+		this.filter.setBeanFactory(this.beanFactory);
+		boolean[] match = this.filter.match(new String[] { "test.match", "test.other" },
+				new TestAutoConfigurationMetadata());
+		assertTrue(match[0]);
+		assertTrue(match[1]);
+		assertTrue(getReport().getConditionAndOutcomesBySource().isEmpty());
+	}
+
+	@Test
+	public void noMatchWhenClassIsMissingIsRecorded() {
+		this.filter.setBeanFactory(this.beanFactory);
+		boolean[] match = this.filter.match(new String[] { "test.match",
+				"test.nomatch" }, new TestAutoConfigurationMetadata());
+		assertTrue(match[0]);
+		assertFalse(match[1]);
+		assertFalse(getReport().getConditionAndOutcomesBySource().get("test.nomatch")
+				.isFullMatch());
+	}
+
+	@Test
+	public void outcomesAreInCandidateOrder() {
+		String[] candidates = new String[101];
+		for (int i = 0; i < candidates.length; i++) {
+			candidates[i] = (i % 3 == 0 ? "test.nomatch" : "test.match");
+		}
+		boolean[] match = this.filter.match(candidates,
+				new TestAutoConfigurationMetadata());
+		assertEquals(candidates.length, match.length);
+		for (int i = 0; i < candidates.length; i++) {
+			assertEquals(i % 3 != 0, match[i]);
+		}
+	}
+
+	private ConditionEvaluationReport getReport() {
+		return ConditionEvaluationReport.get(this.beanFactory);
+	}
+
+	private static class TestAutoConfigurationMetadata implements
+			AutoConfigurationMetadata {
+
+		@Override
+		public boolean wasProcessed(String className) {
+			return true;
+		}
+
+		@Override
+		public String get(String className, String key) {
+			return null;
+		}
+
+		@Override
+		public Set<String> getSet(String className, String key) {
+			if ("test.match".equals(className)) {
+				return new LinkedHashSet<String>(Arrays.asList(String.class.getName()));
+			}
+			if ("test.nomatch".equals(className)) {
+				return new LinkedHashSet<String>(Arrays.asList(String.class.getName(),
+						"com.example.DoesNotExist"));
+			}
+			return null;
+		}
+
+		@Override
+		public Integer getInteger(String className, String key) {
+			return null;
+		}
+
+	}
+
+}
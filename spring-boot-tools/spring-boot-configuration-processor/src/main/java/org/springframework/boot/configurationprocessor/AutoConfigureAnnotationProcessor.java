@@ -0,0 +1,207 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.configurationprocessor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation {@link Processor} that writes an index of the conditions and ordering
+ * annotations of {@code @Configuration} classes. The index allows auto-configuration
+ * candidates to be filtered and sorted at runtime without reading their class files.
+ * For each class the index contains an entry for the class name itself and, where the
+ * annotations are present, entries for the class names of {@code @ConditionalOnClass},
+ * {@code @AutoConfigureBefore} and {@code @AutoConfigureAfter} and the value of
+ * {@code @Order}.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+@SupportedAnnotationTypes({ AutoConfigureAnnotationProcessor.CONFIGURATION_ANNOTATION })
+public class AutoConfigureAnnotationProcessor extends AbstractProcessor {
+
+	static final String PROPERTIES_PATH = "META-INF/"
+			+ "spring-autoconfigure-metadata.properties";
+
+	static final String CONFIGURATION_ANNOTATION = "org.springframework.context."
+			+ "annotation.Configuration";
+
+	private final Map<String, String> annotations;
+
+	private final Map<String, String> properties = new TreeMap<String, String>();
+
+	public AutoConfigureAnnotationProcessor() {
+		Map<String, String> annotations = new LinkedHashMap<String, String>();
+		addAnnotations(annotations);
+		this.annotations = Collections.unmodifiableMap(annotations);
+	}
+
+	/**
+	 * Add the annotations that are included in the index, keyed by the suffix used for
+	 * their entries.
+	 * @param annotations the annotations to add to
+	 */
+	protected void addAnnotations(Map<String, String> annotations) {
+		annotations.put("ConditionalOnClass", "org.springframework.boot.autoconfigure."
+				+ "condition.ConditionalOnClass");
+		annotations.put("AutoConfigureBefore", "org.springframework.boot.autoconfigure."
+				+ "AutoConfigureBefore");
+		annotations.put("AutoConfigureAfter", "org.springframework.boot.autoconfigure."
+				+ "AutoConfigureAfter");
+		annotations.put("Order", "org.springframework.core.annotation.Order");
+	}
+
+	protected String configurationAnnotation() {
+		return CONFIGURATION_ANNOTATION;
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations,
+			RoundEnvironment roundEnv) {
+		Elements elementUtils = this.processingEnv.getElementUtils();
+		TypeElement configuration = elementUtils
+				.getTypeElement(configurationAnnotation());
+		if (configuration != null) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(configuration)) {
+				if (element instanceof TypeElement) {
+					processElement((TypeElement) element);
+				}
+			}
+		}
+		if (roundEnv.processingOver()) {
+			try {
+				writeProperties();
+			}
+			catch (IOException ex) {
+				this.processingEnv.getMessager().printMessage(Kind.ERROR,
+						"Failed to write auto-configuration metadata: " + ex);
+			}
+		}
+		return false;
+	}
+
+	private void processElement(TypeElement element) {
+		String className = getClassName(element);
+		this.properties.put(className, "");
+		for (Map.Entry<String, String> entry : this.annotations.entrySet()) {
+			AnnotationMirror annotation = getAnnotation(element, entry.getValue());
+			if (annotation != null) {
+				List<Object> values = getValues(annotation);
+				if (!values.isEmpty()) {
+					this.properties.put(className + "." + entry.getKey(), join(values));
+				}
+			}
+		}
+	}
+
+	private AnnotationMirror getAnnotation(Element element, String type) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (type.equals(annotation.getAnnotationType().toString())) {
+				return annotation;
+			}
+		}
+		return null;
+	}
+
+	private List<Object> getValues(AnnotationMirror annotation) {
+		List<Object> result = new ArrayList<Object>();
+		for (AnnotationValue value : annotation.getElementValues().values()) {
+			addValues(result, value.getValue());
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addValues(List<Object> result, Object value) {
+		if (value instanceof List) {
+			for (AnnotationValue item : (List<AnnotationValue>) value) {
+				addValues(result, item.getValue());
+			}
+		}
+		else if (value instanceof DeclaredType) {
+			Element element = ((DeclaredType) value).asElement();
+			result.add(element instanceof TypeElement ? getClassName((TypeElement) element)
+					: element.toString());
+		}
+		else {
+			result.add(value);
+		}
+	}
+
+	private String getClassName(TypeElement element) {
+		return this.processingEnv.getElementUtils().getBinaryName(element).toString();
+	}
+
+	private String join(List<Object> values) {
+		StringBuilder result = new StringBuilder();
+		for (Object value : values) {
+			result.append(result.length() == 0 ? "" : ",");
+			result.append(value);
+		}
+		return result.toString();
+	}
+
+	protected void writeProperties() throws IOException {
+		if (this.properties.isEmpty()) {
+			return;
+		}
+		FileObject resource = this.processingEnv.getFiler().createResource(
+				StandardLocation.CLASS_OUTPUT, "", PROPERTIES_PATH);
+		OutputStream outputStream = resource.openOutputStream();
+		try {
+			// Written in a stable order so that builds are reproducible
+			Writer writer = new OutputStreamWriter(outputStream, "ISO-8859-1");
+			for (Map.Entry<String, String> entry : this.properties.entrySet()) {
+				writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+			}
+			writer.flush();
+		}
+		finally {
+			outputStream.close();
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.configurationprocessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.configurationsample.autoconfigure.TestClassConfiguration;
+import org.springframework.boot.configurationsample.autoconfigure.TestDefaultOrderConfiguration;
+import org.springframework.boot.configurationsample.autoconfigure.TestPlainConfiguration;
+import org.springframework.boot.configurationsample.simple.NotAnnotated;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link AutoConfigureAnnotationProcessor}.
+ *
+ * @author Phillip Webb
+ */
+public class AutoConfigureAnnotationProcessorTests {
+
+	private static final String PACKAGE = "org.springframework.boot.configurationsample."
+			+ "autoconfigure.";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private TestCompiler compiler;
+
+	@Before
+	public void createCompiler() throws IOException {
+		this.compiler = new TestCompiler(this.temporaryFolder);
+	}
+
+	@Test
+	public void annotatedClass() throws Exception {
+		Properties properties = compile(TestClassConfiguration.class,
+				TestPlainConfiguration.class);
+		String name = PACKAGE + "TestClassConfiguration";
+		assertEquals("", properties.get(name));
+		assertEquals("java.lang.String,java.io.InputStream",
+				properties.get(name + ".ConditionalOnClass"));
+		assertEquals(PACKAGE + "TestPlainConfiguration",
+				properties.get(name + ".AutoConfigureBefore"));
+		assertEquals("java.lang.Integer," + name + "$Nested",
+				properties.get(name + ".AutoConfigureAfter"));
+		assertEquals("123", properties.get(name + ".Order"));
+		assertEquals("java.io.OutputStream",
+				properties.get(name + "$Nested.ConditionalOnClass"));
+	}
+
+	@Test
+	public void classWithoutConditions() throws Exception {
+		Properties properties = compile(TestPlainConfiguration.class);
+		assertEquals(1, properties.size());
+		assertEquals("", properties.get(PACKAGE + "TestPlainConfiguration"));
+	}
+
+	@Test
+	public void defaultOrder() throws Exception {
+		Properties properties = compile(TestDefaultOrderConfiguration.class);
+		assertEquals(1, properties.size());
+		assertEquals("", properties.get(PACKAGE + "TestDefaultOrderConfiguration"));
+	}
+
+	@Test
+	public void notConfiguration() throws Exception {
+		Properties properties = compile(NotAnnotated.class);
+		assertTrue(properties.isEmpty());
+		assertFalse(new File(this.compiler.getOutputLocation(),
+				AutoConfigureAnnotationProcessor.PROPERTIES_PATH).exists());
+	}
+
+	private Properties compile(Class<?>... types) throws IOException {
+		TestAutoConfigureAnnotationProcessor processor = new TestAutoConfigureAnnotationProcessor(
+				this.compiler.getOutputLocation());
+		this.compiler.getTask(types).call(processor);
+		return processor.getProperties();
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.configurationprocessor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+
+/**
+ * Version of {@link AutoConfigureAnnotationProcessor} used for testing.
+ *
+ * @author Phillip Webb
+ */
+@SupportedAnnotationTypes({ "*" })
+@SupportedSourceVersion(SourceVersion.RELEASE_6)
+public class TestAutoConfigureAnnotationProcessor extends AutoConfigureAnnotationProcessor {
+
+	private static final String PACKAGE = "org.springframework.boot.configurationsample."
+			+ "autoconfigure.";
+
+	private final File outputLocation;
+
+	private Properties properties;
+
+	public TestAutoConfigureAnnotationProcessor(File outputLocation) {
+		this.outputLocation = outputLocation;
+	}
+
+	@Override
+	protected void addAnnotations(Map<String, String> annotations) {
+		annotations.put("ConditionalOnClass", PACKAGE + "TestConditionalOnClass");
+		annotations.put("AutoConfigureBefore", PACKAGE + "TestAutoConfigureBefore");
+		annotations.put("AutoConfigureAfter", PACKAGE + "TestAutoConfigureAfter");
+		annotations.put("Order", PACKAGE + "TestOrder");
+	}
+
+	@Override
+	protected String configurationAnnotation() {
+		return PACKAGE + "TestConfiguration";
+	}
+
+	@Override
+	protected void writeProperties() throws IOException {
+		super.writeProperties();
+		this.properties = new Properties();
+		File file = new File(this.outputLocation, PROPERTIES_PATH);
+		if (file.isFile()) {
+			InputStream inputStream = new FileInputStream(file);
+			try {
+				this.properties.load(inputStream);
+			}
+			finally {
+				inputStream.close();
+			}
+		}
+	}
+
+	public Properties getProperties() {
+		return this.properties;
+	}
+
+}
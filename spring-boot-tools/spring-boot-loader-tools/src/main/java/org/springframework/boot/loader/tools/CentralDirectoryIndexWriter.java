@@ -0,0 +1,190 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+/**
+ * Creates the central directory index that the Spring Boot loader uses to open nested
+ * jars without parsing their entire central directory. The format must be kept in sync
+ * with {@code org.springframework.boot.loader.jar.CentralDirectoryIndex}.
+ *
+ * @author Phillip Webb
+ */
+class CentralDirectoryIndexWriter {
+
+	private static final String LOCATION = "META-INF/loader/index/";
+
+	private static final String SUFFIX = ".idx";
+
+	private static final int MAGIC = 0x4A494458;
+
+	private static final int VERSION = 1;
+
+	private static final int END_RECORD_SIGNATURE = 0x06054b50;
+
+	private static final int END_RECORD_MINIMUM_SIZE = 22;
+
+	private static final int END_RECORD_MAXIMUM_SIZE = END_RECORD_MINIMUM_SIZE + 0xFFFF;
+
+	private static final int RECORD_SIGNATURE = 0x02014b50;
+
+	private static final int RECORD_HEADER_SIZE = 46;
+
+	private static final String META_INF = "META-INF/";
+
+	private static final String MANIFEST_MF = "META-INF/MANIFEST.MF";
+
+	private static final String SIGNATURE_FILE_EXTENSION = ".SF";
+
+	private static final int INITIAL_HASH = 7;
+
+	private static final int MULTIPLIER = 31;
+
+	/**
+	 * Return the name of the entry that should hold the index for a nested jar.
+	 * @param nestedJarName the name of the nested jar entry
+	 * @return the index entry name
+	 */
+	public static String getLocation(String nestedJarName) {
+		return LOCATION + nestedJarName + SUFFIX;
+	}
+
+	/**
+	 * Create an index for the specified jar file.
+	 * @param file the jar file
+	 * @param crc the CRC-32 of the jar file
+	 * @return the index bytes or {@code null} if the file cannot be indexed
+	 * @throws IOException if the file cannot be read
+	 */
+	public static byte[] createIndex(File file, long crc) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			byte[] centralDirectory = readCentralDirectory(randomAccessFile);
+			return (centralDirectory == null ? null : createIndex(centralDirectory, crc));
+		}
+		finally {
+			randomAccessFile.close();
+		}
+	}
+
+	private static byte[] readCentralDirectory(RandomAccessFile file) throws IOException {
+		long length = file.length();
+		int blockSize = (int) Math.min(length, END_RECORD_MAXIMUM_SIZE);
+		byte[] block = new byte[blockSize];
+		file.seek(length - blockSize);
+		file.readFully(block);
+		for (int size = END_RECORD_MINIMUM_SIZE; size <= blockSize; size++) {
+			int offset = blockSize - size;
+			long commentLength = littleEndianValue(block, offset + 20, 2);
+			if (littleEndianValue(block, offset, 4) == END_RECORD_SIGNATURE
+					&& commentLength + END_RECORD_MINIMUM_SIZE == size) {
+				long centralDirectorySize = littleEndianValue(block, offset + 12, 4);
+				long centralDirectoryStart = length - size - centralDirectorySize;
+				if (centralDirectoryStart < 0) {
+					return null;
+				}
+				byte[] centralDirectory = new byte[(int) centralDirectorySize];
+				file.seek(centralDirectoryStart);
+				file.readFully(centralDirectory);
+				return centralDirectory;
+			}
+		}
+		return null;
+	}
+
+	private static byte[] createIndex(byte[] centralDirectory, long crc)
+			throws IOException {
+		int[] offsets = new int[16];
+		long[] hashAndOrdinals = new long[16];
+		int numberOfRecords = 0;
+		int manifestOrdinal = -1;
+		boolean signed = false;
+		int offset = 0;
+		while (offset + RECORD_HEADER_SIZE <= centralDirectory.length) {
+			if (littleEndianValue(centralDirectory, offset, 4) != RECORD_SIGNATURE) {
+				return null;
+			}
+			int nameLength = (int) littleEndianValue(centralDirectory, offset + 28, 2);
+			int extraLength = (int) littleEndianValue(centralDirectory, offset + 30, 2);
+			int commentLength = (int) littleEndianValue(centralDirectory, offset + 32, 2);
+			int nameOffset = offset + RECORD_HEADER_SIZE;
+			String name = new String(centralDirectory, nameOffset, nameLength, "UTF-8");
+			if (numberOfRecords == offsets.length) {
+				offsets = Arrays.copyOf(offsets, numberOfRecords * 2);
+				hashAndOrdinals = Arrays.copyOf(hashAndOrdinals, numberOfRecords * 2);
+			}
+			int hash = hash(centralDirectory, nameOffset, nameLength);
+			offsets[numberOfRecords] = offset;
+			hashAndOrdinals[numberOfRecords] = ((long) hash << 32) | numberOfRecords;
+			if (name.equals(MANIFEST_MF)) {
+				manifestOrdinal = numberOfRecords;
+			}
+			if (name.startsWith(META_INF) && name.endsWith(SIGNATURE_FILE_EXTENSION)) {
+				signed = true;
+			}
+			numberOfRecords++;
+			offset = nameOffset + nameLength + extraLength + commentLength;
+		}
+		hashAndOrdinals = Arrays.copyOf(hashAndOrdinals, numberOfRecords);
+		Arrays.sort(hashAndOrdinals);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream outputStream = new DataOutputStream(bytes);
+		outputStream.writeInt(MAGIC);
+		outputStream.writeInt(VERSION);
+		outputStream.writeInt((int) crc);
+		outputStream.writeInt(numberOfRecords);
+		outputStream.writeInt(centralDirectory.length);
+		outputStream.writeInt(manifestOrdinal);
+		outputStream.writeBoolean(signed);
+		for (int i = 0; i < numberOfRecords; i++) {
+			outputStream.writeInt(offsets[i]);
+		}
+		for (long hashAndOrdinal : hashAndOrdinals) {
+			outputStream.writeInt((int) (hashAndOrdinal >> 32));
+			outputStream.writeInt((int) hashAndOrdinal);
+		}
+		outputStream.close();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Calculate a hash of the name bytes using the same algorithm as the loader's
+	 * {@code AsciiBytes} class.
+	 */
+	private static int hash(byte[] bytes, int offset, int length) {
+		int hash = INITIAL_HASH;
+		for (int i = 0; i < length; i++) {
+			hash = MULTIPLIER * hash + bytes[offset + i];
+		}
+		return hash;
+	}
+
+	private static long littleEndianValue(byte[] bytes, int offset, int length) {
+		long value = 0;
+		for (int i = length - 1; i >= 0; i--) {
+			value = ((value << 8) | (bytes[offset + i] & 0xFF));
+		}
+		return value;
+	}
+
+}
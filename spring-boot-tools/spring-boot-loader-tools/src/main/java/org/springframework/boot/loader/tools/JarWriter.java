@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -134,6 +134,24 @@ public class JarWriter {
 		}
 		new CrcAndSize(file).setupStoredEntry(entry);
 		writeEntry(entry, new InputStreamEntryWriter(new FileInputStream(file), true));
+		if (!library.isUnpackRequired()) {
+			writeNestedLibraryIndex(entry, file);
+		}
+	}
+
+	/**
+	 * Write a central directory index for a nested library so that the loader can open
+	 * it without parsing all of its entries.
+	 * @param entry the entry of the nested library
+	 * @param file the library file
+	 * @throws IOException if the write fails
+	 */
+	private void writeNestedLibraryIndex(JarEntry entry, File file) throws IOException {
+		byte[] index = CentralDirectoryIndexWriter.createIndex(file, entry.getCrc());
+		if (index != null) {
+			writeEntry(CentralDirectoryIndexWriter.getLocation(entry.getName()),
+					new ByteArrayInputStream(index));
+		}
 	}
 
 	/**
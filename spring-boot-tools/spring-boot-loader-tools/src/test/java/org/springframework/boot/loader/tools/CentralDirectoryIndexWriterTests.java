@@ -0,0 +1,214 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.tools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.loader.jar.JarFile;
+import org.springframework.boot.loader.util.AsciiBytes;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileCopyUtils;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for {@link CentralDirectoryIndexWriter}. Indexes are read back using the
+ * loader's {@link JarFile} and compared with the same nested jar opened without an index.
+ *
+ * @author Phillip Webb
+ */
+public class CentralDirectoryIndexWriterTests {
+
+	private static final String NESTED_JAR_NAME = "lib/nested.jar";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private JarFile indexedRootJarFile;
+
+	private JarFile rootJarFile;
+
+	@After
+	public void close() throws IOException {
+		if (this.indexedRootJarFile != null) {
+			this.indexedRootJarFile.close();
+		}
+		if (this.rootJarFile != null) {
+			this.rootJarFile.close();
+		}
+	}
+
+	@Test
+	public void indexIsUsed() throws Exception {
+		File nestedJar = createNestedJar(false);
+		assertThat(ReflectionTestUtils.getField(getIndexedJarFile(nestedJar), "index"),
+				notNullValue());
+		assertThat(ReflectionTestUtils.getField(getJarFile(nestedJar), "index"),
+				nullValue());
+	}
+
+	@Test
+	public void entryLookup() throws Exception {
+		File nestedJar = createNestedJar(false);
+		JarFile indexed = getIndexedJarFile(nestedJar);
+		JarFile jarFile = getJarFile(nestedJar);
+		for (AsciiBytes name : jarFile.getEntryNames()) {
+			ZipEntry indexedEntry = indexed.getEntry(name.toString());
+			ZipEntry entry = jarFile.getEntry(name.toString());
+			assertThat(indexedEntry.getName(), equalTo(entry.getName()));
+			assertThat(indexedEntry.getSize(), equalTo(entry.getSize()));
+			assertThat(indexedEntry.getCrc(), equalTo(entry.getCrc()));
+			assertThat(
+					FileCopyUtils.copyToByteArray(indexed.getInputStream(indexedEntry)),
+					equalTo(FileCopyUtils.copyToByteArray(jarFile.getInputStream(entry))));
+		}
+		assertThat(indexed.getEntry("d").getName(), equalTo("d/"));
+		assertThat(indexed.getEntry("missing.txt"), nullValue());
+		assertThat(indexed.getEntry("D/E.TXT"), nullValue());
+	}
+
+	@Test
+	public void entryNamesAreInCentralDirectoryOrder() throws Exception {
+		File nestedJar = createNestedJar(false);
+		List<AsciiBytes> indexedNames = getIndexedJarFile(nestedJar).getEntryNames();
+		List<AsciiBytes> names = getJarFile(nestedJar).getEntryNames();
+		assertThat(indexedNames, equalTo(names));
+		assertThat(indexedNames.get(0).toString(), equalTo("META-INF/MANIFEST.MF"));
+		assertThat(indexedNames.get(1).toString(), equalTo("a.txt"));
+	}
+
+	@Test
+	public void manifest() throws Exception {
+		File nestedJar = createNestedJar(false);
+		Manifest manifest = getIndexedJarFile(nestedJar).getManifest();
+		assertThat(manifest, notNullValue());
+		assertThat(manifest.getMainAttributes().getValue("Built-By"), equalTo("test"));
+		assertThat(manifest, equalTo(getJarFile(nestedJar).getManifest()));
+	}
+
+	@Test
+	public void notSigned() throws Exception {
+		File nestedJar = createNestedJar(false);
+		assertThat(ReflectionTestUtils.getField(getIndexedJarFile(nestedJar), "signed"),
+				equalTo((Object) false));
+		assertThat(ReflectionTestUtils.getField(getJarFile(nestedJar), "signed"),
+				equalTo((Object) false));
+	}
+
+	@Test
+	public void signed() throws Exception {
+		File nestedJar = createNestedJar(true);
+		assertThat(ReflectionTestUtils.getField(getIndexedJarFile(nestedJar), "signed"),
+				equalTo((Object) true));
+		assertThat(ReflectionTestUtils.getField(getJarFile(nestedJar), "signed"),
+				equalTo((Object) true));
+	}
+
+	private File createNestedJar(boolean signed) throws IOException {
+		File file = this.temporaryFolder.newFile();
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifest.getMainAttributes().putValue("Built-By", "test");
+		JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(file),
+				manifest);
+		try {
+			if (signed) {
+				writeEntry(outputStream, "META-INF/TEST.SF", "Signature-Version: 1.0");
+			}
+			writeEntry(outputStream, "a.txt", "a");
+			writeEntry(outputStream, "d/", null);
+			writeEntry(outputStream, "d/e.txt", "e");
+			for (int i = 0; i < 100; i++) {
+				writeEntry(outputStream, "f/" + i + ".txt", Integer.toString(i));
+			}
+		}
+		finally {
+			outputStream.close();
+		}
+		return file;
+	}
+
+	private void writeEntry(JarOutputStream outputStream, String name, String content)
+			throws IOException {
+		outputStream.putNextEntry(new JarEntry(name));
+		if (content != null) {
+			outputStream.write(content.getBytes("UTF-8"));
+		}
+		outputStream.closeEntry();
+	}
+
+	private JarFile getIndexedJarFile(File nestedJar) throws IOException {
+		this.indexedRootJarFile = new JarFile(createRootJar(nestedJar, true));
+		return getNestedJarFile(this.indexedRootJarFile);
+	}
+
+	private JarFile getJarFile(File nestedJar) throws IOException {
+		this.rootJarFile = new JarFile(createRootJar(nestedJar, false));
+		return getNestedJarFile(this.rootJarFile);
+	}
+
+	private JarFile getNestedJarFile(JarFile rootJarFile) throws IOException {
+		return rootJarFile.getNestedJarFile(rootJarFile.getEntry(NESTED_JAR_NAME));
+	}
+
+	private File createRootJar(File nestedJar, boolean indexed) throws IOException {
+		byte[] nestedJarData = FileCopyUtils.copyToByteArray(nestedJar);
+		CRC32 crc = new CRC32();
+		crc.update(nestedJarData);
+		File file = this.temporaryFolder.newFile();
+		JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(file));
+		try {
+			JarEntry nestedEntry = new JarEntry(NESTED_JAR_NAME);
+			nestedEntry.setMethod(ZipEntry.STORED);
+			nestedEntry.setSize(nestedJarData.length);
+			nestedEntry.setCompressedSize(nestedJarData.length);
+			nestedEntry.setCrc(crc.getValue());
+			outputStream.putNextEntry(nestedEntry);
+			outputStream.write(nestedJarData);
+			outputStream.closeEntry();
+			if (indexed) {
+				byte[] index = CentralDirectoryIndexWriter.createIndex(nestedJar,
+						crc.getValue());
+				outputStream.putNextEntry(new JarEntry(CentralDirectoryIndexWriter
+						.getLocation(NESTED_JAR_NAME)));
+				outputStream.write(index);
+				outputStream.closeEntry();
+			}
+		}
+		finally {
+			outputStream.close();
+		}
+		return file;
+	}
+
+}
@@ -299,6 +299,42 @@ public class RepackagerTests {
 		assertThat(entry.getComment().length(), equalTo(47));
 	}
 
+	@Test
+	public void librariesAreIndexed() throws Exception {
+		TestJarFile libJar = new TestJarFile(this.temporaryFolder);
+		libJar.addClass("a/b/C.class", ClassWithoutMainMethod.class);
+		final File libJarFile = libJar.getFile();
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		File file = this.testJarFile.getFile();
+		Repackager repackager = new Repackager(file);
+		repackager.repackage(new Libraries() {
+			@Override
+			public void doWithLibraries(LibraryCallback callback) throws IOException {
+				callback.library(new Library(libJarFile, LibraryScope.COMPILE));
+			}
+		});
+		assertThat(hasEntry(file, "META-INF/loader/index/lib/" + libJarFile.getName()
+				+ ".idx"), equalTo(true));
+	}
+
+	@Test
+	public void unpackedLibrariesAreNotIndexed() throws Exception {
+		TestJarFile libJar = new TestJarFile(this.temporaryFolder);
+		libJar.addClass("a/b/C.class", ClassWithoutMainMethod.class);
+		final File libJarFile = libJar.getFile();
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		File file = this.testJarFile.getFile();
+		Repackager repackager = new Repackager(file);
+		repackager.repackage(new Libraries() {
+			@Override
+			public void doWithLibraries(LibraryCallback callback) throws IOException {
+				callback.library(new Library(libJarFile, LibraryScope.COMPILE, true));
+			}
+		});
+		assertThat(hasEntry(file, "META-INF/loader/index/lib/" + libJarFile.getName()
+				+ ".idx"), equalTo(false));
+	}
+
 	@Test
 	public void duplicateLibraries() throws Exception {
 		TestJarFile libJar = new TestJarFile(this.temporaryFolder);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.boot.loader;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
@@ -28,6 +30,9 @@ import java.util.jar.JarEntry;
 import org.springframework.boot.loader.archive.Archive;
 import org.springframework.boot.loader.archive.Archive.Entry;
 import org.springframework.boot.loader.archive.Archive.EntryFilter;
+import org.springframework.boot.loader.archive.ExtractedArchiveCache;
+import org.springframework.boot.loader.archive.JarFileArchive;
+import org.springframework.boot.loader.util.SystemPropertyUtils;
 
 /**
  * Base class for executable archive {@link Launcher}s.
@@ -37,6 +42,13 @@ import org.springframework.boot.loader.archive.Archive.EntryFilter;
  */
 public abstract class ExecutableArchiveLauncher extends Launcher {
 
+	/**
+	 * System property that can be set to a directory in order to extract nested jars
+	 * into a content addressed cache that is reused by later launches. The classpath is
+	 * also recorded in the cache so that later launches don't need to search the archive.
+	 */
+	public static final String CACHE_DIRECTORY = "loader.cache.dir";
+
 	private final Archive archive;
 
 	private final JavaAgentDetector javaAgentDetector;
@@ -72,7 +84,7 @@ public abstract class ExecutableArchiveLauncher extends Launcher {
 	@Override
 	protected List<Archive> getClassPathArchives() throws Exception {
 		List<Archive> archives = new ArrayList<Archive>(
-				this.archive.getNestedArchives(new EntryFilter() {
+				getNestedArchives(new EntryFilter() {
 					@Override
 					public boolean matches(Entry entry) {
 						return isNestedArchive(entry);
@@ -82,6 +94,17 @@ public abstract class ExecutableArchiveLauncher extends Launcher {
 		return archives;
 	}
 
+	private List<Archive> getNestedArchives(EntryFilter filter) throws IOException {
+		String cacheDirectory = SystemPropertyUtils.getProperty(CACHE_DIRECTORY);
+		if (cacheDirectory != null && this.archive instanceof JarFileArchive) {
+			ExtractedArchiveCache cache = new ExtractedArchiveCache(
+					(JarFileArchive) this.archive, new File(
+							SystemPropertyUtils.resolvePlaceholders(cacheDirectory)));
+			return cache.getNestedArchives(getClass().getName(), filter);
+		}
+		return this.archive.getNestedArchives(filter);
+	}
+
 	@Override
 	protected ClassLoader createClassLoader(URL[] urls) throws Exception {
 		Set<URL> copy = new LinkedHashSet<URL>(urls.length);
@@ -23,7 +23,8 @@ import org.springframework.boot.loader.util.AsciiBytes;
 
 /**
  * {@link Launcher} for JAR based archives. This launcher assumes that dependency jars are
- * included inside a {@code /lib} directory.
+ * included inside a {@code /lib} directory. The archive can be memory mapped by setting
+ * the {@code loader.jar.mapped} System property to {@code true}.
  *
  * @author Phillip Webb
  */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.boot.loader;
 
 import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.security.AccessController;
@@ -24,6 +25,8 @@ import java.security.PrivilegedExceptionAction;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.boot.loader.jar.Handler;
 import org.springframework.boot.loader.jar.JarFile;
@@ -38,8 +41,20 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 
 	private static LockProvider LOCK_PROVIDER = setupLockProvider();
 
+	private static final int PACKAGE_LOCK_STRIPES = 32;
+
+	private static final int MAX_MISSING_CLASSES = 8192;
+
 	private final ClassLoader rootClassLoader;
 
+	private final Object[] packageLocks = new Object[PACKAGE_LOCK_STRIPES];
+
+	private final Set<String> definedPackages = newConcurrentSet();
+
+	private final Set<String> missingClasses = newConcurrentSet();
+
+	private volatile ResourceIndex resourceIndex;
+
 	/**
 	 * Create a new {@link LaunchedURLClassLoader} instance.
 	 * @param urls the URLs from which to load classes and resources
@@ -48,6 +63,9 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 	public LaunchedURLClassLoader(URL[] urls, ClassLoader parent) {
 		super(urls, parent);
 		this.rootClassLoader = findRootClassLoader(parent);
+		for (int i = 0; i < this.packageLocks.length; i++) {
+			this.packageLocks[i] = new Object();
+		}
 	}
 
 	private ClassLoader findRootClassLoader(ClassLoader classLoader) {
@@ -75,8 +93,15 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 			if (name.equals("") && hasURLs()) {
 				return getURLs()[0];
 			}
+			ResourceIndex resourceIndex = getResourceIndex();
+			if (resourceIndex.isIndexed(name)) {
+				return resourceIndex.findResource(name);
+			}
 			return super.findResource(name);
 		}
+		catch (MalformedURLException ex) {
+			return null;
+		}
 		catch (IllegalArgumentException ex) {
 			return null;
 		}
@@ -87,6 +112,10 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		if (name.equals("") && hasURLs()) {
 			return Collections.enumeration(Arrays.asList(getURLs()));
 		}
+		ResourceIndex resourceIndex = getResourceIndex();
+		if (resourceIndex.isIndexed(name)) {
+			return Collections.enumeration(resourceIndex.findResources(name));
+		}
 		return super.findResources(name);
 	}
 
@@ -94,6 +123,23 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		return getURLs().length > 0;
 	}
 
+	@Override
+	protected void addURL(URL url) {
+		super.addURL(url);
+		this.resourceIndex = null;
+		this.missingClasses.clear();
+	}
+
+	private ResourceIndex getResourceIndex() {
+		ResourceIndex resourceIndex = this.resourceIndex;
+		if (resourceIndex == null) {
+			// The index is only built again if a URL is added
+			resourceIndex = ResourceIndex.get(getURLs());
+			this.resourceIndex = resourceIndex;
+		}
+		return resourceIndex;
+	}
+
 	@Override
 	public Enumeration<URL> getResources(String name) throws IOException {
 		if (this.rootClassLoader == null) {
@@ -131,10 +177,23 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		synchronized (LaunchedURLClassLoader.LOCK_PROVIDER.getLock(this, name)) {
 			Class<?> loadedClass = findLoadedClass(name);
 			if (loadedClass == null) {
+				// Classes defined directly in this loader after a miss (for example
+				// generated proxies) have already been found above
+				if (this.missingClasses.contains(name)) {
+					throw new ClassNotFoundException(name);
+				}
 				Handler.setUseFastConnectionExceptions(true);
 				try {
 					loadedClass = doLoadClass(name);
 				}
+				catch (ClassNotFoundException ex) {
+					// Remember the miss rather than searching everything again. Misses
+					// are forgotten if a URL is added.
+					if (this.missingClasses.size() < MAX_MISSING_CLASSES) {
+						this.missingClasses.add(name);
+					}
+					throw ex;
+				}
 				finally {
 					Handler.setUseFastConnectionExceptions(false);
 				}
@@ -174,6 +233,16 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		int lastDot = name.lastIndexOf('.');
 		if (lastDot != -1) {
 			String packageName = name.substring(0, lastDot);
+			if (!this.definedPackages.contains(packageName)) {
+				findPackage(name, packageName);
+			}
+		}
+	}
+
+	private void findPackage(String name, String packageName) {
+		// Lock on a stripe so that packages can be defined concurrently
+		synchronized (this.packageLocks[(packageName.hashCode() & 0x7FFFFFFF)
+				% this.packageLocks.length]) {
 			if (getPackage(packageName) == null) {
 				try {
 					definePackageForFindClass(name, packageName);
@@ -182,6 +251,9 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 					// Swallow and continue
 				}
 			}
+			if (getPackage(packageName) != null) {
+				this.definedPackages.add(packageName);
+			}
 		}
 	}
 
@@ -224,6 +296,10 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		}
 	}
 
+	private static Set<String> newConcurrentSet() {
+		return Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	}
+
 	private static LockProvider setupLockProvider() {
 		try {
 			ClassLoader.registerAsParallelCapable();
@@ -41,6 +41,7 @@ import org.springframework.boot.loader.archive.Archive;
 import org.springframework.boot.loader.archive.Archive.Entry;
 import org.springframework.boot.loader.archive.Archive.EntryFilter;
 import org.springframework.boot.loader.archive.ExplodedArchive;
+import org.springframework.boot.loader.archive.ExtractedArchiveCache;
 import org.springframework.boot.loader.archive.FilteredArchive;
 import org.springframework.boot.loader.archive.JarFileArchive;
 import org.springframework.boot.loader.util.AsciiBytes;
@@ -124,6 +125,13 @@ public class PropertiesLauncher extends Launcher {
 	 */
 	public static final String SET_SYSTEM_PROPERTIES = "loader.system";
 
+	/**
+	 * Properties key for a directory (relative to {@link #HOME loader home directory} if
+	 * not absolute) into which jars nested in the parent archive are extracted. Extracted
+	 * jars and the nested archive list are reused by later launches.
+	 */
+	public static final String CACHE_DIRECTORY = "loader.cache.dir";
+
 	private static final List<String> DEFAULT_PATHS = Arrays.asList();
 
 	private static final Pattern WORD_SEPARATOR = Pattern.compile("\\W+");
@@ -138,6 +146,8 @@ public class PropertiesLauncher extends Launcher {
 
 	private Archive parent;
 
+	private ExtractedArchiveCache cache;
+
 	public PropertiesLauncher() {
 		if (!isDebug()) {
 			this.logger.setLevel(Level.SEVERE);
@@ -147,6 +157,7 @@ public class PropertiesLauncher extends Launcher {
 			initializeProperties(this.home);
 			initializePaths();
 			this.parent = createArchive();
+			initializeCache();
 		}
 		catch (Exception ex) {
 			throw new IllegalStateException(ex);
@@ -311,6 +322,19 @@ public class PropertiesLauncher extends Launcher {
 		this.logger.info("Nested archive paths: " + this.paths);
 	}
 
+	private void initializeCache() throws Exception {
+		String cacheDirectory = getProperty(CACHE_DIRECTORY);
+		if (cacheDirectory != null && this.parent instanceof JarFileArchive) {
+			File directory = new File(cacheDirectory);
+			if (!isAbsolutePath(cacheDirectory)) {
+				directory = new File(this.home, cacheDirectory);
+			}
+			this.logger.info("Extracting nested archives to " + directory);
+			this.cache = new ExtractedArchiveCache((JarFileArchive) this.parent,
+					directory);
+		}
+	}
+
 	private List<String> parsePathsProperty(String commaSeparatedPaths) {
 		List<String> paths = new ArrayList<String>();
 		for (String path : commaSeparatedPaths.split(",")) {
@@ -501,12 +525,14 @@ public class PropertiesLauncher extends Launcher {
 			return null;
 		}
 		EntryFilter filter = new PrefixMatchingArchiveFilter(root);
-		if (this.parent.getNestedArchives(filter).isEmpty()) {
+		Archive archive = (this.cache == null ? new FilteredArchive(this.parent, filter)
+				: new CachedFilteredArchive(this.parent, filter, this.cache, root));
+		if (archive.getNestedArchives(new ArchiveEntryFilter()).isEmpty()) {
 			return null;
 		}
 		// If there are more archives nested in this subdirectory (root) then create a new
 		// virtual archive for them, and have it added to the classpath
-		return new FilteredArchive(this.parent, filter);
+		return archive;
 	}
 
 	private void addParentClassLoaderEntries(List<Archive> lib) throws IOException,
@@ -667,4 +693,40 @@ public class PropertiesLauncher extends Launcher {
 		}
 	}
 
+	/**
+	 * {@link FilteredArchive} that obtains its nested archives from an
+	 * {@link ExtractedArchiveCache}.
+	 */
+	private static final class CachedFilteredArchive extends FilteredArchive {
+
+		private final EntryFilter filter;
+
+		private final ExtractedArchiveCache cache;
+
+		private final String prefix;
+
+		private CachedFilteredArchive(Archive parent, EntryFilter filter,
+				ExtractedArchiveCache cache, String prefix) {
+			super(parent, filter);
+			this.filter = filter;
+			this.cache = cache;
+			this.prefix = prefix;
+		}
+
+		@Override
+		public List<Archive> getNestedArchives(final EntryFilter filter)
+				throws IOException {
+			String key = PropertiesLauncher.class.getName() + ":" + this.prefix + ":"
+					+ filter.getClass().getName();
+			return this.cache.getNestedArchives(key, new EntryFilter() {
+				@Override
+				public boolean matches(Entry entry) {
+					return CachedFilteredArchive.this.filter.matches(entry)
+							&& filter.matches(entry);
+				}
+			});
+		}
+
+	}
+
 }
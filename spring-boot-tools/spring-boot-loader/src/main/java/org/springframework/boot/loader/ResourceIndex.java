@@ -0,0 +1,220 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.loader.jar.JarFile;
+import org.springframework.boot.loader.util.AsciiBytes;
+
+/**
+ * Index of the directories contained in each {@link JarFile} URL of a
+ * {@link LaunchedURLClassLoader}. Used so that resource lookups only need to probe the
+ * jars that contain the directory of the resource and so that misses can be answered
+ * without touching any jar.
+ *
+ * @author Phillip Webb
+ * @see LaunchedURLClassLoader
+ */
+class ResourceIndex {
+
+	private static final ResourceIndex NONE = new ResourceIndex();
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final AsciiBytes SLASH = new AsciiBytes("/");
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static final BitSet ENCODED_IN_PATH;
+	static {
+		// Mirror the characters that URLClassLoader encodes when creating resource URLs
+		ENCODED_IN_PATH = new BitSet(128);
+		for (int i = 0; i < 0x20; i++) {
+			ENCODED_IN_PATH.set(i);
+		}
+		ENCODED_IN_PATH.set(0x7F);
+		for (char ch : "=;?# <>%\"{}|\\^[]`".toCharArray()) {
+			ENCODED_IN_PATH.set(ch);
+		}
+	}
+
+	private final URL[] urls;
+
+	private final JarFile[] jarFiles;
+
+	private final Map<AsciiBytes, BitSet> directories;
+
+	private ResourceIndex() {
+		this.urls = null;
+		this.jarFiles = null;
+		this.directories = null;
+	}
+
+	private ResourceIndex(URL[] urls, JarFile[] jarFiles) {
+		this.urls = urls;
+		this.jarFiles = jarFiles;
+		this.directories = new HashMap<AsciiBytes, BitSet>();
+		for (int i = 0; i < jarFiles.length; i++) {
+			for (AsciiBytes name : jarFiles[i].getEntryNames()) {
+				AsciiBytes directory = getDirectory(name);
+				BitSet jars = this.directories.get(directory);
+				if (jars == null) {
+					jars = new BitSet(jarFiles.length);
+					this.directories.put(directory, jars);
+				}
+				jars.set(i);
+			}
+		}
+	}
+
+	/**
+	 * Returns {@code true} if the specified resource can be found using this index.
+	 * @param name the resource name
+	 * @return if the index can be used for the resource
+	 */
+	public boolean isIndexed(String name) {
+		return (this.directories != null && name.length() > 0
+				&& !name.startsWith("/") && !name.contains("!/")
+				&& !name.contains("./"));
+	}
+
+	/**
+	 * Find the first resource with the specified name.
+	 * @param name the resource name
+	 * @return the URL of the resource or {@code null}
+	 * @throws MalformedURLException if the resource URL cannot be created
+	 * @see #isIndexed(String)
+	 */
+	public URL findResource(String name) throws MalformedURLException {
+		BitSet candidates = getCandidates(name);
+		if (candidates != null) {
+			for (int i = candidates.nextSetBit(0); i >= 0; i = candidates
+					.nextSetBit(i + 1)) {
+				if (this.jarFiles[i].getJarEntryData(name) != null) {
+					return new URL(this.urls[i], encodePath(name));
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Find all resources with the specified name.
+	 * @param name the resource name
+	 * @return the URLs of the resources
+	 * @throws MalformedURLException if a resource URL cannot be created
+	 * @see #isIndexed(String)
+	 */
+	public List<URL> findResources(String name) throws MalformedURLException {
+		BitSet candidates = getCandidates(name);
+		if (candidates == null) {
+			return Collections.emptyList();
+		}
+		List<URL> resources = new ArrayList<URL>();
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			if (this.jarFiles[i].getJarEntryData(name) != null) {
+				resources.add(new URL(this.urls[i], encodePath(name)));
+			}
+		}
+		return resources;
+	}
+
+	private BitSet getCandidates(String name) {
+		return this.directories.get(getDirectory(new AsciiBytes(name)));
+	}
+
+	private AsciiBytes getDirectory(AsciiBytes name) {
+		// Directory entries are indexed against their parent in the same way as files
+		// so that "a/b" and "a/b/" find the same candidates
+		if (name.endsWith(SLASH)) {
+			name = name.substring(0, name.length() - 1);
+		}
+		return name.substring(0, name.lastIndexOf('/') + 1);
+	}
+
+	private String encodePath(String path) {
+		byte[] bytes = null;
+		for (int i = 0; i < path.length(); i++) {
+			char ch = path.charAt(i);
+			if (ch >= 0x80 || ENCODED_IN_PATH.get(ch)) {
+				bytes = path.getBytes(UTF_8);
+				break;
+			}
+		}
+		if (bytes == null) {
+			return path;
+		}
+		StringBuilder encoded = new StringBuilder(bytes.length * 3);
+		for (byte b : bytes) {
+			if (b >= 0 && !ENCODED_IN_PATH.get(b)) {
+				encoded.append((char) b);
+			}
+			else {
+				encoded.append('%');
+				encoded.append(HEX_DIGITS[(b >> 4) & 0xF]);
+				encoded.append(HEX_DIGITS[b & 0xF]);
+			}
+		}
+		return encoded.toString();
+	}
+
+	/**
+	 * Create a new {@link ResourceIndex} for the specified URLs. If any of the URLs is
+	 * not backed by a {@link JarFile} the returned index will not be able to find any
+	 * resources.
+	 * @param urls the class loader URLs
+	 * @return the resource index
+	 */
+	public static ResourceIndex get(URL[] urls) {
+		if (System.getSecurityManager() != null) {
+			// Leave permission checks to the URLClassLoader
+			return NONE;
+		}
+		JarFile[] jarFiles = new JarFile[urls.length];
+		for (int i = 0; i < urls.length; i++) {
+			jarFiles[i] = getJarFile(urls[i]);
+			if (jarFiles[i] == null) {
+				return NONE;
+			}
+		}
+		return new ResourceIndex(urls, jarFiles);
+	}
+
+	private static JarFile getJarFile(URL url) {
+		if (!"jar".equals(url.getProtocol()) || !url.getPath().endsWith("!/")) {
+			return null;
+		}
+		try {
+			Object content = url.getContent();
+			return (content instanceof JarFile ? (JarFile) content : null);
+		}
+		catch (IOException ex) {
+			return null;
+		}
+	}
+
+}
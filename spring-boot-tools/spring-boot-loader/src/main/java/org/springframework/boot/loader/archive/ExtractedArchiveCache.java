@@ -0,0 +1,223 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.archive;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.springframework.boot.loader.archive.JarFileArchive.JarFileEntry;
+import org.springframework.boot.loader.jar.JarEntryData;
+
+/**
+ * Content addressed cache of the nested jars of a {@link JarFileArchive}. Nested jars are
+ * extracted once into the cache directory (using a name derived from their CRC-32) and
+ * are reused by later launches. The nested archives that match a filter are also
+ * recorded in a classpath list file so that later launches can build the same nested
+ * archives without searching the entries of the archive.
+ * <p>
+ * Classpath list files are keyed by the location, size and modification time of the
+ * archive so a rebuilt archive never uses stale entries. Since the extracted jars are
+ * plain files they can also be used with JVM features such as class data sharing.
+ *
+ * @author Phillip Webb
+ */
+public class ExtractedArchiveCache {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final String JAR = "jar";
+
+	private static final String DIRECTORY = "dir";
+
+	private final JarFileArchive archive;
+
+	private final File directory;
+
+	/**
+	 * Create a new {@link ExtractedArchiveCache} instance.
+	 * @param archive the archive containing the nested jars
+	 * @param directory the cache directory
+	 */
+	public ExtractedArchiveCache(JarFileArchive archive, File directory) {
+		if (archive == null) {
+			throw new IllegalArgumentException("Archive must not be null");
+		}
+		if (directory == null) {
+			throw new IllegalArgumentException("Directory must not be null");
+		}
+		this.archive = archive;
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns nested archives for entries that match the filter. Nested jars are
+	 * extracted into the cache directory if they have not been extracted already.
+	 * @param key a key that identifies the filter (used to name the classpath list file)
+	 * @param filter the filter used to limit entries
+	 * @return nested archives
+	 * @throws IOException
+	 */
+	public List<Archive> getNestedArchives(String key, Archive.EntryFilter filter)
+			throws IOException {
+		File classPathFile = getClassPathFile(key);
+		List<Archive> archives = (classPathFile.exists() ? readClassPathFile(classPathFile)
+				: null);
+		if (archives == null) {
+			List<String> lines = new ArrayList<String>();
+			archives = new ArrayList<Archive>();
+			for (Archive.Entry entry : this.archive.getEntries()) {
+				if (filter.matches(entry)) {
+					archives.add(getNestedArchive(((JarFileEntry) entry)
+							.getJarEntryData(), lines));
+				}
+			}
+			writeClassPathFile(classPathFile, lines);
+		}
+		return Collections.unmodifiableList(archives);
+	}
+
+	private Archive getNestedArchive(JarEntryData data, List<String> lines)
+			throws IOException {
+		if (data.isDirectory()) {
+			lines.add(DIRECTORY + " " + data.getName());
+			return this.archive.getNestedArchive(new JarFileEntry(data));
+		}
+		File file = extract(data);
+		lines.add(JAR + " " + data.getSize() + " " + file.getName());
+		return new JarFileArchive(file, file.toURI().toURL(), true);
+	}
+
+	private File extract(JarEntryData data) throws IOException {
+		String name = data.getName().toString();
+		name = name.substring(name.lastIndexOf("/") + 1);
+		File file = new File(this.directory, String.format("%08x", data.getCrc()) + "-"
+				+ name);
+		if (file.exists() && file.length() == data.getSize()) {
+			return file;
+		}
+		this.directory.mkdirs();
+		File temp = File.createTempFile(name, ".tmp", this.directory);
+		try {
+			FileOutputStream outputStream = new FileOutputStream(temp);
+			try {
+				data.transferTo(outputStream.getChannel());
+			}
+			finally {
+				outputStream.close();
+			}
+			rename(temp, file, data.getSize());
+		}
+		finally {
+			temp.delete();
+		}
+		return file;
+	}
+
+	private List<Archive> readClassPathFile(File classPathFile) throws IOException {
+		List<Archive> archives = new ArrayList<Archive>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(classPathFile), UTF_8));
+		try {
+			String line = reader.readLine();
+			while (line != null) {
+				Archive archive = readClassPathLine(line);
+				if (archive == null) {
+					return null;
+				}
+				archives.add(archive);
+				line = reader.readLine();
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return archives;
+	}
+
+	private Archive readClassPathLine(String line) throws IOException {
+		if (line.startsWith(DIRECTORY + " ")) {
+			JarEntryData data = this.archive.getJarFile().getJarEntryData(
+					line.substring(DIRECTORY.length() + 1));
+			return (data == null ? null : this.archive.getNestedArchive(new JarFileEntry(
+					data)));
+		}
+		String[] parts = line.split(" ", 3);
+		if (parts.length == 3 && parts[0].equals(JAR)) {
+			File file = new File(this.directory, parts[2]);
+			if (file.length() == Long.parseLong(parts[1])) {
+				return new JarFileArchive(file, file.toURI().toURL(), true);
+			}
+		}
+		// The cache has been cleaned or is corrupt
+		return null;
+	}
+
+	private void writeClassPathFile(File classPathFile, List<String> lines)
+			throws IOException {
+		this.directory.mkdirs();
+		File temp = File.createTempFile(classPathFile.getName(), ".tmp", this.directory);
+		try {
+			Writer writer = new OutputStreamWriter(new FileOutputStream(temp), UTF_8);
+			try {
+				for (String line : lines) {
+					writer.write(line);
+					writer.write("\n");
+				}
+			}
+			finally {
+				writer.close();
+			}
+			rename(temp, classPathFile, temp.length());
+		}
+		finally {
+			temp.delete();
+		}
+	}
+
+	private void rename(File source, File destination, long expectedLength)
+			throws IOException {
+		// Renaming means that concurrent launches never see a partially written file
+		if (!source.renameTo(destination)) {
+			destination.delete();
+			if (!source.renameTo(destination)
+					&& destination.length() != expectedLength) {
+				throw new IOException("Unable to create cache file " + destination);
+			}
+		}
+	}
+
+	private File getClassPathFile(String key) {
+		File file = new File(this.archive.getJarFile().getName());
+		CRC32 crc = new CRC32();
+		crc.update((key + "\n" + file.getAbsolutePath() + "\n" + file.length() + "\n"
+				+ file.lastModified()).getBytes(UTF_8));
+		return new File(this.directory, String.format("classpath-%08x.idx",
+				crc.getValue()));
+	}
+
+}
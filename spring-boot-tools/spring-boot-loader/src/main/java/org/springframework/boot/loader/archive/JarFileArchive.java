@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,28 +47,43 @@ public class JarFileArchive extends Archive {
 
 	private static final int BUFFER_SIZE = 32 * 1024;
 
-	private final JarFile jarFile;
+	private final File file;
 
-	private final List<Entry> entries;
+	private JarFile jarFile;
+
+	private List<Entry> entries;
 
 	private URL url;
 
 	public JarFileArchive(File file) throws IOException {
-		this(file, null);
+		this(new JarFile(file));
 	}
 
 	public JarFileArchive(File file, URL url) throws IOException {
-		this(new JarFile(file));
+		this(file, url, false);
+	}
+
+	/**
+	 * Create a new {@link JarFileArchive} for the given file. A lazy archive should only
+	 * be used for a file that is known to be a valid jar (for example, one that has
+	 * been extracted by the {@link ExtractedArchiveCache}) since the file is not opened
+	 * until the content of the archive is actually needed.
+	 * @param file the jar file
+	 * @param url the URL of the archive
+	 * @param lazy if opening the file should be deferred until it is needed
+	 * @throws IOException if the file cannot be opened
+	 */
+	JarFileArchive(File file, URL url, boolean lazy) throws IOException {
+		this.file = file;
 		this.url = url;
+		if (!lazy) {
+			this.jarFile = new JarFile(file);
+		}
 	}
 
 	public JarFileArchive(JarFile jarFile) {
+		this.file = null;
 		this.jarFile = jarFile;
-		ArrayList<Entry> jarFileEntries = new ArrayList<Entry>();
-		for (JarEntryData data : jarFile) {
-			jarFileEntries.add(new JarFileEntry(data));
-		}
-		this.entries = Collections.unmodifiableList(jarFileEntries);
 	}
 
 	@Override
@@ -76,12 +91,12 @@ public class JarFileArchive extends Archive {
 		if (this.url != null) {
 			return this.url;
 		}
-		return this.jarFile.getUrl();
+		return getJarFile().getUrl();
 	}
 
 	@Override
 	public Manifest getManifest() throws IOException {
-		return this.jarFile.getManifest();
+		return getJarFile().getManifest();
 	}
 
 	@Override
@@ -97,7 +112,16 @@ public class JarFileArchive extends Archive {
 
 	@Override
 	public Collection<Entry> getEntries() {
-		return Collections.unmodifiableCollection(this.entries);
+		if (this.entries == null) {
+			// Entries are loaded lazily since nested archives that are only used on the
+			// classpath may never need them
+			List<Entry> jarFileEntries = new ArrayList<Entry>();
+			for (JarEntryData data : getJarFile()) {
+				jarFileEntries.add(new JarFileEntry(data));
+			}
+			this.entries = Collections.unmodifiableList(jarFileEntries);
+		}
+		return this.entries;
 	}
 
 	protected Archive getNestedArchive(Entry entry) throws IOException {
@@ -105,10 +129,22 @@ public class JarFileArchive extends Archive {
 		if (data.getComment().startsWith(UNPACK_MARKER)) {
 			return getUnpackedNestedArchive(data);
 		}
-		JarFile jarFile = this.jarFile.getNestedJarFile(data);
+		JarFile jarFile = getJarFile().getNestedJarFile(data);
 		return new JarFileArchive(jarFile);
 	}
 
+	synchronized JarFile getJarFile() {
+		if (this.jarFile == null) {
+			try {
+				this.jarFile = new JarFile(this.file);
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Unable to open " + this.file, ex);
+			}
+		}
+		return this.jarFile;
+	}
+
 	private Archive getUnpackedNestedArchive(JarEntryData data) throws IOException {
 		AsciiBytes hash = data.getComment().substring(UNPACK_MARKER.length());
 		String name = data.getName().toString();
@@ -152,7 +188,7 @@ public class JarFileArchive extends Archive {
 
 	@Override
 	public Archive getFilteredArchive(final EntryRenameFilter filter) throws IOException {
-		JarFile filteredJar = this.jarFile.getFilteredJarFile(new JarEntryFilter() {
+		JarFile filteredJar = getJarFile().getFilteredJarFile(new JarEntryFilter() {
 			@Override
 			public AsciiBytes apply(AsciiBytes name, JarEntryData entryData) {
 				return filter.apply(name, new JarFileEntry(entryData));
@@ -164,7 +200,7 @@ public class JarFileArchive extends Archive {
 	/**
 	 * {@link Archive.Entry} implementation backed by a {@link JarEntry}.
 	 */
-	private static class JarFileEntry implements Entry {
+	static class JarFileEntry implements Entry {
 
 		private final JarEntryData entryData;
 
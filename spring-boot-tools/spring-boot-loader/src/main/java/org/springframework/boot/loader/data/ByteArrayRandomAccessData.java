@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,14 +17,19 @@
 package org.springframework.boot.loader.data;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import org.springframework.boot.loader.util.ChannelUtils;
 
 /**
  * {@link RandomAccessData} implementation backed by a byte array.
  *
  * @author Phillip Webb
  */
-public class ByteArrayRandomAccessData implements RandomAccessData {
+public class ByteArrayRandomAccessData implements RandomAccessData, TransferableData {
 
 	private final byte[] bytes;
 
@@ -47,6 +52,14 @@ public class ByteArrayRandomAccessData implements RandomAccessData {
 		return new ByteArrayInputStream(this.bytes, (int) this.offset, (int) this.length);
 	}
 
+	@Override
+	public long transferTo(WritableByteChannel target) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(this.bytes, (int) this.offset,
+				(int) this.length);
+		ChannelUtils.writeFully(buffer, target);
+		return this.length;
+	}
+
 	@Override
 	public RandomAccessData getSubsection(long offset, long length) {
 		return new ByteArrayRandomAccessData(this.bytes, this.offset + offset, length);
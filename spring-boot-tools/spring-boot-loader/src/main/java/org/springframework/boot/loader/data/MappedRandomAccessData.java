@@ -0,0 +1,265 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+
+import org.springframework.boot.loader.util.ChannelUtils;
+
+/**
+ * {@link RandomAccessData} implementation backed by a memory mapped file. Files larger
+ * than a single {@link MappedByteBuffer} can address are mapped in several chunks.
+ * Subsections and input streams share the underlying mapped buffers so no data is copied
+ * and no file handles are required once the mapping has been created.
+ *
+ * @author Phillip Webb
+ * @see RandomAccessDataFile
+ */
+public class MappedRandomAccessData implements RandomAccessData, TransferableData {
+
+	private static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+
+	private final File file;
+
+	private final ByteBuffer[] chunks;
+
+	private final int chunkSize;
+
+	private final long offset;
+
+	private final long length;
+
+	/**
+	 * Create a new {@link MappedRandomAccessData} backed by the specified file.
+	 * @param file the underlying file
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if the file is null or does not exist
+	 */
+	public MappedRandomAccessData(File file) throws IOException {
+		this(file, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Create a new {@link MappedRandomAccessData} backed by the specified file.
+	 * @param file the underlying file
+	 * @param chunkSize the maximum size of each mapped region
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if the file is null or does not exist
+	 */
+	MappedRandomAccessData(File file, int chunkSize) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("File must not be null");
+		}
+		if (!file.exists()) {
+			throw new IllegalArgumentException("File must exist");
+		}
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("ChunkSize must be positive");
+		}
+		this.file = file;
+		this.chunkSize = chunkSize;
+		this.offset = 0L;
+		this.length = file.length();
+		this.chunks = map(file, this.length, chunkSize);
+	}
+
+	/**
+	 * Private constructor used to create a {@link #getSubsection(long, long) subsection}.
+	 * @param file the underlying file
+	 * @param chunks the mapped chunks
+	 * @param chunkSize the size of each chunk
+	 * @param offset the offset of the section
+	 * @param length the length of the section
+	 */
+	private MappedRandomAccessData(File file, ByteBuffer[] chunks, int chunkSize,
+			long offset, long length) {
+		this.file = file;
+		this.chunks = chunks;
+		this.chunkSize = chunkSize;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	private static ByteBuffer[] map(File file, long length, int chunkSize)
+			throws IOException {
+		int count = (int) ((length + chunkSize - 1) / chunkSize);
+		ByteBuffer[] chunks = new ByteBuffer[count];
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			for (int i = 0; i < count; i++) {
+				long position = (long) i * chunkSize;
+				long size = Math.min(chunkSize, length - position);
+				// Mappings remain valid once the channel is closed
+				chunks[i] = channel.map(MapMode.READ_ONLY, position, size);
+			}
+		}
+		finally {
+			randomAccessFile.close();
+		}
+		return chunks;
+	}
+
+	/**
+	 * Returns the underling File.
+	 * @return the underlying file
+	 */
+	public File getFile() {
+		return this.file;
+	}
+
+	@Override
+	public InputStream getInputStream(ResourceAccess access) throws IOException {
+		return new DataInputStream();
+	}
+
+	@Override
+	public long transferTo(WritableByteChannel target) throws IOException {
+		long transferred = 0;
+		while (transferred < this.length) {
+			long absolute = this.offset + transferred;
+			int index = (int) (absolute / this.chunkSize);
+			ByteBuffer chunk = this.chunks[index].duplicate();
+			chunk.position((int) (absolute - ((long) index * this.chunkSize)));
+			int amount = (int) Math.min(chunk.remaining(), this.length - transferred);
+			chunk.limit(chunk.position() + amount);
+			ChannelUtils.writeFully(chunk, target);
+			transferred += amount;
+		}
+		return transferred;
+	}
+
+	@Override
+	public RandomAccessData getSubsection(long offset, long length) {
+		if (offset < 0 || length < 0 || offset + length > this.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		return new MappedRandomAccessData(this.file, this.chunks, this.chunkSize,
+				this.offset + offset, length);
+	}
+
+	@Override
+	public long getSize() {
+		return this.length;
+	}
+
+	/**
+	 * {@link InputStream} implementation for the {@link MappedRandomAccessData}. Reads are
+	 * served directly from a duplicate of the relevant mapped chunk.
+	 */
+	private class DataInputStream extends InputStream {
+
+		private long position;
+
+		private int chunkIndex = -1;
+
+		private ByteBuffer chunk;
+
+		@Override
+		public int read() throws IOException {
+			if (remaining() <= 0) {
+				return -1;
+			}
+			ByteBuffer chunk = seek();
+			this.position++;
+			return chunk.get() & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b) throws IOException {
+			return read(b, 0, b == null ? 0 : b.length);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (b == null) {
+				throw new NullPointerException("Bytes must not be null");
+			}
+			if (len == 0) {
+				return 0;
+			}
+			int cappedLen = cap(len);
+			if (cappedLen <= 0) {
+				return -1;
+			}
+			int read = 0;
+			while (read < cappedLen) {
+				ByteBuffer chunk = seek();
+				int amount = Math.min(cappedLen - read, chunk.remaining());
+				chunk.get(b, off + read, amount);
+				read += amount;
+				this.position += amount;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			if (n <= 0) {
+				return 0;
+			}
+			long amount = Math.min(remaining(), n);
+			this.position += amount;
+			return amount;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return cap(Integer.MAX_VALUE);
+		}
+
+		/**
+		 * Position the buffer of the chunk containing the current stream position.
+		 * @return the positioned buffer
+		 */
+		private ByteBuffer seek() {
+			long absolute = MappedRandomAccessData.this.offset + this.position;
+			int chunkSize = MappedRandomAccessData.this.chunkSize;
+			int index = (int) (absolute / chunkSize);
+			if (index != this.chunkIndex) {
+				this.chunk = MappedRandomAccessData.this.chunks[index].duplicate();
+				this.chunkIndex = index;
+			}
+			this.chunk.position((int) (absolute - ((long) index * chunkSize)));
+			return this.chunk;
+		}
+
+		private long remaining() {
+			return MappedRandomAccessData.this.length - this.position;
+		}
+
+		/**
+		 * Cap the specified value such that it cannot exceed the number of bytes
+		 * remaining.
+		 * @param n the value to cap
+		 * @return the capped value
+		 */
+		private int cap(long n) {
+			return (int) Math.min(remaining(), n);
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,23 +16,31 @@
 
 package org.springframework.boot.loader.data;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
 
+import org.springframework.boot.loader.util.ChannelUtils;
+
 /**
  * {@link RandomAccessData} implementation backed by a {@link RandomAccessFile}.
  *
  * @author Phillip Webb
  */
-public class RandomAccessDataFile implements RandomAccessData {
+public class RandomAccessDataFile implements RandomAccessData, TransferableData {
 
 	private static final int DEFAULT_CONCURRENT_READS = 4;
 
+	private static final int BUFFER_SIZE = 8192;
+
 	private final File file;
 
 	private final FilePool filePool;
@@ -98,6 +106,48 @@ public class RandomAccessDataFile implements RandomAccessData {
 		return new DataInputStream(access);
 	}
 
+	@Override
+	public long transferTo(WritableByteChannel target) throws IOException {
+		RandomAccessFile file = this.filePool.acquire();
+		try {
+			// Let the channel transfer directly from the file (and not via the heap)
+			FileChannel channel = file.getChannel();
+			long transferred = 0;
+			while (transferred < this.length) {
+				long count = channel.transferTo(this.offset + transferred, this.length
+						- transferred, target);
+				if (count <= 0) {
+					// The channel made no progress, copy what remains via the heap
+					return transferred
+							+ copy(file, this.offset + transferred, this.length
+									- transferred, target);
+				}
+				transferred += count;
+			}
+			return transferred;
+		}
+		finally {
+			this.filePool.release(file);
+		}
+	}
+
+	private long copy(RandomAccessFile file, long position, long length,
+			WritableByteChannel target) throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		file.seek(position);
+		long remaining = length;
+		while (remaining > 0) {
+			int read = file.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+			if (read == -1) {
+				throw new EOFException();
+			}
+			ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+			ChannelUtils.writeFully(byteBuffer, target);
+			remaining -= read;
+		}
+		return length;
+	}
+
 	@Override
 	public RandomAccessData getSubsection(long offset, long length) {
 		if (offset < 0 || length < 0 || offset + length > this.length) {
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.data;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Optional interface that can be implemented by {@link RandomAccessData} that is able to
+ * transfer its content to a channel without copying it via the heap. Callers should fall
+ * back to {@link RandomAccessData#getInputStream reading} the data when it is not
+ * implemented.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public interface TransferableData {
+
+	/**
+	 * Transfer all of the underlying data to the specified channel.
+	 * @param target the target channel
+	 * @return the number of bytes transferred
+	 * @throws IOException
+	 */
+	long transferTo(WritableByteChannel target) throws IOException;
+
+}
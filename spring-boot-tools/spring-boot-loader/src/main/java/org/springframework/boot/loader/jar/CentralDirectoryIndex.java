@@ -0,0 +1,200 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.boot.loader.util.AsciiBytes;
+
+/**
+ * A pre-computed index of the "Central directory" of a nested jar, written alongside the
+ * nested jar when the outer archive is repackaged. The index allows a {@link JarFile} to
+ * locate entries without parsing every central directory record up front.
+ * <p>
+ * The index is stored as a big-endian binary structure with the following content:
+ * <ul>
+ * <li>{@code int} magic number and {@code int} format version</li>
+ * <li>{@code int} CRC-32 of the nested jar that the index was created from</li>
+ * <li>{@code int} number of records and {@code int} central directory size</li>
+ * <li>{@code int} ordinal of the manifest record (or {@code -1}) and {@code boolean}
+ * signed flag</li>
+ * <li>{@code int} offset of each record within the central directory (in record order)
+ * </li>
+ * <li>{@code int} name hash and {@code int} record ordinal pairs, sorted by hash</li>
+ * </ul>
+ * The name hash is the {@link AsciiBytes#hashCode() hash code} of the entry name.
+ *
+ * @author Phillip Webb
+ */
+class CentralDirectoryIndex {
+
+	private static final String LOCATION = "META-INF/loader/index/";
+
+	private static final String SUFFIX = ".idx";
+
+	private static final int MAGIC = 0x4A494458;
+
+	private static final int VERSION = 1;
+
+	private final int centralDirectorySize;
+
+	private final int manifestOrdinal;
+
+	private final boolean signed;
+
+	private final int[] offsets;
+
+	private final int[] hashes;
+
+	private final int[] ordinals;
+
+	private CentralDirectoryIndex(DataInputStream inputStream) throws IOException {
+		int numberOfRecords = inputStream.readInt();
+		this.centralDirectorySize = inputStream.readInt();
+		this.manifestOrdinal = inputStream.readInt();
+		this.signed = inputStream.readBoolean();
+		this.offsets = new int[numberOfRecords];
+		for (int i = 0; i < numberOfRecords; i++) {
+			this.offsets[i] = inputStream.readInt();
+		}
+		this.hashes = new int[numberOfRecords];
+		this.ordinals = new int[numberOfRecords];
+		for (int i = 0; i < numberOfRecords; i++) {
+			this.hashes[i] = inputStream.readInt();
+			this.ordinals[i] = inputStream.readInt();
+		}
+	}
+
+	/**
+	 * Returns {@code true} if the index describes a central directory with the specified
+	 * number of records and size.
+	 * @param numberOfRecords the number of records
+	 * @param centralDirectorySize the size of the central directory
+	 * @return if the index can be used
+	 */
+	public boolean matches(int numberOfRecords, long centralDirectorySize) {
+		return (numberOfRecords == getNumberOfRecords()
+				&& centralDirectorySize == this.centralDirectorySize);
+	}
+
+	public int getNumberOfRecords() {
+		return this.offsets.length;
+	}
+
+	/**
+	 * Return the offset of the specified record within the central directory.
+	 * @param ordinal the record ordinal
+	 * @return the offset
+	 */
+	public int getOffset(int ordinal) {
+		return this.offsets[ordinal];
+	}
+
+	public int getManifestOrdinal() {
+		return this.manifestOrdinal;
+	}
+
+	public boolean isSigned() {
+		return this.signed;
+	}
+
+	/**
+	 * Return the first position in the index with the specified name hash.
+	 * @param hash the name hash
+	 * @return the position or {@code -1} if no entry has the hash
+	 * @see #getHash(int)
+	 * @see #getOrdinal(int)
+	 */
+	public int getFirstPosition(int hash) {
+		int low = 0;
+		int high = this.hashes.length - 1;
+		int found = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (this.hashes[mid] < hash) {
+				low = mid + 1;
+			}
+			else {
+				if (this.hashes[mid] == hash) {
+					found = mid;
+				}
+				high = mid - 1;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Return the name hash at the specified position.
+	 * @param position the position
+	 * @return the hash
+	 */
+	public int getHash(int position) {
+		return this.hashes[position];
+	}
+
+	/**
+	 * Return the record ordinal at the specified position.
+	 * @param position the position
+	 * @return the record ordinal
+	 */
+	public int getOrdinal(int position) {
+		return this.ordinals[position];
+	}
+
+	/**
+	 * Return the name of the entry that holds the index for the specified nested jar.
+	 * @param nestedJarName the name of nested jar
+	 * @return the index entry name
+	 */
+	public static String getLocation(AsciiBytes nestedJarName) {
+		return LOCATION + nestedJarName + SUFFIX;
+	}
+
+	/**
+	 * Load a {@link CentralDirectoryIndex} from the specified entry.
+	 * @param indexEntry the entry containing the index
+	 * @param crc the CRC-32 of the nested jar that the index should describe
+	 * @return the loaded index or {@code null} if the index is not valid or is stale
+	 */
+	public static CentralDirectoryIndex load(JarEntryData indexEntry, long crc) {
+		try {
+			InputStream inputStream = indexEntry.getInputStream();
+			try {
+				DataInputStream dataInputStream = new DataInputStream(
+						new BufferedInputStream(inputStream));
+				if (dataInputStream.readInt() != MAGIC
+						|| dataInputStream.readInt() != VERSION
+						|| (dataInputStream.readInt() & 0xFFFFFFFFL) != crc) {
+					return null;
+				}
+				return new CentralDirectoryIndex(dataInputStream);
+			}
+			finally {
+				inputStream.close();
+			}
+		}
+		catch (IOException ex) {
+			// Fallback to parsing the central directory
+			return null;
+		}
+	}
+
+}
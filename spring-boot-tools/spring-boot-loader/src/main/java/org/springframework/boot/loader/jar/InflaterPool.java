@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Inflater;
+
+/**
+ * Pool of {@link Inflater} instances shared by a {@link JarFile} and any nested or
+ * filtered files created from it. Inflaters hold native memory so they are reset and
+ * reused rather than being left for finalization.
+ *
+ * @author Phillip Webb
+ */
+class InflaterPool {
+
+	private static final int DEFAULT_MAXIMUM_SIZE = 16;
+
+	private final int maximumSize;
+
+	private final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<Inflater>();
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	public InflaterPool() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	public InflaterPool(int maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Acquire an {@link Inflater} from the pool, creating a new one if necessary.
+	 * @return the inflater
+	 */
+	public Inflater acquire() {
+		Inflater inflater = this.inflaters.poll();
+		if (inflater == null) {
+			return new Inflater(true);
+		}
+		this.size.decrementAndGet();
+		return inflater;
+	}
+
+	/**
+	 * Return an {@link Inflater} to the pool. If the pool is full the inflater is ended.
+	 * @param inflater the inflater to release
+	 */
+	public void release(Inflater inflater) {
+		if (this.size.incrementAndGet() > this.maximumSize) {
+			this.size.decrementAndGet();
+			inflater.end();
+			return;
+		}
+		inflater.reset();
+		this.inflaters.add(inflater);
+	}
+
+	/**
+	 * End all inflaters that are currently held by the pool.
+	 */
+	public void close() {
+		Inflater inflater = this.inflaters.poll();
+		while (inflater != null) {
+			this.size.decrementAndGet();
+			inflater.end();
+			inflater = this.inflaters.poll();
+		}
+	}
+
+	int size() {
+		return this.size.get();
+	}
+
+}
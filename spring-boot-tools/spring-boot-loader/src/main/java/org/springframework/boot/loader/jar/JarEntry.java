@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.boot.loader.jar;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.channels.WritableByteChannel;
 import java.security.CodeSigner;
 import java.security.cert.Certificate;
 import java.util.jar.Attributes;
@@ -59,6 +60,20 @@ public class JarEntry extends java.util.jar.JarEntry {
 		return new URL(this.source.getSource().getUrl(), getName());
 	}
 
+	/**
+	 * Transfer the uncompressed content of this entry to the specified channel. Entries
+	 * that are stored without compression are transferred directly from the underlying
+	 * file (using {@link java.nio.channels.FileChannel#transferTo} where possible) rather
+	 * than being copied via the heap. Can be used with the entry returned from
+	 * {@link java.net.JarURLConnection#getJarEntry()} to serve resources efficiently.
+	 * @param target the target channel
+	 * @return the number of bytes transferred
+	 * @throws IOException if the content cannot be transferred
+	 */
+	public long transferTo(WritableByteChannel target) throws IOException {
+		return this.source.transferTo(target);
+	}
+
 	@Override
 	public Attributes getAttributes() throws IOException {
 		Manifest manifest = this.source.getSource().getManifest();
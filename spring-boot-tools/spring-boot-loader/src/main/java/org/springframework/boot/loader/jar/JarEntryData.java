@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,11 +19,15 @@ package org.springframework.boot.loader.jar;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.zip.ZipEntry;
 
 import org.springframework.boot.loader.data.RandomAccessData;
 import org.springframework.boot.loader.data.RandomAccessData.ResourceAccess;
+import org.springframework.boot.loader.data.TransferableData;
 import org.springframework.boot.loader.util.AsciiBytes;
+import org.springframework.boot.loader.util.ChannelUtils;
 
 /**
  * Holds the underlying data of a {@link JarEntry}, allowing creation to be deferred until
@@ -37,6 +41,8 @@ public final class JarEntryData {
 
 	private static final AsciiBytes SLASH = new AsciiBytes("/");
 
+	private static final int BUFFER_SIZE = 8192;
+
 	private final JarFile source;
 
 	private final byte[] header;
@@ -88,11 +94,40 @@ public final class JarEntryData {
 	InputStream getInputStream() throws IOException {
 		InputStream inputStream = getData().getInputStream(ResourceAccess.PER_READ);
 		if (getMethod() == ZipEntry.DEFLATED) {
-			inputStream = new ZipInflaterInputStream(inputStream, getSize());
+			inputStream = new ZipInflaterInputStream(inputStream,
+					this.source.getInflaterPool(), getSize());
 		}
 		return inputStream;
 	}
 
+	/**
+	 * Transfer the uncompressed content of this entry to the specified channel.
+	 * @param target the target channel
+	 * @return the number of bytes transferred
+	 * @throws IOException if the content cannot be transferred
+	 * @see JarEntry#transferTo(WritableByteChannel)
+	 */
+	public long transferTo(WritableByteChannel target) throws IOException {
+		RandomAccessData data = getData();
+		if (getMethod() == ZipEntry.STORED && data instanceof TransferableData) {
+			return ((TransferableData) data).transferTo(target);
+		}
+		InputStream inputStream = getInputStream();
+		try {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			long transferred = 0;
+			int read;
+			while ((read = inputStream.read(buffer)) != -1) {
+				ChannelUtils.writeFully(ByteBuffer.wrap(buffer, 0, read), target);
+				transferred += read;
+			}
+			return transferred;
+		}
+		finally {
+			inputStream.close();
+		}
+	}
+
 	/**
 	 * @return the underlying {@link RandomAccessData} for this entry. Generally this
 	 * method should not be called directly and instead data should be accessed via
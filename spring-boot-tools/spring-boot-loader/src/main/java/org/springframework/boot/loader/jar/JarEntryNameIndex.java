@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.util.List;
+
+import org.springframework.boot.loader.util.AsciiBytes;
+
+/**
+ * Open addressing hash index used to find {@link JarEntryData} by name. The index only
+ * holds primitive {@code int} arrays (name hashes and entry positions) so it can remain
+ * resident for the lifetime of the {@link JarFile} and lookups don't allocate.
+ *
+ * @author Phillip Webb
+ */
+class JarEntryNameIndex {
+
+	private static final int EMPTY = -1;
+
+	private final List<JarEntryData> entries;
+
+	private final int[] hashes;
+
+	private final int[] positions;
+
+	private final int mask;
+
+	/**
+	 * Create a new {@link JarEntryNameIndex} for the specified entries.
+	 * @param entries the entries to index (must not change once indexed)
+	 */
+	public JarEntryNameIndex(List<JarEntryData> entries) {
+		this.entries = entries;
+		int capacity = getCapacity(entries.size());
+		this.hashes = new int[capacity];
+		this.positions = new int[capacity];
+		this.mask = capacity - 1;
+		for (int i = 0; i < capacity; i++) {
+			this.positions[i] = EMPTY;
+		}
+		for (int position = 0; position < entries.size(); position++) {
+			add(position, entries.get(position).getName());
+		}
+	}
+
+	private int getCapacity(int numberOfEntries) {
+		// Keep the load factor at or below 0.5 so that probe sequences stay short
+		int capacity = Integer.highestOneBit(Math.max(numberOfEntries, 1) * 2 - 1) << 1;
+		return Math.max(capacity, 2);
+	}
+
+	private void add(int position, AsciiBytes name) {
+		int hash = name.hashCode();
+		int slot = spread(hash) & this.mask;
+		while (this.positions[slot] != EMPTY) {
+			if (this.hashes[slot] == hash
+					&& this.entries.get(this.positions[slot]).getName().equals(name)) {
+				// Later entries replace earlier ones with the same name
+				break;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		this.hashes[slot] = hash;
+		this.positions[slot] = position;
+	}
+
+	/**
+	 * Return the entry with the specified name.
+	 * @param name the entry name
+	 * @return the entry or {@code null} if there is no entry with the name
+	 */
+	public JarEntryData get(AsciiBytes name) {
+		int hash = name.hashCode();
+		int slot = spread(hash) & this.mask;
+		int position = this.positions[slot];
+		while (position != EMPTY) {
+			if (this.hashes[slot] == hash) {
+				JarEntryData candidate = this.entries.get(position);
+				if (candidate.getName().equals(name)) {
+					return candidate;
+				}
+			}
+			slot = (slot + 1) & this.mask;
+			position = this.positions[slot];
+		}
+		return null;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.boot.loader.jar;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -26,14 +27,14 @@ import java.net.URLStreamHandler;
 import java.net.URLStreamHandlerFactory;
 import java.util.ArrayList;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
 
+import org.springframework.boot.loader.data.MappedRandomAccessData;
 import org.springframework.boot.loader.data.RandomAccessData;
 import org.springframework.boot.loader.data.RandomAccessData.ResourceAccess;
 import org.springframework.boot.loader.data.RandomAccessDataFile;
@@ -66,6 +67,12 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 
 	private static final String HANDLERS_PACKAGE = "org.springframework.boot.loader";
 
+	/**
+	 * System property that can be set to {@code true} in order to memory map root jar
+	 * files rather than reading them via a pool of {@link java.io.RandomAccessFile}s.
+	 */
+	public static final String MAPPED_PROPERTY = "loader.jar.mapped";
+
 	private static final AsciiBytes SLASH = new AsciiBytes("/");
 
 	private final RandomAccessDataFile rootFile;
@@ -74,9 +81,17 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 
 	private final RandomAccessData data;
 
-	private final List<JarEntryData> entries;
+	private final InflaterPool inflaterPool;
+
+	private volatile List<JarEntryData> entries;
+
+	private CentralDirectoryIndex index;
+
+	private byte[] centralDirectory;
+
+	private AtomicReferenceArray<JarEntryData> indexedEntries;
 
-	private SoftReference<Map<AsciiBytes, JarEntryData>> entriesByName;
+	private JarEntryNameIndex entriesByName;
 
 	private boolean signed;
 
@@ -101,7 +116,7 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 	 * @throws IOException
 	 */
 	JarFile(RandomAccessDataFile file) throws IOException {
-		this(file, "", file);
+		this(file, "", getRootData(file), new InflaterPool(), null);
 	}
 
 	/**
@@ -110,26 +125,50 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 	 * @param rootFile the root jar file
 	 * @param pathFromRoot the name of this file
 	 * @param data the underlying data
+	 * @param inflaterPool the pool used to obtain inflaters
+	 * @param index a pre-computed central directory index or {@code null}
 	 * @throws IOException
 	 */
 	private JarFile(RandomAccessDataFile rootFile, String pathFromRoot,
-			RandomAccessData data) throws IOException {
+			RandomAccessData data, InflaterPool inflaterPool,
+			CentralDirectoryIndex index) throws IOException {
 		super(rootFile.getFile());
 		CentralDirectoryEndRecord endRecord = new CentralDirectoryEndRecord(data);
 		this.rootFile = rootFile;
 		this.pathFromRoot = pathFromRoot;
+		this.inflaterPool = inflaterPool;
 		this.data = getArchiveData(endRecord, data);
-		this.entries = loadJarEntries(endRecord);
+		RandomAccessData centralDirectory = endRecord.getCentralDirectory(this.data);
+		if (index != null
+				&& index.matches(endRecord.getNumberOfRecords(),
+						centralDirectory.getSize())) {
+			loadIndexedJarEntries(centralDirectory, index);
+		}
+		else {
+			this.entries = loadJarEntries(centralDirectory,
+					endRecord.getNumberOfRecords());
+			this.entriesByName = new JarEntryNameIndex(this.entries);
+		}
 	}
 
 	private JarFile(RandomAccessDataFile rootFile, String pathFromRoot,
-			RandomAccessData data, List<JarEntryData> entries, JarEntryFilter... filters)
-			throws IOException {
+			RandomAccessData data, InflaterPool inflaterPool, List<JarEntryData> entries,
+			JarEntryFilter... filters) throws IOException {
 		super(rootFile.getFile());
 		this.rootFile = rootFile;
 		this.pathFromRoot = pathFromRoot;
 		this.data = data;
+		this.inflaterPool = inflaterPool;
 		this.entries = filterEntries(entries, filters);
+		this.entriesByName = new JarEntryNameIndex(this.entries);
+	}
+
+	private static RandomAccessData getRootData(RandomAccessDataFile file)
+			throws IOException {
+		if (Boolean.getBoolean(MAPPED_PROPERTY)) {
+			return new MappedRandomAccessData(file.getFile());
+		}
+		return file;
 	}
 
 	private RandomAccessData getArchiveData(CentralDirectoryEndRecord endRecord,
@@ -141,10 +180,8 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 		return data.getSubsection(offset, data.getSize() - offset);
 	}
 
-	private List<JarEntryData> loadJarEntries(CentralDirectoryEndRecord endRecord)
-			throws IOException {
-		RandomAccessData centralDirectory = endRecord.getCentralDirectory(this.data);
-		int numberOfRecords = endRecord.getNumberOfRecords();
+	private List<JarEntryData> loadJarEntries(RandomAccessData centralDirectory,
+			int numberOfRecords) throws IOException {
 		List<JarEntryData> entries = new ArrayList<JarEntryData>(numberOfRecords);
 		InputStream inputStream = centralDirectory.getInputStream(ResourceAccess.ONCE);
 		try {
@@ -161,6 +198,50 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 		return entries;
 	}
 
+	private void loadIndexedJarEntries(RandomAccessData centralDirectory,
+			CentralDirectoryIndex index) throws IOException {
+		// Read the raw central directory but defer creating entries until needed
+		this.index = index;
+		this.centralDirectory = Bytes.get(centralDirectory);
+		this.indexedEntries = new AtomicReferenceArray<JarEntryData>(
+				index.getNumberOfRecords());
+		if (index.getManifestOrdinal() >= 0) {
+			this.manifestEntry = getIndexedEntry(index.getManifestOrdinal());
+		}
+		this.signed = index.isSigned();
+	}
+
+	private JarEntryData getIndexedEntry(int ordinal) {
+		JarEntryData entry = this.indexedEntries.get(ordinal);
+		if (entry == null) {
+			int offset = this.index.getOffset(ordinal);
+			try {
+				entry = JarEntryData.fromInputStream(this, new ByteArrayInputStream(
+						this.centralDirectory, offset, this.centralDirectory.length
+								- offset));
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(ex);
+			}
+			if (!this.indexedEntries.compareAndSet(ordinal, null, entry)) {
+				entry = this.indexedEntries.get(ordinal);
+			}
+		}
+		return entry;
+	}
+
+	private List<JarEntryData> getEntries() {
+		if (this.entries == null) {
+			int numberOfRecords = this.index.getNumberOfRecords();
+			List<JarEntryData> entries = new ArrayList<JarEntryData>(numberOfRecords);
+			for (int ordinal = 0; ordinal < numberOfRecords; ordinal++) {
+				entries.add(getIndexedEntry(ordinal));
+			}
+			this.entries = entries;
+		}
+		return this.entries;
+	}
+
 	private List<JarEntryData> filterEntries(List<JarEntryData> entries,
 			JarEntryFilter[] filters) {
 		List<JarEntryData> filteredEntries = new ArrayList<JarEntryData>(entries.size());
@@ -202,6 +283,10 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 		return this.data;
 	}
 
+	InflaterPool getInflaterPool() {
+		return this.inflaterPool;
+	}
+
 	@Override
 	public Manifest getManifest() throws IOException {
 		if (this.manifestEntry == null) {
@@ -240,7 +325,31 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 
 	@Override
 	public Iterator<JarEntryData> iterator() {
-		return this.entries.iterator();
+		return getEntries().iterator();
+	}
+
+	/**
+	 * Return the names of all entries in this file. Unlike {@link #iterator()} this
+	 * method does not require entries of an indexed nested jar to be created.
+	 * @return the entry names
+	 */
+	public List<AsciiBytes> getEntryNames() {
+		if (this.entries == null) {
+			int numberOfRecords = this.index.getNumberOfRecords();
+			List<AsciiBytes> names = new ArrayList<AsciiBytes>(numberOfRecords);
+			for (int ordinal = 0; ordinal < numberOfRecords; ordinal++) {
+				int offset = this.index.getOffset(ordinal);
+				int nameLength = (int) Bytes.littleEndianValue(this.centralDirectory,
+						offset + 28, 2);
+				names.add(new AsciiBytes(this.centralDirectory, offset + 46, nameLength));
+			}
+			return names;
+		}
+		List<AsciiBytes> names = new ArrayList<AsciiBytes>(this.entries.size());
+		for (JarEntryData entry : this.entries) {
+			names.add(entry.getName());
+		}
+		return names;
 	}
 
 	@Override
@@ -265,24 +374,35 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 		if (name == null) {
 			return null;
 		}
-		Map<AsciiBytes, JarEntryData> entriesByName = (this.entriesByName == null ? null
-				: this.entriesByName.get());
-		if (entriesByName == null) {
-			entriesByName = new HashMap<AsciiBytes, JarEntryData>();
-			for (JarEntryData entry : this.entries) {
-				entriesByName.put(entry.getName(), entry);
-			}
-			this.entriesByName = new SoftReference<Map<AsciiBytes, JarEntryData>>(
-					entriesByName);
-		}
-
-		JarEntryData entryData = entriesByName.get(name);
+		JarEntryData entryData = findJarEntryData(name);
 		if (entryData == null && !name.endsWith(SLASH)) {
-			entryData = entriesByName.get(name.append(SLASH));
+			entryData = findJarEntryData(name.append(SLASH));
 		}
 		return entryData;
 	}
 
+	private JarEntryData findJarEntryData(AsciiBytes name) {
+		if (this.index != null) {
+			return findIndexedJarEntryData(name);
+		}
+		return this.entriesByName.get(name);
+	}
+
+	private JarEntryData findIndexedJarEntryData(AsciiBytes name) {
+		int hash = name.hashCode();
+		int numberOfRecords = this.index.getNumberOfRecords();
+		int position = this.index.getFirstPosition(hash);
+		while (position != -1 && position < numberOfRecords
+				&& this.index.getHash(position) == hash) {
+			JarEntryData candidate = getIndexedEntry(this.index.getOrdinal(position));
+			if (candidate.getName().equals(name)) {
+				return candidate;
+			}
+			position++;
+		}
+		return null;
+	}
+
 	boolean isSigned() {
 		return this.signed;
 	}
@@ -369,7 +489,7 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 		};
 		return new JarFile(this.rootFile, this.pathFromRoot + "!/"
 				+ sourceEntry.getName().substring(0, sourceName.length() - 1), this.data,
-				this.entries, filter);
+				this.inflaterPool, getEntries(), filter);
 	}
 
 	private JarFile createJarFileFromFileEntry(JarEntryData sourceEntry)
@@ -381,7 +501,17 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 					+ "mechanism used to create your executable jar file");
 		}
 		return new JarFile(this.rootFile, this.pathFromRoot + "!/"
-				+ sourceEntry.getName(), sourceEntry.getData());
+				+ sourceEntry.getName(), sourceEntry.getData(), this.inflaterPool,
+				getCentralDirectoryIndex(sourceEntry));
+	}
+
+	private CentralDirectoryIndex getCentralDirectoryIndex(JarEntryData sourceEntry) {
+		JarEntryData indexEntry = getJarEntryData(CentralDirectoryIndex
+				.getLocation(sourceEntry.getName()));
+		if (indexEntry == null) {
+			return null;
+		}
+		return CentralDirectoryIndex.load(indexEntry, sourceEntry.getCrc());
 	}
 
 	/**
@@ -392,8 +522,8 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 	 */
 	public synchronized JarFile getFilteredJarFile(JarEntryFilter... filters)
 			throws IOException {
-		return new JarFile(this.rootFile, this.pathFromRoot, this.data, this.entries,
-				filters);
+		return new JarFile(this.rootFile, this.pathFromRoot, this.data,
+				this.inflaterPool, getEntries(), filters);
 	}
 
 	private JarEntry getContainedEntry(ZipEntry zipEntry) throws IOException {
@@ -412,6 +542,7 @@ public class JarFile extends java.util.jar.JarFile implements Iterable<JarEntryD
 	@Override
 	public void close() throws IOException {
 		this.rootFile.close();
+		this.inflaterPool.close();
 	}
 
 	/**
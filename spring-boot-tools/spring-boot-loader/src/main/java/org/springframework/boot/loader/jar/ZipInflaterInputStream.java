@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,18 +24,26 @@ import java.util.zip.InflaterInputStream;
 
 /**
  * {@link InflaterInputStream} that supports the writing of an extra "dummy" byte (which
- * is required with JDK 6) and returns accurate available() results.
+ * is required with JDK 6) and returns accurate available() results. The {@link Inflater}
+ * is obtained from an {@link InflaterPool} and is returned to it when the stream is
+ * closed.
  *
  * @author Phillip Webb
  */
 class ZipInflaterInputStream extends InflaterInputStream {
 
+	private final InflaterPool inflaterPool;
+
 	private boolean extraBytesWritten;
 
 	private int available;
 
-	public ZipInflaterInputStream(InputStream inputStream, int size) {
-		super(inputStream, new Inflater(true), getInflaterBufferSize(size));
+	private boolean inflaterReleased;
+
+	public ZipInflaterInputStream(InputStream inputStream, InflaterPool inflaterPool,
+			int size) {
+		super(inputStream, inflaterPool.acquire(), getInflaterBufferSize(size));
+		this.inflaterPool = inflaterPool;
 		this.available = size;
 	}
 
@@ -56,6 +64,19 @@ class ZipInflaterInputStream extends InflaterInputStream {
 		return result;
 	}
 
+	@Override
+	public void close() throws IOException {
+		try {
+			super.close();
+		}
+		finally {
+			if (!this.inflaterReleased) {
+				this.inflaterReleased = true;
+				this.inflaterPool.release(this.inf);
+			}
+		}
+	}
+
 	@Override
 	protected void fill() throws IOException {
 		try {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,6 +40,8 @@ public final class AsciiBytes {
 
 	private String string;
 
+	private int hash;
+
 	/**
 	 * Create a new {@link AsciiBytes} from the specified String.
 	 * @param string
@@ -109,13 +111,27 @@ public final class AsciiBytes {
 		return true;
 	}
 
+	/**
+	 * Return the index of the last occurrence of the specified ASCII character.
+	 * @param ch the character to find
+	 * @return the index of the character or {@code -1} if it does not occur
+	 */
+	public int lastIndexOf(char ch) {
+		for (int i = this.length - 1; i >= 0; i--) {
+			if (this.bytes[this.offset + i] == ch) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 	public AsciiBytes substring(int beginIndex) {
 		return substring(beginIndex, this.length);
 	}
 
 	public AsciiBytes substring(int beginIndex, int endIndex) {
 		int length = endIndex - beginIndex;
-		if (this.offset + length > this.length) {
+		if (beginIndex < 0 || length < 0 || endIndex > this.length) {
 			throw new IndexOutOfBoundsException();
 		}
 		return new AsciiBytes(this.bytes, this.offset + beginIndex, length);
@@ -132,7 +148,11 @@ public final class AsciiBytes {
 		if (asciiBytes == null || asciiBytes.length() == 0) {
 			return this;
 		}
-		return append(asciiBytes.bytes);
+		byte[] combined = new byte[this.length + asciiBytes.length];
+		System.arraycopy(this.bytes, this.offset, combined, 0, this.length);
+		System.arraycopy(asciiBytes.bytes, asciiBytes.offset, combined, this.length,
+				asciiBytes.length);
+		return new AsciiBytes(combined);
 	}
 
 	public AsciiBytes append(byte[] bytes) {
@@ -155,12 +175,15 @@ public final class AsciiBytes {
 
 	@Override
 	public int hashCode() {
-		int hash = INITIAL_HASH;
-		for (int i = 0; i < this.length; i++) {
-			hash = MULTIPLIER * hash + this.bytes[this.offset + i];
+		int hash = this.hash;
+		if (hash == 0) {
+			hash = INITIAL_HASH;
+			for (int i = 0; i < this.length; i++) {
+				hash = MULTIPLIER * hash + this.bytes[this.offset + i];
+			}
+			this.hash = hash;
 		}
 		return hash;
-
 	}
 
 	@Override
@@ -173,6 +196,9 @@ public final class AsciiBytes {
 		}
 		if (obj.getClass().equals(AsciiBytes.class)) {
 			AsciiBytes other = (AsciiBytes) obj;
+			if (this.hash != 0 && other.hash != 0 && this.hash != other.hash) {
+				return false;
+			}
 			if (this.length == other.length) {
 				for (int i = 0; i < this.length; i++) {
 					if (this.bytes[this.offset + i] != other.bytes[other.offset + i]) {
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Utilities for working with NIO channels.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public abstract class ChannelUtils {
+
+	/**
+	 * Write all of the remaining bytes of the buffer to the channel. Fails rather than
+	 * spinning if the channel stops accepting bytes, as a non-blocking channel may.
+	 * @param buffer the buffer to write
+	 * @param target the target channel
+	 * @throws IOException if the bytes cannot be written
+	 */
+	public static void writeFully(ByteBuffer buffer, WritableByteChannel target)
+			throws IOException {
+		while (buffer.hasRemaining()) {
+			if (target.write(buffer) == 0) {
+				throw new IOException("Unable to write to " + target);
+			}
+		}
+	}
+
+}
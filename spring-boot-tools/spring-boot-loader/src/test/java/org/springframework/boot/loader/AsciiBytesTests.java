@@ -108,6 +108,23 @@ public class AsciiBytesTests {
 		abcd.substring(3, 5);
 	}
 
+	@Test
+	public void substringWithOffset() throws Exception {
+		AsciiBytes bcd = new AsciiBytes(new byte[] { 65, 66, 67, 68 }, 1, 3);
+		assertThat(bcd.substring(0, 3).toString(), equalTo("BCD"));
+		assertThat(bcd.substring(1, 2).toString(), equalTo("C"));
+		this.thrown.expect(IndexOutOfBoundsException.class);
+		bcd.substring(1, 4);
+	}
+
+	@Test
+	public void lastIndexOf() throws Exception {
+		AsciiBytes name = new AsciiBytes("a/b/c");
+		assertThat(name.lastIndexOf('/'), equalTo(3));
+		assertThat(name.lastIndexOf('x'), equalTo(-1));
+		assertThat(name.substring(0, 2).lastIndexOf('/'), equalTo(1));
+	}
+
 	@Test
 	public void appendString() throws Exception {
 		AsciiBytes bc = new AsciiBytes(new byte[] { 65, 66, 67, 68 }, 1, 2);
@@ -124,6 +141,13 @@ public class AsciiBytesTests {
 		assertThat(appended.toString(), equalTo("BCD"));
 	}
 
+	@Test
+	public void appendAsciiBytesWithOffset() throws Exception {
+		AsciiBytes bc = new AsciiBytes(new byte[] { 65, 66, 67, 68 }, 1, 2);
+		AsciiBytes d = new AsciiBytes(new byte[] { 65, 66, 67, 68 }, 3, 1);
+		assertThat(bc.append(d).toString(), equalTo("BCD"));
+	}
+
 	@Test
 	public void hashCodeAndEquals() throws Exception {
 		AsciiBytes abcd = new AsciiBytes(new byte[] { 65, 66, 67, 68 });
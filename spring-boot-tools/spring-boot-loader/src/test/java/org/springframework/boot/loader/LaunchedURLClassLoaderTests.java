@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,18 +17,32 @@
 package org.springframework.boot.loader;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.springframework.boot.loader.jar.JarFile;
+import org.springframework.util.FileCopyUtils;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Tests for {@link LaunchedURLClassLoader}.
@@ -100,4 +114,124 @@ public class LaunchedURLClassLoaderTests {
 		assertThat(resource.openConnection().getInputStream().read(), equalTo(3));
 	}
 
+	@Test
+	public void resolveResourcesUsingIndex() throws Exception {
+		File file = this.temporaryFolder.newFile();
+		TestJarCreator.createTestJar(file);
+		JarFile jarFile = new JarFile(file);
+		URL[] urls = new URL[] { jarFile.getUrl(),
+				jarFile.getNestedJarFile(jarFile.getEntry("nested.jar")).getUrl() };
+		LaunchedURLClassLoader loader = new LaunchedURLClassLoader(urls, null);
+		URLClassLoader expected = new URLClassLoader(urls, null);
+		for (String name : Arrays.asList("1.dat", "d/9.dat", "d", "d/",
+				"special/\u00EB.dat", "3.dat", "META-INF/MANIFEST.MF", "missing.dat",
+				"missing/1.dat")) {
+			assertThat(name, String.valueOf(loader.getResource(name)),
+					equalTo(String.valueOf(expected.getResource(name))));
+			assertThat(name, Collections.list(loader.getResources(name)),
+					equalTo(Collections.list(expected.getResources(name))));
+		}
+		assertThat(Collections.list(loader.getResources("META-INF/MANIFEST.MF")).size(),
+				equalTo(2));
+	}
+
+	@Test
+	public void loadMissingClassMoreThanOnce() throws Exception {
+		LaunchedURLClassLoader loader = new LaunchedURLClassLoader(new URL[] { new URL(
+				"jar:file:src/test/resources/jars/app.jar!/") }, getClass()
+				.getClassLoader());
+		for (int i = 0; i < 2; i++) {
+			try {
+				loader.loadClass("demo.DoesNotExist");
+				fail("Did not throw ClassNotFoundException");
+			}
+			catch (ClassNotFoundException ex) {
+				assertThat(ex.getMessage(), equalTo("demo.DoesNotExist"));
+			}
+		}
+	}
+
+	@Test
+	public void loadClassDefinedAfterMiss() throws Exception {
+		// Proxy generators probe for a class and then define it in the loader
+		DefiningClassLoader loader = new DefiningClassLoader(new URL[0]);
+		String name = DefinedLater.class.getName();
+		try {
+			loader.loadClass(name);
+			fail("Did not throw ClassNotFoundException");
+		}
+		catch (ClassNotFoundException ex) {
+			// Expected
+		}
+		Class<?> defined = loader.define(name);
+		assertThat(loader.loadClass(name), sameInstance((Object) defined));
+		assertThat(Class.forName(name, false, loader), sameInstance((Object) defined));
+	}
+
+	@Test
+	public void loadClassAfterMissAndAddUrl() throws Exception {
+		DefiningClassLoader loader = new DefiningClassLoader(new URL[0]);
+		String name = DefinedLater.class.getName();
+		try {
+			loader.loadClass(name);
+			fail("Did not throw ClassNotFoundException");
+		}
+		catch (ClassNotFoundException ex) {
+			// Expected
+		}
+		loader.addURL(DefinedLater.class.getProtectionDomain().getCodeSource()
+				.getLocation());
+		assertThat(loader.loadClass(name).getClassLoader(),
+				equalTo((ClassLoader) loader));
+	}
+
+	@Test
+	public void loadClassesConcurrently() throws Exception {
+		final LaunchedURLClassLoader loader = new LaunchedURLClassLoader(
+				new URL[] { new URL("jar:file:src/test/resources/jars/app.jar!/") },
+				getClass().getClassLoader());
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		List<Future<Class<?>>> results = new ArrayList<Future<Class<?>>>();
+		for (int i = 0; i < 32; i++) {
+			results.add(executorService.submit(new Callable<Class<?>>() {
+
+				@Override
+				public Class<?> call() throws Exception {
+					return loader.loadClass("demo.Application");
+				}
+
+			}));
+		}
+		Class<?> loaded = results.get(0).get();
+		assertThat(loaded.getClassLoader(), equalTo((ClassLoader) loader));
+		for (Future<Class<?>> result : results) {
+			assertThat(result.get(), sameInstance((Object) loaded));
+		}
+		executorService.shutdown();
+	}
+
+	private static class DefiningClassLoader extends LaunchedURLClassLoader {
+
+		DefiningClassLoader(URL[] urls) {
+			super(urls, null);
+		}
+
+		@Override
+		public void addURL(URL url) {
+			super.addURL(url);
+		}
+
+		public Class<?> define(String name) throws IOException {
+			InputStream inputStream = LaunchedURLClassLoaderTests.class
+					.getResourceAsStream("/" + name.replace('.', '/') + ".class");
+			byte[] bytes = FileCopyUtils.copyToByteArray(inputStream);
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+
+	}
+
+	public static class DefinedLater {
+
+	}
+
 }
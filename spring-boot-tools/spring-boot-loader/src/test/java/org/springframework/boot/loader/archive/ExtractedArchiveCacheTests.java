@@ -0,0 +1,124 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.archive;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.loader.TestJarCreator;
+import org.springframework.boot.loader.archive.Archive.Entry;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for {@link ExtractedArchiveCache}.
+ *
+ * @author Phillip Webb
+ */
+public class ExtractedArchiveCacheTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File directory;
+
+	private ExtractedArchiveCache cache;
+
+	@Before
+	public void setup() throws Exception {
+		File rootJarFile = this.temporaryFolder.newFile();
+		TestJarCreator.createTestJar(rootJarFile);
+		this.directory = this.temporaryFolder.newFolder();
+		this.cache = new ExtractedArchiveCache(new JarFileArchive(rootJarFile),
+				this.directory);
+	}
+
+	@Test
+	public void extractsNestedJars() throws Exception {
+		List<Archive> archives = this.cache.getNestedArchives("test", new JarFilter());
+		assertThat(archives.size(), equalTo(1));
+		assertThat(archives.get(0).getUrl().toString(), startsWith("file:"));
+		assertThat(archives.get(0).getUrl().toString(), endsWith("-nested.jar"));
+		assertThat(archives.get(0).getManifest().getMainAttributes()
+				.getValue("Built-By"), equalTo("j2"));
+		assertThat(listFiles(".jar").length, equalTo(1));
+		assertThat(listFiles(".idx").length, equalTo(1));
+	}
+
+	@Test
+	public void reusesExtractedJars() throws Exception {
+		List<Archive> archives = this.cache.getNestedArchives("test", new JarFilter());
+		File extracted = listFiles(".jar")[0];
+		extracted.setLastModified(0);
+		List<Archive> cached = this.cache.getNestedArchives("test", new JarFilter());
+		assertThat(cached.get(0).getUrl(), equalTo(archives.get(0).getUrl()));
+		assertThat(extracted.lastModified(), equalTo(0L));
+	}
+
+	@Test
+	public void extractsAgainWhenJarIsRemoved() throws Exception {
+		this.cache.getNestedArchives("test", new JarFilter());
+		listFiles(".jar")[0].delete();
+		List<Archive> archives = this.cache.getNestedArchives("test", new JarFilter());
+		assertThat(archives.size(), equalTo(1));
+		assertThat(listFiles(".jar").length, equalTo(1));
+		assertThat(archives.get(0).getManifest().getMainAttributes()
+				.getValue("Built-By"), equalTo("j2"));
+	}
+
+	@Test
+	public void usesClassPathFileForKey() throws Exception {
+		this.cache.getNestedArchives("one", new JarFilter());
+		this.cache.getNestedArchives("two", new Archive.EntryFilter() {
+			@Override
+			public boolean matches(Entry entry) {
+				return entry.getName().toString().equals("d/");
+			}
+		});
+		assertThat(listFiles(".idx").length, equalTo(2));
+		List<Archive> archives = this.cache.getNestedArchives("one", new JarFilter());
+		assertThat(archives.size(), equalTo(1));
+		assertThat(archives.get(0).getUrl().toString(), endsWith("-nested.jar"));
+	}
+
+	private File[] listFiles(final String suffix) {
+		return this.directory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(suffix);
+			}
+		});
+	}
+
+	private static class JarFilter implements Archive.EntryFilter {
+
+		@Override
+		public boolean matches(Entry entry) {
+			return entry.getName().toString().endsWith(".jar");
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.boot.loader.archive;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,10 +25,12 @@ import java.util.Map;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 import org.springframework.boot.loader.TestJarCreator;
 import org.springframework.boot.loader.archive.Archive.Entry;
 import org.springframework.boot.loader.util.AsciiBytes;
+import org.springframework.util.FileCopyUtils;
 
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
@@ -44,6 +47,9 @@ public class JarFileArchiveTests {
 	@Rule
 	public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
 	private File rootJarFile;
 
 	private JarFileArchive archive;
@@ -98,6 +104,24 @@ public class JarFileArchiveTests {
 		assertThat(nested.getUrl().toString(), endsWith(".jar"));
 	}
 
+	@Test
+	public void createWithUrlForCorruptFile() throws Exception {
+		File file = this.temporaryFolder.newFile();
+		FileCopyUtils.copy(new byte[] { 1, 2, 3 }, file);
+		this.thrown.expect(IOException.class);
+		new JarFileArchive(file, file.toURI().toURL());
+	}
+
+	@Test
+	public void createLazyDoesNotOpenFile() throws Exception {
+		File file = this.temporaryFolder.newFile();
+		FileCopyUtils.copy(new byte[] { 1, 2, 3 }, file);
+		JarFileArchive archive = new JarFileArchive(file, file.toURI().toURL(), true);
+		assertThat(archive.getUrl(), equalTo(file.toURI().toURL()));
+		this.thrown.expect(IllegalStateException.class);
+		archive.getEntries();
+	}
+
 	@Test
 	public void getFilteredArchive() throws Exception {
 		Archive filteredArchive = this.archive
@@ -16,6 +16,9 @@
 
 package org.springframework.boot.loader.data;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+
 import org.junit.Test;
 import org.springframework.boot.loader.data.RandomAccessData.ResourceAccess;
 import org.springframework.util.FileCopyUtils;
@@ -48,4 +51,15 @@ public class ByteArrayRandomAccessDataTests {
 				.getInputStream(ResourceAccess.PER_READ)), equalTo(new byte[] { 2, 3 }));
 		assertThat(data.getSize(), equalTo(2L));
 	}
+
+	@Test
+	public void testTransferTo() throws Exception {
+		byte[] bytes = new byte[] { 0, 1, 2, 3, 4, 5 };
+		RandomAccessData data = new ByteArrayRandomAccessData(bytes).getSubsection(1, 4);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		assertThat(((TransferableData) data).transferTo(Channels
+				.newChannel(outputStream)), equalTo(4L));
+		assertThat(outputStream.toByteArray(), equalTo(new byte[] { 1, 2, 3, 4 }));
+	}
+
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.loader.data.RandomAccessData.ResourceAccess;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for {@link MappedRandomAccessData}.
+ *
+ * @author Phillip Webb
+ */
+public class MappedRandomAccessDataTests {
+
+	private static final byte[] BYTES;
+	static {
+		BYTES = new byte[256];
+		for (int i = 0; i < BYTES.length; i++) {
+			BYTES[i] = (byte) i;
+		}
+	}
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File tempFile;
+
+	private MappedRandomAccessData data;
+
+	private InputStream inputStream;
+
+	@Before
+	public void setup() throws Exception {
+		this.tempFile = this.temporaryFolder.newFile();
+		FileOutputStream outputStream = new FileOutputStream(this.tempFile);
+		outputStream.write(BYTES);
+		outputStream.close();
+		this.data = new MappedRandomAccessData(this.tempFile, 100);
+		this.inputStream = this.data.getInputStream(ResourceAccess.PER_READ);
+	}
+
+	@Test
+	public void fileNotNull() throws Exception {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("File must not be null");
+		new MappedRandomAccessData(null);
+	}
+
+	@Test
+	public void fileExists() throws Exception {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("File must exist");
+		new MappedRandomAccessData(new File("/does/not/exist"));
+	}
+
+	@Test
+	public void inputStreamRead() throws Exception {
+		for (int i = 0; i <= 255; i++) {
+			assertThat(this.inputStream.read(), equalTo(i));
+		}
+		assertThat(this.inputStream.read(), equalTo(-1));
+	}
+
+	@Test
+	public void inputStreamReadBytesAcrossChunks() throws Exception {
+		byte[] b = new byte[257];
+		int amountRead = this.inputStream.read(b);
+		assertThat(Arrays.copyOf(b, 256), equalTo(BYTES));
+		assertThat(amountRead, equalTo(256));
+	}
+
+	@Test
+	public void inputSteamReadOffsetBytes() throws Exception {
+		byte[] b = new byte[7];
+		this.inputStream.skip(98);
+		int amountRead = this.inputStream.read(b, 2, 4);
+		assertThat(b, equalTo(new byte[] { 0, 0, 98, 99, 100, 101, 0 }));
+		assertThat(amountRead, equalTo(4));
+	}
+
+	@Test
+	public void inputStreamSkipMoreThanAvailable() throws Exception {
+		long amountSkipped = this.inputStream.skip(257);
+		assertThat(this.inputStream.read(), equalTo(-1));
+		assertThat(amountSkipped, equalTo(256L));
+	}
+
+	@Test
+	public void subsectionTooBig() throws Exception {
+		this.data.getSubsection(1, 255);
+		this.thrown.expect(IndexOutOfBoundsException.class);
+		this.data.getSubsection(1, 256);
+	}
+
+	@Test
+	public void subsectionAcrossChunks() throws Exception {
+		RandomAccessData subsection = this.data.getSubsection(99, 103)
+				.getSubsection(1, 101);
+		InputStream inputStream = subsection.getInputStream(ResourceAccess.ONCE);
+		byte[] b = new byte[102];
+		int amountRead = inputStream.read(b);
+		assertThat(amountRead, equalTo(101));
+		assertThat(b[0], equalTo((byte) 100));
+		assertThat(b[100], equalTo((byte) 200));
+		assertThat(inputStream.read(), equalTo(-1));
+	}
+
+	@Test
+	public void emptyFile() throws Exception {
+		File empty = this.temporaryFolder.newFile();
+		MappedRandomAccessData data = new MappedRandomAccessData(empty);
+		assertThat(data.getSize(), equalTo(0L));
+		assertThat(data.getInputStream(ResourceAccess.ONCE).read(), equalTo(-1));
+	}
+
+	@Test
+	public void getFile() throws Exception {
+		assertThat(this.data.getFile(), equalTo(this.tempFile));
+	}
+
+	@Test
+	public void concurrentReads() throws Exception {
+		ExecutorService executorService = Executors.newFixedThreadPool(20);
+		List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+		for (int i = 0; i < 100; i++) {
+			results.add(executorService.submit(new Callable<Boolean>() {
+
+				@Override
+				public Boolean call() throws Exception {
+					InputStream subsectionInputStream = MappedRandomAccessDataTests.this.data
+							.getSubsection(0, 256)
+							.getInputStream(ResourceAccess.PER_READ);
+					byte[] b = new byte[256];
+					subsectionInputStream.read(b);
+					return Arrays.equals(b, BYTES);
+				}
+			}));
+		}
+		for (Future<Boolean> future : results) {
+			assertThat(future.get(), equalTo(true));
+		}
+	}
+
+	@Test
+	public void transferTo() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		long transferred = this.data.transferTo(Channels.newChannel(outputStream));
+		assertThat(transferred, equalTo(256L));
+		assertThat(outputStream.toByteArray(), equalTo(BYTES));
+	}
+
+	@Test
+	public void transferSubsectionTo() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		long transferred = ((TransferableData) this.data.getSubsection(98, 5))
+				.transferTo(Channels.newChannel(outputStream));
+		assertThat(transferred, equalTo(5L));
+		assertThat(outputStream.toByteArray(), equalTo(new byte[] { 98, 99, 100, 101,
+				102 }));
+	}
+
+}
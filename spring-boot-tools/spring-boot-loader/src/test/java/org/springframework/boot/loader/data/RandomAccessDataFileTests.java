@@ -16,10 +16,15 @@
 
 package org.springframework.boot.loader.data;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -312,4 +317,71 @@ public class RandomAccessDataFileTests {
 		return new ByteArrayStartsWith(bytes);
 	}
 
+	@Test
+	public void transferTo() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		long transferred = this.file.transferTo(Channels.newChannel(outputStream));
+		assertThat(transferred, equalTo(256L));
+		assertThat(outputStream.toByteArray(), equalTo(BYTES));
+	}
+
+	@Test
+	public void transferSubsectionTo() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		long transferred = ((TransferableData) this.file.getSubsection(98, 5))
+				.transferTo(Channels.newChannel(outputStream));
+		assertThat(transferred, equalTo(5L));
+		assertThat(outputStream.toByteArray(), equalTo(new byte[] { 98, 99, 100, 101,
+				102 }));
+	}
+
+	@Test
+	public void transferToWhenChannelMakesNoProgress() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		long transferred = this.file.transferTo(new SlowStartChannel(Channels
+				.newChannel(outputStream)));
+		assertThat(transferred, equalTo(256L));
+		assertThat(outputStream.toByteArray(), equalTo(BYTES));
+	}
+
+	@Test
+	public void transferToWhenChannelNeverMakesProgress() throws Exception {
+		this.thrown.expect(IOException.class);
+		this.file.transferTo(new SlowStartChannel(null));
+	}
+
+	/**
+	 * {@link WritableByteChannel} that does not accept any bytes on the first write or,
+	 * when it has no delegate, on any write.
+	 */
+	private static class SlowStartChannel implements WritableByteChannel {
+
+		private final WritableByteChannel delegate;
+
+		private boolean started;
+
+		SlowStartChannel(WritableByteChannel delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if (!this.started || this.delegate == null) {
+				this.started = true;
+				return 0;
+			}
+			return this.delegate.write(src);
+		}
+
+	}
+
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.boot.loader.util.AsciiBytes;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for {@link JarEntryNameIndex}.
+ *
+ * @author Phillip Webb
+ */
+public class JarEntryNameIndexTests {
+
+	@Test
+	public void getEntry() throws Exception {
+		List<JarEntryData> entries = createEntries("a", "b/", "b/c");
+		JarEntryNameIndex index = new JarEntryNameIndex(entries);
+		assertThat(index.get(new AsciiBytes("a")), sameInstance(entries.get(0)));
+		assertThat(index.get(new AsciiBytes("b/")), sameInstance(entries.get(1)));
+		assertThat(index.get(new AsciiBytes("b/c")), sameInstance(entries.get(2)));
+	}
+
+	@Test
+	public void getMissingEntry() throws Exception {
+		JarEntryNameIndex index = new JarEntryNameIndex(createEntries("a", "b"));
+		assertThat(index.get(new AsciiBytes("c")), nullValue());
+		assertThat(index.get(new AsciiBytes("")), nullValue());
+	}
+
+	@Test
+	public void getFromEmptyIndex() throws Exception {
+		JarEntryNameIndex index = new JarEntryNameIndex(new ArrayList<JarEntryData>());
+		assertThat(index.get(new AsciiBytes("a")), nullValue());
+	}
+
+	@Test
+	public void getEntryWithCollidingHash() throws Exception {
+		// "Aa" and "BB" (and any combination of them) have the same hash code
+		List<JarEntryData> entries = createEntries("Aa", "BB", "AaAa", "AaBB", "BBAa");
+		assertThat(entries.get(0).getName().hashCode(),
+				equalTo(entries.get(1).getName().hashCode()));
+		JarEntryNameIndex index = new JarEntryNameIndex(entries);
+		for (JarEntryData entry : entries) {
+			assertThat(index.get(entry.getName()), sameInstance(entry));
+		}
+		assertThat(index.get(new AsciiBytes("BBBB")), nullValue());
+	}
+
+	@Test
+	public void getEntryWhenProbeWrapsAround() throws Exception {
+		// Three entries give a table of 8 slots. Names that all hash to the last slot
+		// are placed in slots 7, 0 and 1.
+		List<String> names = new ArrayList<String>();
+		for (int i = 0; names.size() < 3; i++) {
+			String name = "name" + i;
+			if (getSlot(new AsciiBytes(name), 8) == 7) {
+				names.add(name);
+			}
+		}
+		List<JarEntryData> entries = createEntries(names.toArray(new String[3]));
+		JarEntryNameIndex index = new JarEntryNameIndex(entries);
+		assertThat(((int[]) ReflectionTestUtils.getField(index, "positions")).length,
+				equalTo(8));
+		for (JarEntryData entry : entries) {
+			assertThat(index.get(entry.getName()), sameInstance(entry));
+		}
+		String missing = null;
+		for (int i = 0; missing == null; i++) {
+			String name = "missing" + i;
+			if (getSlot(new AsciiBytes(name), 8) == 7) {
+				missing = name;
+			}
+		}
+		assertThat(index.get(new AsciiBytes(missing)), nullValue());
+	}
+
+	@Test
+	public void duplicateNamesUseLastEntry() throws Exception {
+		List<JarEntryData> entries = createEntries("a", "b", "a");
+		JarEntryNameIndex index = new JarEntryNameIndex(entries);
+		assertThat(index.get(new AsciiBytes("a")), sameInstance(entries.get(2)));
+		assertThat(index.get(new AsciiBytes("b")), sameInstance(entries.get(1)));
+	}
+
+	@Test
+	public void getEntryWhenTableIsAtLoadFactor() throws Exception {
+		String[] names = new String[1024];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = "com/example/Class" + i + ".class";
+		}
+		List<JarEntryData> entries = createEntries(names);
+		JarEntryNameIndex index = new JarEntryNameIndex(entries);
+		assertThat(((int[]) ReflectionTestUtils.getField(index, "positions")).length,
+				equalTo(2048));
+		for (JarEntryData entry : entries) {
+			assertThat(index.get(entry.getName()), sameInstance(entry));
+		}
+		for (int i = 0; i < names.length; i++) {
+			assertThat(index.get(new AsciiBytes("com/example/Missing" + i + ".class")),
+					nullValue());
+		}
+	}
+
+	private int getSlot(AsciiBytes name, int capacity) {
+		int hash = name.hashCode();
+		return (hash ^ (hash >>> 16)) & (capacity - 1);
+	}
+
+	private List<JarEntryData> createEntries(String... names) throws IOException {
+		List<JarEntryData> entries = new ArrayList<JarEntryData>(names.length);
+		for (String name : names) {
+			byte[] nameBytes = name.getBytes("UTF-8");
+			byte[] header = new byte[46];
+			header[28] = (byte) nameBytes.length;
+			header[29] = (byte) (nameBytes.length >> 8);
+			entries.add(new JarEntryData(null, header, new ByteArrayInputStream(
+					nameBytes)));
+		}
+		return entries;
+	}
+
+}
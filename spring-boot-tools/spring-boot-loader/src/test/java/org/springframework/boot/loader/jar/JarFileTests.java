@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.boot.loader.jar;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -24,10 +26,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.channels.Channels;
 import java.nio.charset.Charset;
 import java.util.Enumeration;
 import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 
 import org.junit.Before;
@@ -160,6 +165,41 @@ public class JarFileTests {
 		assertThat(inputStream.read(), equalTo(-1));
 	}
 
+	@Test
+	public void getInputStreamReleasesInflaterWhenClosed() throws Exception {
+		InputStream inputStream = this.jarFile.getInputStream(this.jarFile
+				.getEntry("1.dat"));
+		assertThat(this.jarFile.getInflaterPool().size(), equalTo(0));
+		inputStream.close();
+		inputStream.close();
+		assertThat(this.jarFile.getInflaterPool().size(), equalTo(1));
+		inputStream = this.jarFile.getInputStream(this.jarFile.getEntry("2.dat"));
+		assertThat(this.jarFile.getInflaterPool().size(), equalTo(0));
+		assertThat(inputStream.read(), equalTo(2));
+		inputStream.close();
+	}
+
+	@Test
+	public void transferDeflatedEntry() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		long transferred = this.jarFile.getJarEntry("1.dat").transferTo(
+				Channels.newChannel(outputStream));
+		assertThat(transferred, equalTo(1L));
+		assertThat(outputStream.toByteArray(), equalTo(new byte[] { 1 }));
+	}
+
+	@Test
+	public void transferStoredEntryFromUrlConnection() throws Exception {
+		URL url = new URL(this.jarFile.getUrl(), "nested.jar");
+		JarURLConnection jarURLConnection = (JarURLConnection) url.openConnection();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		long transferred = jarURLConnection.getJarEntry().transferTo(
+				Channels.newChannel(outputStream));
+		assertThat(transferred, equalTo((long) jarURLConnection.getContentLength()));
+		assertThat(outputStream.toByteArray(),
+				equalTo(StreamUtils.copyToByteArray(url.openStream())));
+	}
+
 	@Test
 	public void getName() throws Exception {
 		assertThat(this.jarFile.getName(), equalTo(this.rootJarFile.getPath()));
@@ -407,6 +447,45 @@ public class JarFileTests {
 		getNestedJarFile();
 	}
 
+	@Test
+	public void getNestedJarFileWithStaleIndex() throws Exception {
+		File nestedFile = this.temporaryFolder.newFile();
+		TestJarCreator.createTestJar(nestedFile);
+		byte[] nestedJarData = FileCopyUtils.copyToByteArray(nestedFile);
+		File file = this.temporaryFolder.newFile();
+		JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(file));
+		try {
+			JarEntry nestedEntry = new JarEntry("nested.jar");
+			nestedEntry.setSize(nestedJarData.length);
+			nestedEntry.setCompressedSize(nestedJarData.length);
+			CRC32 crc32 = new CRC32();
+			crc32.update(nestedJarData);
+			nestedEntry.setCrc(crc32.getValue());
+			nestedEntry.setMethod(ZipEntry.STORED);
+			jarOutputStream.putNextEntry(nestedEntry);
+			jarOutputStream.write(nestedJarData);
+			jarOutputStream.closeEntry();
+			jarOutputStream.putNextEntry(new JarEntry(
+					"META-INF/loader/index/nested.jar.idx"));
+			DataOutputStream indexOutputStream = new DataOutputStream(jarOutputStream);
+			indexOutputStream.writeInt(0x4A494458);
+			indexOutputStream.writeInt(1);
+			indexOutputStream.writeInt((int) crc32.getValue() + 1);
+			indexOutputStream.flush();
+			jarOutputStream.closeEntry();
+		}
+		finally {
+			jarOutputStream.close();
+		}
+		JarFile jarFile = new JarFile(file);
+		JarFile nestedJarFile = jarFile.getNestedJarFile(jarFile.getEntry("nested.jar"));
+		assertThat(nestedJarFile.getManifest(), notNullValue());
+		assertThat(nestedJarFile.getEntry("1.dat"), notNullValue());
+		assertThat(nestedJarFile.getInputStream(nestedJarFile.getEntry("1.dat")).read(),
+				equalTo(1));
+		jarFile.close();
+	}
+
 	@Test
 	public void cannotLoadMissingJar() throws Exception {
 		// relates to gh-1070
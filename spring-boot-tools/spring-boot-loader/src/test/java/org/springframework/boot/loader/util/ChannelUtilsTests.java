@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Tests for {@link ChannelUtils}.
+ *
+ * @author Phillip Webb
+ */
+public class ChannelUtilsTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void writeFullyWithPartialWrites() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ChannelUtils.writeFully(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5 }),
+				new LimitedChannel(outputStream, 2));
+		assertArrayEquals(new byte[] { 1, 2, 3, 4, 5 }, outputStream.toByteArray());
+	}
+
+	@Test
+	public void writeFullyWhenChannelMakesNoProgress() throws Exception {
+		this.thrown.expect(IOException.class);
+		ChannelUtils.writeFully(ByteBuffer.wrap(new byte[] { 1 }), new LimitedChannel(
+				new ByteArrayOutputStream(), 0));
+	}
+
+	/**
+	 * {@link WritableByteChannel} that accepts at most a fixed number of bytes on each
+	 * write.
+	 */
+	private static class LimitedChannel implements WritableByteChannel {
+
+		private final ByteArrayOutputStream outputStream;
+
+		private final int limit;
+
+		LimitedChannel(ByteArrayOutputStream outputStream, int limit) {
+			this.outputStream = outputStream;
+			this.limit = limit;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			int count = Math.min(src.remaining(), this.limit);
+			for (int i = 0; i < count; i++) {
+				this.outputStream.write(src.get());
+			}
+			return count;
+		}
+
+	}
+
+}
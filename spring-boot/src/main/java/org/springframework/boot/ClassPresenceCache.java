@@ -0,0 +1,240 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot;
+
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * Cache of whether classes are present, scoped to a {@link ClassLoader}. Both positive
+ * and negative results are cached so that the class names that are probed repeatedly
+ * during startup (for example by conditions and when deducing the type of
+ * application) are only looked up once per class loader. Caches are held weakly
+ * against their class loader.
+ * <p>
+ * Negative results are discarded when a check that is not answered from the cache finds
+ * that URLs have been added to the {@link URLClassLoader URL class loaders} in the class
+ * loader's hierarchy, so a class that becomes available when a URL is added is found
+ * once the next class is looked up. Other class loaders are assumed not to change.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ * @see ClassUtils#isPresent(String, ClassLoader)
+ */
+public final class ClassPresenceCache {
+
+	private static final Map<ClassLoader, ClassPresenceCache> caches = Collections
+			.synchronizedMap(new WeakHashMap<ClassLoader, ClassPresenceCache>());
+
+	private final Set<String> present = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private final Set<String> missing = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * The number of class loader URLs when the missing classes were checked.
+	 */
+	private volatile int urlCount = -1;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private ClassPresenceCache() {
+	}
+
+	/**
+	 * Determine whether the {@link Class} identified by the supplied name is present
+	 * and can be loaded, using a cached result where possible.
+	 * @param className the name of the class to check
+	 * @param classLoader the class loader to use (may be {@code null}, which indicates
+	 * the default class loader)
+	 * @return whether the specified class is present
+	 */
+	public static boolean isPresent(String className, ClassLoader classLoader) {
+		classLoader = getClassLoader(classLoader);
+		return get(classLoader).isPresentUsingCache(className, classLoader);
+	}
+
+	/**
+	 * Return the cache for the given class loader.
+	 * @param classLoader the class loader (may be {@code null}, which indicates the
+	 * default class loader)
+	 * @return the cache
+	 */
+	public static ClassPresenceCache get(ClassLoader classLoader) {
+		classLoader = getClassLoader(classLoader);
+		synchronized (caches) {
+			ClassPresenceCache cache = caches.get(classLoader);
+			if (cache == null) {
+				cache = new ClassPresenceCache();
+				caches.put(classLoader, cache);
+			}
+			return cache;
+		}
+	}
+
+	private static ClassLoader getClassLoader(ClassLoader classLoader) {
+		return (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+	}
+
+	private boolean isPresentUsingCache(String className, ClassLoader classLoader) {
+		if (this.present.contains(className)) {
+			this.hits.incrementAndGet();
+			return true;
+		}
+		if (this.missing.contains(className)) {
+			this.hits.incrementAndGet();
+			return false;
+		}
+		this.misses.incrementAndGet();
+		// Only count the URLs when a class is loaded anyway since it copies them. The
+		// count is taken before the check so that a URL added while checking causes
+		// missing classes to be checked again.
+		int urlCount = getUrlCount(classLoader);
+		if (urlCount != this.urlCount) {
+			this.missing.clear();
+			this.urlCount = urlCount;
+		}
+		if (ClassUtils.isPresent(className, classLoader)) {
+			this.present.add(className);
+			return true;
+		}
+		this.missing.add(className);
+		return false;
+	}
+
+	private int getUrlCount(ClassLoader classLoader) {
+		int count = 0;
+		while (classLoader != null) {
+			if (classLoader instanceof URLClassLoader) {
+				count += ((URLClassLoader) classLoader).getURLs().length;
+			}
+			classLoader = classLoader.getParent();
+		}
+		return count;
+	}
+
+	/**
+	 * Return the number of checks that were answered from the cache.
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Return the number of checks that required the class to be loaded.
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	/**
+	 * Return the number of distinct class names that have been checked.
+	 * @return the number of cached classes
+	 */
+	public int getSize() {
+		return this.present.size() + this.missing.size();
+	}
+
+	/**
+	 * Return a snapshot of the statistics of the cache. As the cache is shared by
+	 * everything that uses the same class loader, use
+	 * {@link Statistics#since(Statistics)} to find the checks that were made between
+	 * two snapshots.
+	 * @return the current statistics
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(getSize(), getHits(), getMisses());
+	}
+
+	@Override
+	public String toString() {
+		return getStatistics().toString();
+	}
+
+	/**
+	 * Snapshot of the statistics of a {@link ClassPresenceCache}.
+	 */
+	public static final class Statistics {
+
+		private final int size;
+
+		private final long hits;
+
+		private final long misses;
+
+		private Statistics(int size, long hits, long misses) {
+			this.size = size;
+			this.hits = hits;
+			this.misses = misses;
+		}
+
+		/**
+		 * Return the number of distinct class names that had been checked.
+		 * @return the number of cached classes
+		 */
+		public int getSize() {
+			return this.size;
+		}
+
+		/**
+		 * Return the number of checks that were answered from the cache.
+		 * @return the number of hits
+		 */
+		public long getHits() {
+			return this.hits;
+		}
+
+		/**
+		 * Return the number of checks that required the class to be loaded.
+		 * @return the number of misses
+		 */
+		public long getMisses() {
+			return this.misses;
+		}
+
+		/**
+		 * Return the statistics for the checks that were made after the given snapshot
+		 * was taken.
+		 * @param earlier an earlier snapshot of the same cache
+		 * @return the difference between this snapshot and the earlier one
+		 */
+		public Statistics since(Statistics earlier) {
+			return new Statistics(this.size - earlier.size, this.hits - earlier.hits,
+					this.misses - earlier.misses);
+		}
+
+		@Override
+		public String toString() {
+			return this.size + " classes checked, " + this.hits + " hits, "
+					+ this.misses + " misses";
+		}
+
+	}
+
+}
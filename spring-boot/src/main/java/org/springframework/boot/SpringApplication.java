@@ -234,7 +234,7 @@ public class SpringApplication {
 
 	private boolean deduceWebEnvironment() {
 		for (String className : WEB_ENVIRONMENT_CLASSES) {
-			if (!ClassUtils.isPresent(className, null)) {
+			if (!ClassPresenceCache.isPresent(className, null)) {
 				return false;
 			}
 		}
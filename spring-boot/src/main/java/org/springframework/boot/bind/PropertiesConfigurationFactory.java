@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,7 @@ import org.springframework.context.MessageSourceAware;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.env.PropertySources;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.BindException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.DataBinder;
@@ -278,8 +279,11 @@ public class PropertiesConfigurationFactory<T> implements FactoryBean<T>,
 		if (this.properties != null) {
 			return new MutablePropertyValues(this.properties);
 		}
+		// Properties that are not under the target name are ignored by the binder so
+		// there is no need to resolve them
 		return new PropertySourcesPropertyValues(this.propertySources,
-				new DefaultPropertyNamePatternsMatcher(names), names);
+				new DefaultPropertyNamePatternsMatcher(names), names,
+				(StringUtils.hasText(this.targetName) ? this.targetName : null));
 	}
 
 	private void validate(RelaxedDataBinder dataBinder) throws BindException {
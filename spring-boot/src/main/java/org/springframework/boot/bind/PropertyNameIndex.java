@@ -0,0 +1,171 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.bind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySources;
+
+/**
+ * Index of the property names of the {@link EnumerablePropertySource}s in a
+ * {@link PropertySources} instance. Names are indexed by a canonical form that is the
+ * same for all of the {@link RelaxedNames relaxed variations} of a name so that the
+ * names under a prefix can be found without checking every name. The names of a source
+ * are only read again when the source changes: when it is replaced or, for a
+ * {@link MapPropertySource}, when the keys of its map change.
+ *
+ * @author Phillip Webb
+ */
+final class PropertyNameIndex {
+
+	private static final Map<PropertySources, PropertyNameIndex> indexes = Collections
+			.synchronizedMap(new WeakHashMap<PropertySources, PropertyNameIndex>());
+
+	private final Map<String, SourceIndex> sources = new HashMap<String, SourceIndex>();
+
+	private PropertyNameIndex() {
+	}
+
+	/**
+	 * Return the property names of the given source that may be under the given
+	 * prefix. The names that are returned may include names that are not under a
+	 * relaxed variation of the prefix but never exclude one that is.
+	 * @param source the property source
+	 * @param prefix the prefix or {@code null} to return all names
+	 * @return the property names
+	 */
+	public synchronized Collection<String> getPropertyNames(
+			EnumerablePropertySource<?> source, String prefix) {
+		SourceIndex index = this.sources.get(source.getName());
+		if (index == null || index.isStale(source)) {
+			index = new SourceIndex(source);
+			this.sources.put(source.getName(), index);
+		}
+		return index.getPropertyNames(prefix == null ? null : getCanonicalName(prefix));
+	}
+
+	/**
+	 * Return the index for the given property sources.
+	 * @param propertySources the property sources
+	 * @return the index
+	 */
+	public static PropertyNameIndex get(PropertySources propertySources) {
+		synchronized (indexes) {
+			PropertyNameIndex index = indexes.get(propertySources);
+			if (index == null) {
+				index = new PropertyNameIndex();
+				indexes.put(propertySources, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Return the canonical form of a name. Relaxed variations only differ in case and in
+	 * the use of separators so the canonical form is the name in lower case with the
+	 * separators removed.
+	 * @param name the name
+	 * @return the canonical name
+	 */
+	static String getCanonicalName(String name) {
+		StringBuilder canonical = new StringBuilder(name.length());
+		for (int i = 0; i < name.length(); i++) {
+			char ch = name.charAt(i);
+			if (ch != '.' && ch != '_' && ch != '-') {
+				// Upper case first so that locale specific lower case forms match
+				canonical.append(Character.toLowerCase(Character.toUpperCase(ch)));
+			}
+		}
+		return canonical.toString();
+	}
+
+	/**
+	 * The indexed names of a single property source.
+	 */
+	private static class SourceIndex {
+
+		private final EnumerablePropertySource<?> source;
+
+		private final Map<?, ?> map;
+
+		private final int size;
+
+		private final String[] names;
+
+		private final TreeMap<String, List<String>> canonicalNames = new TreeMap<String, List<String>>();
+
+		SourceIndex(EnumerablePropertySource<?> source) {
+			this.source = source;
+			this.map = (source instanceof MapPropertySource ? ((MapPropertySource) source)
+					.getSource() : null);
+			this.size = (this.map == null ? -1 : this.map.size());
+			this.names = source.getPropertyNames();
+			for (String name : this.names) {
+				String canonicalName = getCanonicalName(name);
+				List<String> names = this.canonicalNames.get(canonicalName);
+				if (names == null) {
+					names = new ArrayList<String>(1);
+					this.canonicalNames.put(canonicalName, names);
+				}
+				names.add(name);
+			}
+		}
+
+		public boolean isStale(EnumerablePropertySource<?> source) {
+			if (source != this.source) {
+				return true;
+			}
+			if (this.map != null) {
+				return (this.map.size() != this.size || !containsAll(this.map, this.names));
+			}
+			return !Arrays.equals(this.names, source.getPropertyNames());
+		}
+
+		private boolean containsAll(Map<?, ?> map, String[] names) {
+			for (String name : names) {
+				if (!map.containsKey(name)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public Collection<String> getPropertyNames(String canonicalPrefix) {
+			if (canonicalPrefix == null) {
+				return Arrays.asList(this.names);
+			}
+			List<String> result = new ArrayList<String>();
+			for (List<String> names : this.canonicalNames.subMap(canonicalPrefix,
+					canonicalPrefix + Character.MAX_VALUE).values()) {
+				result.addAll(names);
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -46,6 +46,10 @@ public class PropertySourcesPropertyValues implements PropertyValues {
 
 	private final PropertySources propertySources;
 
+	private final PropertyNameIndex index;
+
+	private final String prefix;
+
 	private static final Collection<String> PATTERN_MATCHED_PROPERTY_SOURCES = Arrays
 			.asList(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME,
 					StandardEnvironment.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME);
@@ -81,7 +85,23 @@ public class PropertySourcesPropertyValues implements PropertyValues {
 	 */
 	PropertySourcesPropertyValues(PropertySources propertySources,
 			PropertyNamePatternsMatcher includes, Collection<String> names) {
+		this(propertySources, includes, names, null);
+	}
+
+	/**
+	 * Create a new PropertyValues from the given PropertySources
+	 * @param propertySources a PropertySources instance
+	 * @param includes property name patterns to include from system properties and
+	 * environment variables
+	 * @param names exact property names to include
+	 * @param prefix an optional prefix. When specified only enumerable properties that
+	 * may be under a relaxed variation of the prefix are included
+	 */
+	PropertySourcesPropertyValues(PropertySources propertySources,
+			PropertyNamePatternsMatcher includes, Collection<String> names, String prefix) {
 		this.propertySources = propertySources;
+		this.index = PropertyNameIndex.get(propertySources);
+		this.prefix = prefix;
 		if (includes == null) {
 			includes = PropertyNamePatternsMatcher.NONE;
 		}
@@ -116,8 +136,10 @@ public class PropertySourcesPropertyValues implements PropertyValues {
 	private void processEnumerablePropertySource(EnumerablePropertySource<?> source,
 			PropertySourcesPropertyResolver resolver,
 			PropertyNamePatternsMatcher includes, Collection<String> exacts) {
-		if (source.getPropertyNames().length > 0) {
-			for (String propertyName : source.getPropertyNames()) {
+		Collection<String> propertyNames = this.index.getPropertyNames(source,
+				this.prefix);
+		if (!propertyNames.isEmpty()) {
+			for (String propertyName : propertyNames) {
 				if (PropertySourcesPropertyValues.PATTERN_MATCHED_PROPERTY_SOURCES
 						.contains(source.getName()) && !includes.matches(propertyName)) {
 					continue;
@@ -16,12 +16,15 @@
 
 package org.springframework.boot.bind;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.StringUtils;
 
 /**
@@ -36,9 +39,11 @@ public final class RelaxedNames implements Iterable<String> {
 
 	private static final Pattern CAMEL_CASE_PATTERN = Pattern.compile("([^A-Z-])([A-Z])");
 
+	private static final Map<String, Set<String>> cache = new ConcurrentReferenceHashMap<String, Set<String>>();
+
 	private final String name;
 
-	private final Set<String> values = new LinkedHashSet<String>();
+	private final Set<String> values;
 
 	/**
 	 * Create a new {@link RelaxedNames} instance.
@@ -47,7 +52,18 @@ public final class RelaxedNames implements Iterable<String> {
 	 */
 	public RelaxedNames(String name) {
 		this.name = (name == null ? "" : name);
-		initialize(RelaxedNames.this.name, this.values);
+		this.values = getValues(this.name);
+	}
+
+	private Set<String> getValues(String name) {
+		Set<String> values = cache.get(name);
+		if (values == null) {
+			values = new LinkedHashSet<String>();
+			initialize(name, values);
+			values = Collections.unmodifiableSet(values);
+			cache.put(name, values);
+		}
+		return values;
 	}
 
 	@Override
@@ -35,6 +35,8 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.Scope;
+import org.springframework.boot.context.startup.StartupStep;
+import org.springframework.boot.context.startup.StartupTimeline;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextException;
 import org.springframework.core.io.Resource;
@@ -126,6 +128,7 @@ public class EmbeddedWebApplicationContext extends GenericWebApplicationContext
 	@Override
 	protected void onRefresh() {
 		super.onRefresh();
+		StartupStep step = startStep("embedded.container.create");
 		try {
 			createEmbeddedServletContainer();
 		}
@@ -133,6 +136,9 @@ public class EmbeddedWebApplicationContext extends GenericWebApplicationContext
 			throw new ApplicationContextException("Unable to start embedded container",
 					ex);
 		}
+		finally {
+			endStep(step);
+		}
 	}
 
 	@Override
@@ -285,7 +291,28 @@ public class EmbeddedWebApplicationContext extends GenericWebApplicationContext
 
 	private void startEmbeddedServletContainer() {
 		if (this.embeddedServletContainer != null) {
-			this.embeddedServletContainer.start();
+			StartupStep step = startStep("embedded.container.start");
+			try {
+				this.embeddedServletContainer.start();
+			}
+			finally {
+				endStep(step);
+			}
+		}
+	}
+
+	private StartupStep startStep(String name) {
+		ConfigurableListableBeanFactory beanFactory = getBeanFactory();
+		if (beanFactory.containsSingleton(StartupTimeline.BEAN_NAME)) {
+			return beanFactory.getBean(StartupTimeline.BEAN_NAME, StartupTimeline.class)
+					.start(name);
+		}
+		return null;
+	}
+
+	private void endStep(StartupStep step) {
+		if (step != null) {
+			step.end();
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.context.event.SimpleApplicationEventMulticaster;
 import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.core.Ordered;
 import org.springframework.core.env.ConfigurableEnvironment;
 
 /**
@@ -32,7 +33,8 @@ import org.springframework.core.env.ConfigurableEnvironment;
  *
  * @author Phillip Webb
  */
-public class EventPublishingRunListener implements SpringApplicationRunListener {
+public class EventPublishingRunListener implements SpringApplicationRunListener,
+		Ordered {
 
 	private final ApplicationEventMulticaster multicaster;
 
@@ -49,6 +51,11 @@ public class EventPublishingRunListener implements SpringApplicationRunListener
 		}
 	}
 
+	@Override
+	public int getOrder() {
+		return 0;
+	}
+
 	@Override
 	public void started() {
 		publishEvent(new ApplicationStartedEvent(this.application, this.args));
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.startup;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * A single step recorded in a {@link StartupTimeline}. Times are in nanoseconds and
+ * relative to the creation of the timeline.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public class StartupStep {
+
+	private final StartupTimeline timeline;
+
+	private final long id;
+
+	private final Long parentId;
+
+	private final String name;
+
+	private final long startTime;
+
+	private final Map<String, String> tags = new LinkedHashMap<String, String>();
+
+	private volatile long endTime = -1;
+
+	StartupStep(StartupTimeline timeline, long id, Long parentId, String name,
+			long startTime) {
+		this.timeline = timeline;
+		this.id = id;
+		this.parentId = parentId;
+		this.name = name;
+		this.startTime = startTime;
+	}
+
+	/**
+	 * Add a tag to the step.
+	 * @param key the tag key
+	 * @param value the tag value
+	 * @return this step
+	 */
+	public StartupStep tag(String key, String value) {
+		Assert.notNull(key, "Key must not be null");
+		synchronized (this.tags) {
+			this.tags.put(key, value);
+		}
+		return this;
+	}
+
+	/**
+	 * End the step. Ending a step that has already ended has no effect.
+	 */
+	public void end() {
+		if (this.endTime == -1) {
+			this.endTime = this.timeline.end(this);
+		}
+	}
+
+	public long getId() {
+		return this.id;
+	}
+
+	/**
+	 * Return the ID of the step that was running when this step was started.
+	 * @return the parent ID or {@code null}
+	 */
+	public Long getParentId() {
+		return this.parentId;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public Map<String, String> getTags() {
+		synchronized (this.tags) {
+			return Collections.unmodifiableMap(new LinkedHashMap<String, String>(
+					this.tags));
+		}
+	}
+
+	public long getStartTime() {
+		return this.startTime;
+	}
+
+	/**
+	 * Return the duration of the step or {@code -1} if it has not ended.
+	 * @return the duration in nanoseconds
+	 */
+	public long getDuration() {
+		long endTime = this.endTime;
+		return (endTime == -1 ? -1 : endTime - this.startTime);
+	}
+
+	@Override
+	public String toString() {
+		return this.name + getTags();
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.startup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * A bounded, in-memory timeline of {@link StartupStep steps}. Steps that are started
+ * while another step is running on the same thread are recorded as children of that
+ * step. Once the capacity of the timeline has been reached further steps are dropped
+ * rather than recorded, so that the earliest steps (including the phases of
+ * {@link org.springframework.boot.SpringApplication#run(String...) run} that enclose
+ * everything else) are always kept. The number of dropped steps is available from
+ * {@link #getDropped()}.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ * @see StartupTimelineRunListener
+ */
+public class StartupTimeline {
+
+	/**
+	 * The name of the bean that the timeline of an application is registered under.
+	 */
+	public static final String BEAN_NAME = "startupTimeline";
+
+	private static final int DEFAULT_CAPACITY = 4096;
+
+	private final long origin = System.nanoTime();
+
+	private final AtomicLong ids = new AtomicLong();
+
+	private final ThreadLocal<Deque<StartupStep>> running = new ThreadLocal<Deque<StartupStep>>() {
+		@Override
+		protected Deque<StartupStep> initialValue() {
+			return new ArrayDeque<StartupStep>();
+		}
+	};
+
+	private final StartupStep[] steps;
+
+	private int recorded;
+
+	private long dropped;
+
+	/**
+	 * Create a new {@link StartupTimeline} with the default capacity.
+	 */
+	public StartupTimeline() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a new {@link StartupTimeline} with the given capacity.
+	 * @param capacity the maximum number of steps that are kept
+	 */
+	public StartupTimeline(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be positive");
+		this.steps = new StartupStep[capacity];
+	}
+
+	/**
+	 * Start a new step. The step is a child of the innermost step that is running on
+	 * the current thread, if any.
+	 * @param name the name of the step
+	 * @return the running step
+	 */
+	public StartupStep start(String name) {
+		Assert.notNull(name, "Name must not be null");
+		Deque<StartupStep> running = this.running.get();
+		StartupStep parent = running.peek();
+		StartupStep step = new StartupStep(this, this.ids.incrementAndGet(),
+				(parent == null ? null : parent.getId()), name, System.nanoTime()
+						- this.origin);
+		running.push(step);
+		record(step);
+		return step;
+	}
+
+	private synchronized void record(StartupStep step) {
+		if (this.recorded < this.steps.length) {
+			this.steps[this.recorded++] = step;
+		}
+		else {
+			this.dropped++;
+		}
+	}
+
+	long end(StartupStep step) {
+		Deque<StartupStep> running = this.running.get();
+		// Steps that were never ended (for example because of an exception) are
+		// discarded along with the step that was started before them
+		if (running.contains(step)) {
+			StartupStep popped = running.pop();
+			while (popped != step) {
+				popped = running.pop();
+			}
+		}
+		if (running.isEmpty()) {
+			// Don't hold on to state for threads that create beans later
+			this.running.remove();
+		}
+		return System.nanoTime() - this.origin;
+	}
+
+	/**
+	 * Return the recorded steps in the order that they were started. If more steps
+	 * have been started than the capacity of the timeline only the earliest steps are
+	 * returned.
+	 * @return the steps
+	 */
+	public synchronized List<StartupStep> getSteps() {
+		List<StartupStep> steps = new ArrayList<StartupStep>(this.recorded);
+		for (int i = 0; i < this.recorded; i++) {
+			steps.add(this.steps[i]);
+		}
+		return Collections.unmodifiableList(steps);
+	}
+
+	/**
+	 * Return the number of steps that were not recorded because the timeline was full.
+	 * @return the number of dropped steps
+	 */
+	public synchronized long getDropped() {
+		return this.dropped;
+	}
+
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.startup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringApplicationRunListener;
+import org.springframework.boot.bind.RelaxedPropertyResolver;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * {@link SpringApplicationRunListener} that records the phases of
+ * {@link SpringApplication#run(String...)} and the creation of each bean in a
+ * {@link StartupTimeline}. The timeline is registered in the application context as
+ * {@value StartupTimeline#BEAN_NAME} and is logged at debug level when the context is
+ * closed.
+ * <p>
+ * The listener runs after any other listeners so that the time they take is included
+ * in the phase that they are called in. For example the time taken to load
+ * {@code application.properties} is recorded as part of the
+ * {@code application.environment} step.
+ * <p>
+ * Recording can be switched off by setting {@code spring.startup.timeline.enabled} to
+ * {@code false}, in which case no timeline is registered and bean creation is not
+ * recorded.
+ *
+ * @author Phillip Webb
+ * @since 1.2.2
+ */
+public class StartupTimelineRunListener implements SpringApplicationRunListener,
+		Ordered {
+
+	private static final Log logger = LogFactory.getLog(StartupTimelineRunListener.class);
+
+	private final StartupTimeline timeline = new StartupTimeline();
+
+	private StartupStep run;
+
+	private StartupStep phase;
+
+	private BeanCreationRecorder beanCreationRecorder;
+
+	private boolean enabled = true;
+
+	public StartupTimelineRunListener(SpringApplication application, String[] args) {
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
+	@Override
+	public void started() {
+		this.run = this.timeline.start("application.run");
+		this.phase = this.timeline.start("application.environment");
+	}
+
+	@Override
+	public void environmentPrepared(ConfigurableEnvironment environment) {
+		RelaxedPropertyResolver resolver = new RelaxedPropertyResolver(environment,
+				"spring.startup.timeline.");
+		this.enabled = resolver.getProperty("enabled", Boolean.class, true);
+		if (!this.enabled) {
+			this.run = null;
+			this.phase = null;
+			return;
+		}
+		startPhase("application.context.prepare");
+	}
+
+	@Override
+	public void contextPrepared(ConfigurableApplicationContext context) {
+		if (!this.enabled) {
+			return;
+		}
+		context.getBeanFactory().registerSingleton(StartupTimeline.BEAN_NAME,
+				this.timeline);
+		this.beanCreationRecorder = new BeanCreationRecorder(this.timeline);
+		context.getBeanFactory().addBeanPostProcessor(this.beanCreationRecorder);
+		startPhase("application.context.load");
+	}
+
+	@Override
+	public void contextLoaded(ConfigurableApplicationContext context) {
+		if (!this.enabled) {
+			return;
+		}
+		startPhase("application.context.refresh");
+	}
+
+	@Override
+	public void finished(ConfigurableApplicationContext context, Throwable exception) {
+		if (!this.enabled) {
+			return;
+		}
+		startPhase(null);
+		if (this.beanCreationRecorder != null) {
+			this.beanCreationRecorder.finish();
+		}
+		if (this.run != null) {
+			if (exception != null) {
+				this.run.tag("exception", exception.getClass().getName());
+			}
+			this.run.end();
+		}
+		if (context != null) {
+			context.addApplicationListener(new TimelineLoggingListener(context,
+					this.timeline));
+		}
+	}
+
+	private void startPhase(String name) {
+		if (this.phase != null) {
+			this.phase.end();
+		}
+		this.phase = (name == null ? null : this.timeline.start(name));
+	}
+
+	/**
+	 * Records a step for the creation of each bean until the application has started.
+	 * The step of a bean whose creation fails is not ended, it is discarded when the
+	 * step that encloses it ends.
+	 */
+	private static class BeanCreationRecorder extends
+			InstantiationAwareBeanPostProcessorAdapter {
+
+		private final StartupTimeline timeline;
+
+		private final ConcurrentMap<String, StartupStep> steps = new ConcurrentHashMap<String, StartupStep>();
+
+		private volatile boolean finished;
+
+		BeanCreationRecorder(StartupTimeline timeline) {
+			this.timeline = timeline;
+		}
+
+		@Override
+		public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName)
+				throws BeansException {
+			if (beanName != null && !this.finished) {
+				StartupStep step = this.timeline.start("bean.create");
+				step.tag("beanName", beanName).tag("beanClass", beanClass.getName());
+				this.steps.put(beanName, step);
+			}
+			return null;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName)
+				throws BeansException {
+			StartupStep step = (beanName == null ? null : this.steps.remove(beanName));
+			if (step != null) {
+				step.end();
+			}
+			return bean;
+		}
+
+		/**
+		 * Stop recording and forget the steps of beans whose creation failed.
+		 */
+		public void finish() {
+			this.finished = true;
+			this.steps.clear();
+		}
+
+	}
+
+	/**
+	 * Logs the timeline when the context is closed.
+	 */
+	private static class TimelineLoggingListener implements
+			ApplicationListener<ContextClosedEvent> {
+
+		private final ApplicationContext context;
+
+		private final StartupTimeline timeline;
+
+		TimelineLoggingListener(ApplicationContext context, StartupTimeline timeline) {
+			this.context = context;
+			this.timeline = timeline;
+		}
+
+		@Override
+		public void onApplicationEvent(ContextClosedEvent event) {
+			// Events from child contexts are also published to their parent
+			if (event.getApplicationContext() == this.context && logger.isDebugEnabled()) {
+				logger.debug(getLogMessage(this.timeline.getSteps(),
+						this.timeline.getDropped()));
+			}
+		}
+
+		private String getLogMessage(List<StartupStep> steps, long dropped) {
+			StringBuilder message = new StringBuilder("Startup timeline:\n");
+			Map<Long, Integer> depths = new HashMap<Long, Integer>();
+			for (StartupStep step : steps) {
+				Integer parentDepth = depths.get(step.getParentId());
+				int depth = (parentDepth == null ? 0 : parentDepth + 1);
+				depths.put(step.getId(), depth);
+				for (int i = 0; i <= depth; i++) {
+					message.append("  ");
+				}
+				message.append(step);
+				long duration = step.getDuration();
+				message.append(duration == -1 ? " (did not end)" : " "
+						+ TimeUnit.NANOSECONDS.toMicros(duration) / 1000.0 + "ms");
+				message.append("\n");
+			}
+			if (dropped > 0) {
+				message.append("  " + dropped + " further steps were not recorded\n");
+			}
+			return message.toString();
+		}
+
+	}
+
+}
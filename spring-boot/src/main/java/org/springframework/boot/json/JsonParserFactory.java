@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2014 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,7 @@
 
 package org.springframework.boot.json;
 
-import org.springframework.util.ClassUtils;
+import org.springframework.boot.ClassPresenceCache;
 
 /**
  * Factory to create a {@link JsonParser}.
@@ -38,19 +38,19 @@ public abstract class JsonParserFactory {
 	 * @return a {@link JsonParser}
 	 */
 	public static JsonParser getJsonParser() {
-		if (ClassUtils.isPresent("com.fasterxml.jackson.databind.ObjectMapper", null)) {
+		if (ClassPresenceCache.isPresent("com.fasterxml.jackson.databind.ObjectMapper", null)) {
 			return new JacksonJsonParser();
 		}
-		if (ClassUtils.isPresent("com.google.gson.Gson", null)) {
+		if (ClassPresenceCache.isPresent("com.google.gson.Gson", null)) {
 			return new GsonJsonParser();
 		}
-		if (ClassUtils.isPresent("org.yaml.snakeyaml.Yaml", null)) {
+		if (ClassPresenceCache.isPresent("org.yaml.snakeyaml.Yaml", null)) {
 			return new YamlJsonParser();
 		}
-		if (ClassUtils.isPresent("org.json.simple.JSONObject", null)) {
+		if (ClassPresenceCache.isPresent("org.json.simple.JSONObject", null)) {
 			return new JsonSimpleJsonParser();
 		}
-		if (ClassUtils.isPresent("org.json.JSONObject", null)) {
+		if (ClassPresenceCache.isPresent("org.json.JSONObject", null)) {
 			return new JsonJsonParser();
 		}
 		return new BasicJsonParser();
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ClassPresenceCache}.
+ *
+ * @author Phillip Webb
+ */
+public class ClassPresenceCacheTests {
+
+	private final ClassLoader classLoader = new URLClassLoader(new URL[0], getClass()
+			.getClassLoader());
+
+	@Test
+	public void presentClassIsCached() {
+		assertTrue(ClassPresenceCache.isPresent("java.lang.String", this.classLoader));
+		assertTrue(ClassPresenceCache.isPresent("java.lang.String", this.classLoader));
+		ClassPresenceCache cache = ClassPresenceCache.get(this.classLoader);
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getSize());
+	}
+
+	@Test
+	public void missingClassIsCached() {
+		assertFalse(ClassPresenceCache.isPresent("com.example.Missing", this.classLoader));
+		assertFalse(ClassPresenceCache.isPresent("com.example.Missing", this.classLoader));
+		ClassPresenceCache cache = ClassPresenceCache.get(this.classLoader);
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void missingClassIsCheckedAgainWhenUrlIsAdded() throws Exception {
+		TestClassLoader classLoader = new TestClassLoader();
+		String className = getClass().getName();
+		assertFalse(ClassPresenceCache.isPresent(className, classLoader));
+		classLoader.addURL(getClass().getProtectionDomain().getCodeSource()
+				.getLocation());
+		// The added URL is noticed when the next class is looked up
+		assertFalse(ClassPresenceCache.isPresent("com.example.Missing", classLoader));
+		assertTrue(ClassPresenceCache.isPresent(className, classLoader));
+		assertEquals(3, ClassPresenceCache.get(classLoader).getMisses());
+	}
+
+	@Test
+	public void statisticsSinceSnapshot() {
+		ClassPresenceCache cache = ClassPresenceCache.get(this.classLoader);
+		ClassPresenceCache.isPresent("java.lang.String", this.classLoader);
+		ClassPresenceCache.Statistics snapshot = cache.getStatistics();
+		ClassPresenceCache.isPresent("java.lang.String", this.classLoader);
+		ClassPresenceCache.isPresent("com.example.Missing", this.classLoader);
+		ClassPresenceCache.Statistics statistics = cache.getStatistics().since(snapshot);
+		assertEquals(1, statistics.getSize());
+		assertEquals(1, statistics.getHits());
+		assertEquals(1, statistics.getMisses());
+	}
+
+	@Test
+	public void cacheIsScopedToClassLoader() {
+		ClassLoader other = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		assertSame(ClassPresenceCache.get(this.classLoader),
+				ClassPresenceCache.get(this.classLoader));
+		assertNotSame(ClassPresenceCache.get(this.classLoader),
+				ClassPresenceCache.get(other));
+	}
+
+	private static class TestClassLoader extends URLClassLoader {
+
+		TestClassLoader() {
+			super(new URL[0], null);
+		}
+
+		@Override
+		public void addURL(URL url) {
+			super.addURL(url);
+		}
+
+	}
+
+}
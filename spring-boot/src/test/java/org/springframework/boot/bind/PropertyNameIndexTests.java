@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.bind;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link PropertyNameIndex}.
+ *
+ * @author Phillip Webb
+ */
+public class PropertyNameIndexTests {
+
+	private final MutablePropertySources propertySources = new MutablePropertySources();
+
+	private final Map<String, Object> map = new LinkedHashMap<String, Object>();
+
+	private MapPropertySource source;
+
+	@Before
+	public void init() {
+		this.map.put("foo.name", "a");
+		this.map.put("FOO_AGE", "b");
+		this.map.put("fooBar.name", "c");
+		this.map.put("bar.name", "d");
+		this.source = new MapPropertySource("map", this.map);
+		this.propertySources.addFirst(this.source);
+	}
+
+	@Test
+	public void canonicalNameIsSameForRelaxedNames() throws Exception {
+		String expected = PropertyNameIndex.getCanonicalName("my-relaxed-property");
+		for (String name : new RelaxedNames("my-relaxed-property")) {
+			assertEquals(expected, PropertyNameIndex.getCanonicalName(name));
+		}
+	}
+
+	@Test
+	public void sameIndexForSamePropertySources() throws Exception {
+		assertSame(PropertyNameIndex.get(this.propertySources),
+				PropertyNameIndex.get(this.propertySources));
+	}
+
+	@Test
+	public void allNamesWithoutPrefix() throws Exception {
+		Collection<String> names = PropertyNameIndex.get(this.propertySources)
+				.getPropertyNames(this.source, null);
+		assertEquals(this.map.keySet(), new HashSet<String>(names));
+	}
+
+	@Test
+	public void namesWithPrefix() throws Exception {
+		Collection<String> names = PropertyNameIndex.get(this.propertySources)
+				.getPropertyNames(this.source, "foo");
+		assertEquals(3, names.size());
+		assertTrue(names.contains("foo.name"));
+		assertTrue(names.contains("FOO_AGE"));
+		assertTrue(names.contains("fooBar.name"));
+	}
+
+	@Test
+	public void namesWithRelaxedPrefix() throws Exception {
+		Collection<String> names = PropertyNameIndex.get(this.propertySources)
+				.getPropertyNames(this.source, "foo-bar");
+		assertEquals(1, names.size());
+		assertTrue(names.contains("fooBar.name"));
+	}
+
+	@Test
+	public void namesWhenMapChanges() throws Exception {
+		PropertyNameIndex index = PropertyNameIndex.get(this.propertySources);
+		assertEquals(1, index.getPropertyNames(this.source, "bar").size());
+		this.map.put("bar.age", "e");
+		assertEquals(2, index.getPropertyNames(this.source, "bar").size());
+		this.map.remove("bar.age");
+		this.map.remove("bar.name");
+		this.map.put("baz.name", "f");
+		this.map.put("baz.age", "g");
+		assertEquals(0, index.getPropertyNames(this.source, "bar").size());
+	}
+
+	@Test
+	public void namesWhenSourceReplaced() throws Exception {
+		PropertyNameIndex index = PropertyNameIndex.get(this.propertySources);
+		assertEquals(1, index.getPropertyNames(this.source, "bar").size());
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("baz.name", "a");
+		MapPropertySource replacement = new MapPropertySource("map", map);
+		this.propertySources.replace("map", replacement);
+		assertEquals(0, index.getPropertyNames(replacement, "bar").size());
+	}
+
+}
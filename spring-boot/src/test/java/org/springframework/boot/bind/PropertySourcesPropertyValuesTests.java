@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2013 the original author or authors.
+ * Copyright 2012-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -86,6 +86,16 @@ public class PropertySourcesPropertyValuesTests {
 		assertEquals("bar", propertyValues.getPropertyValue("name").getValue());
 	}
 
+	@Test
+	public void testEnumeratedValueWithPrefix() {
+		this.propertySources.addFirst(new MapPropertySource("prefixed", Collections
+				.<String, Object> singletonMap("FOO_NAME", "spam")));
+		PropertySourcesPropertyValues propertyValues = new PropertySourcesPropertyValues(
+				this.propertySources, null, null, "foo");
+		assertEquals(1, propertyValues.getPropertyValues().length);
+		assertEquals("spam", propertyValues.getPropertyValue("FOO_NAME").getValue());
+	}
+
 	@Test
 	public void testNonEnumeratedPlaceholder() {
 		this.propertySources.addFirst(new PropertySource<String>("another", "baz") {
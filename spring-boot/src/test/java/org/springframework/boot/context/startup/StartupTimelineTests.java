@@ -0,0 +1,189 @@
+/*
+ * Copyright 2012-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.boot.context.startup;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.test.EnvironmentTestUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link StartupTimeline} and {@link StartupTimelineRunListener}.
+ *
+ * @author Phillip Webb
+ */
+public class StartupTimelineTests {
+
+	@Test
+	public void nestedStepsHaveParent() {
+		StartupTimeline timeline = new StartupTimeline();
+		StartupStep outer = timeline.start("outer");
+		StartupStep inner = timeline.start("inner").tag("foo", "bar");
+		inner.end();
+		StartupStep sibling = timeline.start("sibling");
+		sibling.end();
+		outer.end();
+		assertNull(outer.getParentId());
+		assertEquals(outer.getId(), inner.getParentId().longValue());
+		assertEquals(outer.getId(), sibling.getParentId().longValue());
+		assertEquals("bar", inner.getTags().get("foo"));
+		assertTrue(outer.getDuration() >= inner.getDuration() + sibling.getDuration());
+	}
+
+	@Test
+	public void stepThatDoesNotEndIsDiscardedWhenParentEnds() {
+		StartupTimeline timeline = new StartupTimeline();
+		StartupStep outer = timeline.start("outer");
+		StartupStep failed = timeline.start("failed");
+		outer.end();
+		StartupStep next = timeline.start("next");
+		assertNull(next.getParentId());
+		assertEquals(-1, failed.getDuration());
+	}
+
+	@Test
+	public void newStepsAreDroppedWhenFull() {
+		StartupTimeline timeline = new StartupTimeline(3);
+		StartupStep run = timeline.start("run");
+		for (int i = 0; i < 5; i++) {
+			timeline.start("step" + i).end();
+		}
+		run.end();
+		List<StartupStep> steps = timeline.getSteps();
+		assertEquals(3, steps.size());
+		assertEquals("run", steps.get(0).getName());
+		assertEquals("step0", steps.get(1).getName());
+		assertEquals("step1", steps.get(2).getName());
+		assertEquals(3, timeline.getDropped());
+		assertTrue(run.getDuration() >= 0);
+	}
+
+	@Test
+	public void runListenerRecordsPhasesAndBeans() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		StartupTimelineRunListener listener = new StartupTimelineRunListener(
+				new SpringApplication(), new String[0]);
+		listener.started();
+		listener.environmentPrepared(context.getEnvironment());
+		listener.contextPrepared(context);
+		context.register(Config.class);
+		listener.contextLoaded(context);
+		context.refresh();
+		listener.finished(context, null);
+		try {
+			List<StartupStep> steps = context.getBean(StartupTimeline.class).getSteps();
+			assertEquals("application.run", steps.get(0).getName());
+			assertEquals("application.environment", steps.get(1).getName());
+			assertEquals("application.context.prepare", steps.get(2).getName());
+			assertEquals("application.context.load", steps.get(3).getName());
+			assertEquals("application.context.refresh", steps.get(4).getName());
+			StartupStep example = null;
+			for (StartupStep step : steps) {
+				assertTrue(step.getDuration() >= 0);
+				if ("example".equals(step.getTags().get("beanName"))) {
+					example = step;
+				}
+			}
+			assertEquals("bean.create", example.getName());
+			assertEquals(steps.get(4).getId(), example.getParentId().longValue());
+		}
+		finally {
+			context.close();
+		}
+	}
+
+	@Test
+	public void runListenerForgetsFailedBeansAndStopsRecording() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		StartupTimelineRunListener listener = new StartupTimelineRunListener(
+				new SpringApplication(), new String[0]);
+		listener.started();
+		listener.environmentPrepared(context.getEnvironment());
+		listener.contextPrepared(context);
+		StartupTimeline timeline = context.getBeanFactory().getBean(
+				StartupTimeline.class);
+		context.register(FailingConfig.class);
+		listener.contextLoaded(context);
+		RuntimeException failure = null;
+		try {
+			context.refresh();
+		}
+		catch (RuntimeException ex) {
+			failure = ex;
+		}
+		listener.finished(context, failure);
+		List<StartupStep> steps = timeline.getSteps();
+		assertEquals("application.run", steps.get(0).getName());
+		assertTrue(steps.get(0).getDuration() >= 0);
+		int recorded = steps.size();
+		timeline.start("next").end();
+		assertNull(timeline.getSteps().get(recorded).getParentId());
+		context.getBeanFactory().createBean(Config.class);
+		assertEquals(recorded + 1, timeline.getSteps().size());
+	}
+
+	@Test
+	public void runListenerCanBeDisabled() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(context, "spring.startup.timeline.enabled:false");
+		StartupTimelineRunListener listener = new StartupTimelineRunListener(
+				new SpringApplication(), new String[0]);
+		listener.started();
+		listener.environmentPrepared(context.getEnvironment());
+		listener.contextPrepared(context);
+		assertEquals(0, context.getBeanFactory().getBeanPostProcessorCount());
+		context.register(Config.class);
+		listener.contextLoaded(context);
+		context.refresh();
+		listener.finished(context, null);
+		try {
+			assertFalse(context.containsBean(StartupTimeline.BEAN_NAME));
+		}
+		finally {
+			context.close();
+		}
+	}
+
+	@Configuration
+	static class Config {
+
+		@Bean
+		public String example() {
+			return "example";
+		}
+
+	}
+
+	@Configuration
+	static class FailingConfig {
+
+		@Bean
+		public String failing() {
+			throw new IllegalStateException("Failed");
+		}
+
+	}
+
+}